@@ -151,6 +151,7 @@ public abstract class Entity {
      */
     protected void setRadius(double newRadius) {
         radius = newRadius;
+        invalidateWallCollisionTime();
     }
 
     private double mass;    // total
@@ -248,6 +249,7 @@ public abstract class Entity {
     	    throw new IllegalStateException("This entity is Terminated");
 
         this.world = world;
+        invalidateWallCollisionTime();
     }
 
     private Vector position;    // defensively
@@ -291,6 +293,7 @@ public abstract class Entity {
             throw new IllegalArgumentException("The new position is invalid");
 
         position = newPosition;
+        invalidateWallCollisionTime();
     }
 
     /**
@@ -436,11 +439,29 @@ public abstract class Entity {
         if( time < 0 )
             throw new IllegalArgumentException(Double.toString(time));
 
+        // Moving along the current velocity does not change the predicted wall collision, only teleporting does.
+        double predictedWallCollisionTime = wallCollisionTime;
+
         try {
             getWorld().setEntityPosition(this, getPosition().add(getVelocity().multiply(time)));
         } catch (NullPointerException e) {
             setPosition(getPosition().add(getVelocity().multiply(time)));
         }
+
+        wallCollisionTime = predictedWallCollisionTime;
+        timeMoved += time;
+    }
+
+    private double timeMoved = 0;
+
+    /**
+     * Returns the total amount of time this entity has moved.
+     *
+     * @return  | result == this.timeMoved
+     */
+    @Basic
+    public double getTimeMoved() {
+        return timeMoved;
     }
 
     private Vector velocity;    // total
@@ -491,6 +512,7 @@ public abstract class Entity {
             }
 
             velocity = newVelocity;
+            invalidateWallCollisionTime();
         }
     }
 
@@ -588,7 +610,19 @@ public abstract class Entity {
      *          | result == (virtualPosThis.getDistance(virtualPosOther) <= (getRadius() + other.getRadius()) * 0.99)
      */
     public boolean overlap (Entity other, Vector virtualPosThis, Vector virtualPosOther) {
-        return virtualPosThis.getDistance(virtualPosOther) <= (getRadius() + other.getRadius()) * 0.99;
+        return overlap(virtualPosOther.getX() - virtualPosThis.getX(), virtualPosOther.getY() - virtualPosThis.getY(),
+                getRadius() + other.getRadius());
+    }
+
+    /**
+     * Returns true if two entities, the sum of whose radii is equal to the given sumOfRadii and whose centers are
+     * the given distances apart, overlap. The distances are compared squared, so no square root has to be taken.
+     *
+     * @return  | result == (Math.sqrt(deltaX * deltaX + deltaY * deltaY) <= sumOfRadii * 0.99)
+     */
+    private static boolean overlap(double deltaX, double deltaY, double sumOfRadii) {
+        double overlapDistance = sumOfRadii * 0.99;
+        return deltaX * deltaX + deltaY * deltaY <= overlapDistance * overlapDistance;
     }
 
     /**
@@ -610,21 +644,29 @@ public abstract class Entity {
     public double getTimeToCollision(Entity entity) throws IllegalArgumentException {
     	if ( entity.equals(this) )
     		throw new IllegalArgumentException("Can't get time to collision with same entity");
-        if (overlap(entity)) {
+
+        double deltaX = entity.getPosition().getX() - getPosition().getX();
+        double deltaY = entity.getPosition().getY() - getPosition().getY();
+        double sumOfRadii = getRadius() + entity.getRadius();
+
+        if (overlap(deltaX, deltaY, sumOfRadii)) {
             throw new IllegalArgumentException("Overlapping Entities");
         }
 
-        Vector deltaR = entity.getPosition().getDifference(this.getPosition());
-        Vector deltaV = entity.getVelocity().getDifference(this.getVelocity());
+        double deltaVX = entity.getVelocity().getX() - getVelocity().getX();
+        double deltaVY = entity.getVelocity().getY() - getVelocity().getY();
 
-        if (deltaR.dotProduct(deltaV) >= 0) {
+        // The entities are not approaching each other.
+        double deltaRDotDeltaV = deltaX * deltaVX + deltaY * deltaVY;
+        if (deltaRDotDeltaV >= 0) {
             return Double.POSITIVE_INFINITY;
         }
 
-        double d = Math.pow(deltaR.dotProduct(deltaV), 2) - deltaV.dotProduct(deltaV) *
-                (deltaR.dotProduct(deltaR) - Math.pow(getRadius() + entity.getRadius(), 2));
+        double deltaVDotDeltaV = deltaVX * deltaVX + deltaVY * deltaVY;
+        double d = deltaRDotDeltaV * deltaRDotDeltaV - deltaVDotDeltaV *
+                (deltaX * deltaX + deltaY * deltaY - sumOfRadii * sumOfRadii);
 
-        return d <= 0 ? Double.POSITIVE_INFINITY : -(deltaV.dotProduct(deltaR) + Math.sqrt(d)) / deltaV.dotProduct(deltaV);
+        return d <= 0 ? Double.POSITIVE_INFINITY : -(deltaRDotDeltaV + Math.sqrt(d)) / deltaVDotDeltaV;
 
     }
 
@@ -669,20 +711,47 @@ public abstract class Entity {
         }
     }
 
+    private double wallCollisionTime = Double.NaN;
+
+    /**
+     * Forgets the predicted time of the next wall collision of this entity. It has to be invoked whenever the
+     * velocity, radius, world or position of this entity changes other than by moving.
+     *
+     * @Post    | Double.isNaN((new this).wallCollisionTime)
+     */
+    private void invalidateWallCollisionTime() {
+        wallCollisionTime = Double.NaN;
+    }
+
     /**
      * Returns the time until this entity collides with an edge of the world it is in.
      * If this entity is not currently in a finite world, returns positive infinity.
+     * The prediction is kept, relative to the total time this entity has moved, until the velocity, radius, world
+     * or position of this entity changes other than by moving.
      *
      * @return	If the entity is not in a world, returns positive infinity.
      * 			| if getWorld() == null then
      * 			|	result == Double.PPOSITIVE_INFINITY
      * @return The time until the first collision with a wall of the world this entity is in.
-     * 			| @see implementation
+     * 			| result == calculateTimeToWallCollision()
      */
     public double getTimeToWallCollision() {
         if ( getWorld() == null)
             return Double.POSITIVE_INFINITY;
 
+        if (Double.isNaN(wallCollisionTime))
+            wallCollisionTime = getTimeMoved() + calculateTimeToWallCollision();
+
+        return wallCollisionTime - getTimeMoved();
+    }
+
+    /**
+     * Calculates the time until this entity collides with an edge of the world it is in.
+     *
+     * @return The time until the first collision with a wall of the world this entity is in.
+     * 			| @see implementation
+     */
+    private double calculateTimeToWallCollision() {
         double xCollisionTime, yCollisionTime;
 
         if ( getVelocity().getX() == 0 ) {
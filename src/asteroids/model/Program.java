@@ -1,68 +1,676 @@
 package asteroids.model;
 
+import asteroids.model.programs.Execution;
+import asteroids.model.programs.Interpreter;
 import asteroids.model.programs.Parent;
-import asteroids.model.programs.expressions.Expression;
-import asteroids.model.util.exceptions.NotEnoughTimeRemainingException;
+import asteroids.model.programs.VariableSlots;
+import asteroids.model.programs.compiler.CompiledExecution;
+import asteroids.model.programs.compiler.CompiledProgram;
+import asteroids.model.programs.compiler.ProgramCompiler;
+import asteroids.model.programs.compiler.TieredCompiler;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
+import asteroids.model.programs.vm.VmExecution;
+import asteroids.model.programs.vm.VmProgram;
+import asteroids.model.programs.vm.VmState;
+import asteroids.model.programs.function.FrameStack;
+import asteroids.model.programs.function.FunctionCache;
+import asteroids.model.programs.optimizer.Optimization;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.programs.profiler.ProgramProfiler;
 import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Completion;
 import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.actionStatements.ActionStatement;
+import asteroids.model.programs.threads.ProgramThread;
+import asteroids.model.util.exceptions.CallDepthExceededException;
+import asteroids.model.util.exceptions.InstructionLimitExceededException;
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 import java.util.*;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
 public class Program implements Parent<Program> {
 
+	/**
+	 * Creates a new program that interprets the given functions and main statement.
+	 */
 	public Program(List<Function> functions, Statement<Program> main) {
+		this(new ProgramImage(functions, main));
 		setFunctions(functions);
 		main.setParent(this);
-		mainIterator = main.iterator();
+	}
+
+	/**
+	 * Creates a new program that executes the given image with the engine of the image. The program shares the
+	 * statements of the image and their compiled or assembled form with the other programs of the image.
+	 */
+	Program(ProgramImage image) {
+		this.image = image;
+		for (Function function : image.getFunctions())
+			functions.put(function.getFunctionName(), function);
+		globalVariables = VariableSlots.create(image.getNbGlobalVariables());
+		functionCache = new FunctionCache(FunctionCache.DEFAULT_CAPACITY, image.getLiterals());
+		optimizations = image.getOptimizations();
+		if (image.getCompiledProgram() != null)
+			setCompiledProgram(image.getCompiledProgram());
+		else if (image.getVmProgram() != null)
+			setVmProgram(image.getVmProgram());
+		else
+			execution = new Interpreter(this, globalVariables);
+	}
+
+	private final ProgramImage image;
+
+	/**
+	 * Returns the image this program executes.
+	 */
+	@Basic
+	public ProgramImage getImage() {
+		return image;
 	}
 
 	private List<Object> printedObjects = new ArrayList<>();
 
+	/**
+	 * Adds the given value, which a print statement of this program evaluated, to the objects printed by this program
+	 * and prints it on the print sink of this program.
+	 */
+	@Override
 	public void addPrintedObject(Object object) {
 		printedObjects.add(object);
+		printSink.print(object);
 	}
 
-	private Statement stashedStatement = null;
+	private PrintSink printSink = PrintSink.STANDARD_OUTPUT;
 
-	private Iterator<Statement<Program>> mainIterator;
+	/**
+	 * Returns the sink on which the values printed by this program are printed, the standard output by default.
+	 */
+	@Basic
+	public PrintSink getPrintSink() {
+		return printSink;
+	}
 
-	public List<Object> execute(double time) {
+	/**
+	 * Sets the sink on which the values printed by this program are printed to the given sink.
+	 *
+	 * @throws	IllegalArgumentException
+	 * 			| printSink == null
+	 */
+	@Raw
+	public void setPrintSink(PrintSink printSink) throws IllegalArgumentException {
+		if (printSink == null)
+			throw new IllegalArgumentException("Invalid print sink.");
+		this.printSink = printSink;
+	}
+
+	/**
+	 * Executes this program for the given amount of time, resuming a suspended execution where it ran out of time.
+	 *
+	 * @param time	The amount of time to add to the time remaining of this program.
+	 *
+	 * @return	The objects printed by this program if it has completed or was killed, null if it was suspended.
+	 * @throws	IllegalStateException
+	 * 			The main statement executed a break statement outside of a while loop.
+	 */
+	public List<Object> execute(double time) throws IllegalStateException {
+		start(time);
+		return finish();
+	}
+
+	/**
+	 * Whether an execution of this program was started and has not been finished yet.
+	 */
+	private boolean isExecuting = false;
+
+	/**
+	 * How the main statement completed in the execution in progress, of a program that executes it on the calling
+	 * thread.
+	 */
+	private Completion completion;
+
+	/**
+	 * Starts an execution of this program for the given amount of time. A program that executes its main statement
+	 * on a thread of its own only resumes that thread, other programs execute their main statement until it
+	 * completes or is suspended. The execution must be finished by finish.
+	 *
+	 * @param time	The amount of time to add to the time remaining of this program.
+	 */
+	void start(double time) {
 		incrementTimeRemaining(time);
+		// the world evolved since the last execution
+		entitiesChanged();
 
-		if (getTimeRemaining() >= 0.2) {
-			unPause();
+		isExecuting = ! isFinished && (! isPaused || isOutOfBudget
+				|| getTimeRemaining() >= ActionStatement.getExecutionTime());
+		if (! isExecuting)
+			return;
 
-			if (stashedStatement != null) {
-				try {
-					stashedStatement.execute();
-					stashedStatement = null;
-				} catch (NotEnoughTimeRemainingException ex) {
-					isPaused = true;
-				}
-			}
+		nbInstructions = 0;
+		if (threadFactory != null) {
+			if (thread == null)
+				thread = new ProgramThread(threadFactory, this::executeMain);
+			thread.resume();
+			return;
 		}
+		try {
+			completion = executeMain();
+		} catch (RuntimeException | Error exc) {
+			isExecuting = false;
+			throw exc;
+		} finally {
+			totalNbInstructions += nbInstructions;
+		}
+	}
 
-		while (! isPaused && mainIterator.hasNext()) {
+	/**
+	 * Finishes the execution of this program that was started by start, and waits until the thread of this program
+	 * suspends itself or completes, if this program has one.
+	 *
+	 * @return	The objects printed by this program if it has completed or was killed, null if it was suspended.
+	 * @throws	IllegalStateException
+	 * 			The main statement executed a break statement outside of a while loop.
+	 */
+	List<Object> finish() throws IllegalStateException {
+		if (isExecuting) {
+			isExecuting = false;
+			Completion completion = this.completion;
 			try {
-				stashedStatement = mainIterator.next();
-				stashedStatement.execute();
-			} catch (NotEnoughTimeRemainingException ex) {
-				isPaused = true;
-				break;
+				if (thread != null) {
+					completion = thread.await();
+					totalNbInstructions += nbInstructions;
+				}
+			} finally {
+				bufferedActions = null;
 			}
+
+			if (completion == Completion.BREAK)
+				throw new IllegalStateException("break statement outside of a while loop");
+			if (completion == Completion.RETURN)
+				throw new IllegalStateException("return statement outside of a function");
+
+			isPaused = completion == Completion.SUSPEND;
+			isOutOfBudget = isPaused && nbInstructions > instructionBudget;
+			if (isOutOfBudget)
+				nbBudgetSuspensions++;
+			isFinished = ! isPaused;
 		}
 
 		return isPaused ? null : printedObjects;
 	}
 
-	private boolean isPaused = false;
-	
-	public void unPause() {
+	/**
+	 * Executes the main statement of this program with the engine of this program, until it completes or is
+	 * suspended. The program is killed if it exceeds its instruction limit or its maximum call depth.
+	 *
+	 * @return	How the main statement completed.
+	 * @throws	StackOverflowError
+	 * 			The interpreter or compiled code nested more calls than the stack of the thread can hold.
+	 */
+	private Completion executeMain() {
+		try {
+			return execution.resume();
+		} catch (InstructionLimitExceededException | CallDepthExceededException exc) {
+			isKilled = true;
+			return Completion.NORMAL;
+		}
+	}
+
+	private ThreadFactory threadFactory;
+
+	private ProgramThread thread;
+
+	/**
+	 * Returns the factory of the thread on which this program executes its main statement, null if it is executed
+	 * on the threads that execute this program.
+	 */
+	@Basic
+	public ThreadFactory getThreadFactory() {
+		return threadFactory;
+	}
+
+	/**
+	 * Lets this program execute its main statement on a thread of its own, created by the given factory, or on the
+	 * threads that execute this program if the given factory is null.
+	 * The main statement of a program with a thread of its own is never suspended. When it has to wait for time to
+	 * perform an action, or exceeds its instruction budget, its thread is parked until this program is executed
+	 * again, and it continues where it parked. Unlike a suspension, that also happens when the instruction budget is
+	 * exceeded in a function call.
+	 * This method must be invoked before this program is executed for the first time.
+	 *
+	 * @param threadFactory	The factory to create the thread with, possibly null. ProgramThread.DAEMON_THREADS
+	 * 						creates daemon threads, a factory of virtual threads can be used where available.
+	 * @throws	IllegalStateException
+	 * 			This program has been executed already.
+	 */
+	@Raw
+	public void setThreadFactory(ThreadFactory threadFactory) throws IllegalStateException {
+		if (thread != null || isPaused || isFinished)
+			throw new IllegalStateException("The program has been executed already.");
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Stops the thread on which this program executes its main statement, if it has one. The main statement does
+	 * not continue, this program is finished. A program without a thread is not affected.
+	 * Ships stop the threads of their programs when they are terminated, removed from their world or given another
+	 * program.
+	 */
+	public void stopThread() {
+		if (thread == null)
+			return;
+		thread.stop();
 		isPaused = false;
+		isFinished = true;
+	}
+
+	/**
+	 * Suspends the thread of this program if it is the calling thread, until this program is executed again.
+	 *
+	 * @return	True if and only if the calling thread is the thread of this program.
+	 */
+	private boolean suspendThread() {
+		if (thread == null || ! thread.isCurrent())
+			return false;
+		thread.suspend();
+		return true;
+	}
+
+	/**
+	 * The default number of instructions after which an execution of a program is suspended. Executions are not
+	 * suspended for their instructions unless a budget is set.
+	 */
+	public static final long DEFAULT_INSTRUCTION_BUDGET = Long.MAX_VALUE;
+
+	/**
+	 * The default number of instructions after which an execution of a program is killed. Executions are not
+	 * killed for their instructions unless a limit is set.
+	 */
+	public static final long DEFAULT_INSTRUCTION_LIMIT = Long.MAX_VALUE;
+
+	private long instructionBudget = DEFAULT_INSTRUCTION_BUDGET;
+
+	/**
+	 * Returns the number of instructions after which an execution of this program is suspended. The execution is
+	 * suspended at the start of the next iteration of a while loop in the main statement, and resumed there the
+	 * next time this program is executed, regardless of its time remaining.
+	 * An instruction is an iteration of a while loop or a call of a function. Actions consume time and no
+	 * instructions, other statements and expressions cannot execute more than once without an instruction.
+	 */
+	@Basic
+	public long getInstructionBudget() {
+		return instructionBudget;
+	}
+
+	/**
+	 * Sets the instruction budget of the executions of this program to the given number of instructions.
+	 *
+	 * @throws	IllegalArgumentException
+	 * 			| budget <= 0
+	 */
+	@Raw
+	public void setInstructionBudget(long budget) throws IllegalArgumentException {
+		if (budget <= 0)
+			throw new IllegalArgumentException("Invalid instruction budget " + budget + ".");
+		this.instructionBudget = budget;
+	}
+
+	private long instructionLimit = DEFAULT_INSTRUCTION_LIMIT;
+
+	/**
+	 * Returns the number of instructions after which an execution of this program is killed. This limit applies
+	 * where the budget cannot suspend the execution, that is inside functions. A killed program is finished, its
+	 * execution returns the objects it printed before it was killed.
+	 */
+	@Basic
+	public long getInstructionLimit() {
+		return instructionLimit;
+	}
+
+	/**
+	 * Sets the instruction limit of the executions of this program to the given number of instructions.
+	 *
+	 * @throws	IllegalArgumentException
+	 * 			| limit <= 0
+	 */
+	@Raw
+	public void setInstructionLimit(long limit) throws IllegalArgumentException {
+		if (limit <= 0)
+			throw new IllegalArgumentException("Invalid instruction limit " + limit + ".");
+		this.instructionLimit = limit;
+	}
+
+	/**
+	 * The default number of function calls that can be nested in an execution of a program. The depth of calls is
+	 * not limited unless a maximum is set.
+	 */
+	public static final int DEFAULT_MAX_CALL_DEPTH = Integer.MAX_VALUE;
+
+	private int maxCallDepth = DEFAULT_MAX_CALL_DEPTH;
+
+	/**
+	 * Returns the number of function calls that can be nested in an execution of this program. An execution that
+	 * nests more calls is killed, like an execution that exceeds the instruction limit. Tail calls replace the
+	 * call that makes them, so they do not nest.
+	 * Assembled instructions keep the calls that are in progress in a stack of their own, which can hold any depth.
+	 * The interpreter and compiled code nest calls on the stack of the thread. An execution that nests more calls
+	 * than that stack can hold throws a StackOverflowError, unless a maximum depth stops it first.
+	 */
+	@Basic
+	public int getMaxCallDepth() {
+		return maxCallDepth;
+	}
+
+	/**
+	 * Sets the number of function calls that can be nested in an execution of this program to the given depth.
+	 *
+	 * @throws	IllegalArgumentException
+	 * 			| maxCallDepth <= 0
+	 */
+	@Raw
+	public void setMaxCallDepth(int maxCallDepth) throws IllegalArgumentException {
+		if (maxCallDepth <= 0)
+			throw new IllegalArgumentException("Invalid maximum call depth " + maxCallDepth + ".");
+		this.maxCallDepth = maxCallDepth;
+	}
+
+	private long nbInstructions = 0;
+
+	private long totalNbInstructions = 0;
+
+	private long nbBudgetSuspensions = 0;
+
+	private boolean isOutOfBudget = false;
+
+	private boolean isKilled = false;
+
+	/**
+	 * Counts an instruction of the execution in progress.
+	 *
+	 * @return	True if and only if the execution exceeded the instruction budget of this program and must be
+	 * 			suspended if possible.
+	 * @throws	InstructionLimitExceededException
+	 * 			The execution exceeded the instruction limit of this program.
+	 */
+	@Override
+	public boolean countInstruction() throws InstructionLimitExceededException {
+		if (++nbInstructions > instructionLimit)
+			throw new InstructionLimitExceededException(instructionLimit);
+		if (nbInstructions > instructionBudget && suspendThread())
+			// the next execution counts its instructions from zero
+			return false;
+		return nbInstructions > instructionBudget;
+	}
+
+	/**
+	 * Returns the number of instructions executed by the last execution of this program, or by the execution in
+	 * progress.
+	 */
+	public long getNbInstructions() {
+		return nbInstructions;
+	}
+
+	/**
+	 * Returns the number of instructions executed by all completed executions of this program.
+	 */
+	public long getTotalNbInstructions() {
+		return totalNbInstructions;
+	}
+
+	/**
+	 * Returns the number of times an execution of this program was suspended because it exceeded its instruction
+	 * budget.
+	 */
+	public long getNbBudgetSuspensions() {
+		return nbBudgetSuspensions;
+	}
+
+	/**
+	 * Returns whether an execution of this program was killed because it exceeded its instruction limit or its
+	 * maximum call depth.
+	 */
+	public boolean isKilled() {
+		return isKilled;
+	}
+
+	/**
+	 * Executes this program for the given amount of time like execute, but adds the actions it performs to the
+	 * given list instead of performing them on its ship. Its ship and the world of its ship are not changed, so
+	 * the programs of different ships can be executed like this at the same time.
+	 *
+	 * @param time		The amount of time to add to the time remaining of this program.
+	 * @param actions	The list to add the actions this program performs to, in the order it performs them.
+	 *
+	 * @return	The objects printed by this program if it has completed, null if it was suspended.
+	 * @throws	IllegalStateException
+	 * 			The main statement executed a break statement outside of a while loop.
+	 */
+	List<Object> execute(double time, List<Consumer<Ship>> actions) throws IllegalStateException {
+		start(time, actions);
+		return finish();
+	}
+
+	/**
+	 * Starts an execution of this program for the given amount of time like start, but adds the actions it performs
+	 * to the given list like execute, until the execution is finished by finish.
+	 */
+	void start(double time, List<Consumer<Ship>> actions) {
+		bufferedActions = actions;
+		try {
+			start(time);
+		} finally {
+			if (! isExecuting)
+				bufferedActions = null;
+		}
+	}
+
+	private List<Consumer<Ship>> bufferedActions = null;
+
+	/**
+	 * Performs the given action on the ship of this program, or buffers it if this program is executed by
+	 * World.executePrograms.
+	 *
+	 * @param action	The action to perform. Its operands must have been evaluated already.
+	 */
+	public void performAction(Consumer<Ship> action) {
+		if (bufferedActions != null)
+			bufferedActions.add(action);
+		else
+			action.accept(getShip());
+		entitiesChanged();
+	}
+
+	/**
+	 * The cached values of the entity queries of this program, by class of query. A null value is cached as this
+	 * map itself.
+	 */
+	private final Map<Class<?>, Object> entityQueries = new HashMap<>();
+
+	/**
+	 * Returns the value of the given entity query for the ship of this program. The values of queries that search
+	 * the world are cached until the world changes, when this program executes again or performs an action, since
+	 * all queries of the same class have the same value.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <E extends Entity> E queryEntity(EntityExpression<E> query) {
+		if (! query.isWorldQuery())
+			return query.getValue(getShip());
+
+		Object value = entityQueries.get(query.getClass());
+		if (value == null) {
+			value = query.getValue(getShip());
+			entityQueries.put(query.getClass(), value == null ? entityQueries : value);
+		}
+		return value == entityQueries ? null : (E) value;
+	}
+
+	/**
+	 * Drops the cached values of the entity queries of this program and of the calls of its functions that read
+	 * entities.
+	 */
+	private void entitiesChanged() {
+		if (! entityQueries.isEmpty())
+			entityQueries.clear();
+		functionCache.advance();
+	}
+
+	/**
+	 * The execution of the main statement of this program by the engine of this program.
+	 */
+	private Execution execution;
+
+	/**
+	 * Returns whether this program executes a compiled form of its statements instead of interpreting them.
+	 */
+	public boolean isCompiled() {
+		return execution instanceof CompiledExecution;
+	}
+
+	/**
+	 * Lets this program execute the given compiled form of its statements. If the given compiled program is null,
+	 * this program interprets its statements.
+	 * This method must be invoked before this program is executed for the first time.
+	 *
+	 * @param compiledProgram	The compiled form of the functions and main statement of this program.
+	 */
+	@Raw
+	public void setCompiledProgram(CompiledProgram compiledProgram) {
+		execution = compiledProgram == null ? new Interpreter(this, globalVariables)
+				: new CompiledExecution(compiledProgram, this);
+	}
+
+	/**
+	 * Lets this program execute the given instructions, assembled from its statements, instead of interpreting them.
+	 * This method must be invoked before this program is executed for the first time.
+	 *
+	 * @param vmProgram	The assembled form of the functions and main statement of this program.
+	 */
+	@Raw
+	public void setVmProgram(VmProgram vmProgram) {
+		execution = vmProgram == null ? new Interpreter(this, globalVariables) : new VmExecution(vmProgram, this);
+	}
+
+	/**
+	 * Returns the state in which this program executes its assembled instructions, null if it does not.
+	 */
+	public VmState getVmState() {
+		return execution instanceof VmExecution ? ((VmExecution) execution).getState() : null;
+	}
+
+	/**
+	 * Resumes the execution of the assembled instructions of this program from the given state, for instance one
+	 * that was serialized from another instance of the same program.
+	 *
+	 * @throws	IllegalStateException
+	 * 			This program does not execute assembled instructions.
+	 * @throws	IllegalArgumentException
+	 * 			The given state does not have as many global variables as this program.
+	 */
+	public void setVmState(VmState vmState) throws IllegalStateException, IllegalArgumentException {
+		if (! (execution instanceof VmExecution))
+			throw new IllegalStateException("This program does not execute assembled instructions.");
+		if (vmState.getNbGlobals() != getNbGlobalVariables())
+			throw new IllegalArgumentException("The state does not belong to this program.");
+		VmExecution vmExecution = (VmExecution) execution;
+		vmExecution.setState(vmState);
+		this.isFinished = false;
+		this.isPaused = vmState.getPc() != 0;
+		this.isOutOfBudget = vmExecution.isSuspendedOnBudget();
+	}
+
+	private ProgramProfiler profiler;
+
+	/**
+	 * Returns the profiler the executions of the statements of this program are reported to, null if this program
+	 * is not profiled.
+	 */
+	@Override @Basic
+	public ProgramProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Reports the executions of the statements of this program to the given profiler, or stops profiling this
+	 * program if the given profiler is null. A compiled program is compiled again, with or without the code that
+	 * reports to the profiler. A program that executes assembled instructions interprets its statements from now
+	 * on, since instructions do not correspond to statements. A program that compiles its hot loops and functions
+	 * interprets them again while it is profiled.
+	 * This method must be invoked before this program is executed for the first time, or between executions that
+	 * completed.
+	 *
+	 * @param profiler	The profiler to report to, possibly null.
+	 */
+	@Raw
+	public void setProfiler(ProgramProfiler profiler) {
+		this.profiler = profiler;
+		if (isCompiled())
+			setCompiledProgram(ProgramCompiler.compile(image.getFunctions(), image.getMain(), profiler != null));
+		if (profiler != null && execution instanceof VmExecution)
+			setVmProgram(null);
+	}
+
+	/**
+	 * Returns the interpreter of the statements of this program, null if this program executes a compiled or
+	 * assembled form of them.
+	 */
+	@Override
+	public Interpreter getInterpreter() {
+		return execution instanceof Interpreter ? (Interpreter) execution : null;
+	}
+
+	/**
+	 * Returns the compiler that compiles the hot loops and functions of this program while it interprets its
+	 * statements, null if this program does not compile them.
+	 */
+	public TieredCompiler getTieredCompiler() {
+		Interpreter interpreter = getInterpreter();
+		return interpreter == null ? null : interpreter.getTieredCompiler();
+	}
+
+	private List<Optimization> optimizations = Collections.emptyList();
+
+	/**
+	 * Returns the changes a ProgramOptimizer made to the statements of this program before it was created.
+	 */
+	@Basic
+	public List<Optimization> getOptimizations() {
+		return optimizations;
+	}
+
+	@Raw
+	public void setOptimizations(List<Optimization> optimizations) {
+		this.optimizations = optimizations;
+	}
+
+	private boolean isFinished = false;
+
+	private boolean isPaused = false;
+
+	private final FunctionCache functionCache;
+
+	/**
+	 * Returns the cache of the results of calls of the cacheable functions of this program. The results of
+	 * functions that read the state of entities are dropped every time this program is executed, since the world
+	 * advances between executions.
+	 */
+	@Basic
+	public FunctionCache getFunctionCache() {
+		return functionCache;
+	}
+
+	private final FrameStack frameStack = new FrameStack();
+
+	/**
+	 * Returns the stack of the activation frames of the function calls of this program that are in progress.
+	 */
+	@Basic
+	public FrameStack getFrameStack() {
+		return frameStack;
 	}
 
 	private Map<String, Function> functions = new HashMap<>();
@@ -78,21 +686,33 @@ public class Program implements Parent<Program> {
 		}
 	}
 
-	private Map<String, Expression> globalVariables = new HashMap<>();
+	private final Object[] globalVariables;
+
+	/**
+	 * Returns the number of global variables of this program.
+	 */
+	public int getNbGlobalVariables() {
+		return globalVariables.length;
+	}
 
 	@Override
-	public Expression getVariable(String varName) {
-		if (!globalVariables.containsKey(varName))
+	public Object getVariable(String varName, int localSlot, int globalSlot) {
+		if (globalSlot < 0)
 			throw new IllegalArgumentException("Variable " + varName + " is never assigned.");
 
-		return globalVariables.get(varName);
+		return VariableSlots.read(varName, globalVariables[globalSlot]);
 	}
 
 	@Override
-	public void addVariable(String varName, Object value) {
-		if (functions.containsKey(varName))
+	public void addVariable(String varName, int slot, Object value) {
+		if (slot < 0)
 			throw new IllegalArgumentException("function and variables can not hold the same name");
-		addVariableToMap(varName, value, globalVariables);
+		VariableSlots.write(varName, globalVariables, slot, value);
+	}
+
+	@Override
+	public void storeVariable(int slot, Object value) {
+		globalVariables[slot] = value;
 	}
 
 	private Ship ship;
@@ -118,13 +738,24 @@ public class Program implements Parent<Program> {
 		timeRemaining += time;
 	}
 
-	public void decrementTimeRemaining(double time) throws NotEnoughTimeRemainingException {
+	/**
+	 * Decrements the time remaining of this program by the given amount of time, if that much time remains. On the
+	 * thread of a program that has one, this method waits until this program is executed with enough time.
+	 *
+	 * @return	True if and only if the time remaining was decremented.
+	 */
+	public boolean decrementTimeRemaining(double time) {
 		double newTime = timeRemaining - time;
 
-		if (newTime < 0)
-			throw new NotEnoughTimeRemainingException();
+		// the thread of this program waits for the time it needs instead of being suspended
+		while (newTime < 0) {
+			if (! suspendThread())
+				return false;
+			newTime = timeRemaining - time;
+		}
 
 		timeRemaining = newTime;
+		return true;
 	}
 
 }
@@ -0,0 +1,195 @@
+package asteroids.model;
+
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.Interpreter;
+import asteroids.model.programs.VariableResolver;
+import asteroids.model.programs.compiler.CompiledProgram;
+import asteroids.model.programs.compiler.ProgramCompiler;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.function.FunctionCache;
+import asteroids.model.programs.function.PurityAnalyzer;
+import asteroids.model.programs.function.TailCallAnalyzer;
+import asteroids.model.programs.optimizer.Optimization;
+import asteroids.model.programs.types.TypeChecker;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.vm.ProgramAssembler;
+import asteroids.model.programs.vm.VmProgram;
+import asteroids.model.util.exceptions.IllTypedProgramException;
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A class of images of programs, the code of a program that is shared by all ships that run it. An image holds the
+ * analyzed statements of a program and their compiled or assembled form, the programs created from it only hold the
+ * state of their own execution.
+ * All programs of an image share its statements and their compiled or assembled form, every program keeps the state
+ * of its execution in an Execution of its own. An Interpreter keeps the points at which suspended statements resume,
+ * and the hot code it compiled, under the indices the image gives its statements.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramImage {
+
+    /**
+     * Creates a new image of the program with the given functions and main statement, which are interpreted by a
+     * single program that is their parent.
+     */
+    ProgramImage(List<Function> functions, Statement<Program> main) {
+        this(functions, main, ExecutionEngine.INTERPRETER, Collections.emptyList());
+        this.isOwned = true;
+    }
+
+    /**
+     * Creates a new image of the program with the given functions and main statement. The variables, types, purity
+     * and tail calls of the program are analyzed, and the program is compiled or assembled for the given engine. If
+     * that is not possible, the programs of the image interpret its statements.
+     *
+     * @param functions     The function definitions of the program.
+     * @param main          The main statement of the program.
+     * @param engine        The engine the programs of the image are executed by.
+     * @param optimizations The changes a ProgramOptimizer made to the given statements.
+     *
+     * @throws  IllTypedProgramException
+     *          A TypeChecker rejects the program.
+     */
+    public ProgramImage(List<Function> functions, Statement<Program> main, ExecutionEngine engine,
+                        List<Optimization> optimizations) throws IllTypedProgramException {
+        this.functions = Collections.unmodifiableList(new ArrayList<>(functions));
+        this.main = main;
+        this.optimizations = optimizations;
+        this.tiered = engine == ExecutionEngine.TIERED;
+        this.nbStatements = Interpreter.index(this.functions, main);
+
+        this.nbGlobalVariables = VariableResolver.resolve(functions, main);
+        TypeChecker.check(functions, main, nbGlobalVariables);
+        PurityAnalyzer.analyze(functions);
+        this.literals = FunctionCache.collectLiterals(functions);
+        TailCallAnalyzer.analyze(functions);
+
+        CompiledProgram compiledProgram = null;
+        VmProgram vmProgram = null;
+        try {
+            if (engine == ExecutionEngine.COMPILER)
+                compiledProgram = ProgramCompiler.compile(functions, main);
+            else if (engine == ExecutionEngine.VIRTUAL_MACHINE)
+                vmProgram = ProgramAssembler.assemble(functions, main);
+        } catch (UnsupportedOperationException exc) {
+            // the program is interpreted
+        }
+        this.compiledProgram = compiledProgram;
+        this.vmProgram = vmProgram;
+    }
+
+    private final List<Function> functions;
+
+    /**
+     * Returns the function definitions of this image.
+     */
+    @Basic @Immutable
+    public List<Function> getFunctions() {
+        return functions;
+    }
+
+    private final Statement<Program> main;
+
+    /**
+     * Returns the main statement of this image.
+     */
+    @Basic @Immutable
+    public Statement<Program> getMain() {
+        return main;
+    }
+
+    private final int nbGlobalVariables;
+
+    /**
+     * Returns the number of global variables of the programs of this image.
+     */
+    @Basic @Immutable
+    public int getNbGlobalVariables() {
+        return nbGlobalVariables;
+    }
+
+    private final int nbStatements;
+
+    /**
+     * Returns the number of statements of this image, which are indexed from zero.
+     */
+    @Basic @Immutable
+    public int getNbStatements() {
+        return nbStatements;
+    }
+
+    private final Set<Object> literals;
+
+    /**
+     * Returns the double literals of the functions of this image, compared by reference.
+     */
+    @Basic @Immutable
+    Set<Object> getLiterals() {
+        return literals;
+    }
+
+    private final List<Optimization> optimizations;
+
+    /**
+     * Returns the changes a ProgramOptimizer made to the statements of this image.
+     */
+    @Basic @Immutable
+    public List<Optimization> getOptimizations() {
+        return optimizations;
+    }
+
+    private final CompiledProgram compiledProgram;
+
+    /**
+     * Returns the compiled form of the statements of this image, null if they are not compiled.
+     */
+    @Basic @Immutable
+    public CompiledProgram getCompiledProgram() {
+        return compiledProgram;
+    }
+
+    private final VmProgram vmProgram;
+
+    /**
+     * Returns the assembled form of the statements of this image, null if they are not assembled.
+     */
+    @Basic @Immutable
+    public VmProgram getVmProgram() {
+        return vmProgram;
+    }
+
+    private final boolean tiered;
+
+    /**
+     * Returns whether the programs of this image compile their hot loops and functions while they interpret them.
+     */
+    @Basic @Immutable
+    public boolean isTiered() {
+        return tiered;
+    }
+
+    /**
+     * Whether this image was created for a single program, which is the parent of its statements.
+     */
+    private boolean isOwned = false;
+
+    /**
+     * Returns a new program that executes this image, with its own variables, time and printed objects. All programs
+     * of this image share its statements and their compiled or assembled form.
+     *
+     * @throws  IllegalStateException
+     *          This image was created for a single program, which is the parent of its statements.
+     */
+    public Program instantiate() throws IllegalStateException {
+        if (isOwned)
+            throw new IllegalStateException("The statements of this image belong to a single program.");
+        return new Program(this);
+    }
+}
@@ -663,7 +663,7 @@ public class Ship extends Entity {
     /** 
      * Terminates this ship. A terminated ship no longer belongs to a world and no longer has any bullets.
      * All bullets currently in this ship will be terminated as well. If this ship was in a world, it will
-     * be removed from that world.
+     * be removed from that world. The thread of the program of this ship is stopped, if it has one.
      * 
      * @Post 	All bullets currently in this ship will be terminated.
      * 			| for bullet in this.getAllBullets()
@@ -678,6 +678,8 @@ public class Ship extends Entity {
 		try {
 		    getWorld().removeEntity(this);
         } catch (NullPointerException e){}
+		if (program != null)
+			program.stopThread();
 
 		for (Bullet bullet : getAllBullets() ) {
 			bullet.terminate();
@@ -701,7 +703,8 @@ public class Ship extends Entity {
     }
 
 	/**
-	 * Loads the given program onto this ship.
+	 * Loads the given program onto this ship. The thread of the program this ship had before is stopped, if it has
+	 * one.
 	 * 
 	 * @param program	The program to be loaded.
 	 * 
@@ -710,6 +713,8 @@ public class Ship extends Entity {
 	 */
     @Basic
     public void loadProgram(Program program) {
+	    if (this.program != null && this.program != program)
+	        this.program.stopThread();
 	    program.setShip(this);
 	    this.program = program;
     }
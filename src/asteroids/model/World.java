@@ -3,12 +3,17 @@ package asteroids.model;
 import asteroids.model.collisions.Collision;
 import asteroids.model.collisions.EntityCollision;
 import asteroids.model.collisions.BoundaryCollision;
+import asteroids.model.collisions.CollisionEventBuffer;
+import asteroids.model.collisions.CollisionRecorder;
 import asteroids.model.util.exceptions.EntityOutOfWorldException;
 import asteroids.model.util.exceptions.OverlappingEntitiesException;
 import asteroids.part2.CollisionListener;
 import asteroids.model.util.vector.Vector;
 import be.kuleuven.cs.som.annotate.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
@@ -191,6 +196,9 @@ public class World {
     }
 
     /**
+     * Removes the given entity from this world. The thread of the program of a removed ship is stopped, if it has
+     * one, so it does not stay parked forever.
+     *
      * @param entity	The entity to be removed from this world
      * @throws	IllegalArgumentException
      * 			...
@@ -211,6 +219,8 @@ public class World {
 
         entities.remove(entity.getPosition(), entity);
         entity.setWorld(null);
+        if (entity instanceof Ship && ((Ship) entity).getProgram() != null)
+            ((Ship) entity).getProgram().stopThread();
     }
 
     /**
@@ -334,36 +344,118 @@ public class World {
      * if all entities in it keep moving with the same velocities. If this world evolves for a time equal
      * to the time until the returned collision, no other collisions will occur this period. The only 
      * collision will be the returned collision at exactly the end of that period.
+     * The earliest candidate is tracked in local variables while scanning, only one collision object is
+     * created and its position is calculated when it is first requested.
      */
     public Collision getFirstCollision() {
-        Set<Entity> entitiesSet = getAllEntities();
-        Entity[] entities = entitiesSet.toArray(new Entity[entitiesSet.size()]);
-        Collision earliestCollision = new BoundaryCollision();
+        Entity[] entities = this.entities.values().toArray(new Entity[this.entities.size()]);
+        Entity firstEntity = null;
+        Entity secondEntity = null;
+        double earliestCollisionTime = Double.POSITIVE_INFINITY;
 
         for (int i = 0; i < entities.length; i++) {
             Entity entity1 = entities[i];
             
             double wallCollisionTime = entity1.getTimeToWallCollision();
             
-            if ( wallCollisionTime < earliestCollision.getTimeToCollision() )
-            	earliestCollision = new BoundaryCollision(entity1, wallCollisionTime);
+            if ( wallCollisionTime < earliestCollisionTime ) {
+                earliestCollisionTime = wallCollisionTime;
+                firstEntity = entity1;
+                secondEntity = null;
+            }
 
             for (int j = i + 1; j < entities.length; j++) {
                 Entity entity2 = entities[j];
                 double collisionTime = entity1.getTimeToCollision(entity2);
 
-                if (collisionTime < earliestCollision.getTimeToCollision()) {
-                     earliestCollision = new EntityCollision(entity1, entity2, collisionTime);
-
+                if (collisionTime < earliestCollisionTime) {
+                    earliestCollisionTime = collisionTime;
+                    firstEntity = entity1;
+                    secondEntity = entity2;
                 }
             }
 
         }
 
-        earliestCollision.setCollisionPosition(earliestCollision.calculateCollisionPosition());
-        return earliestCollision;
+        if (firstEntity == null)
+            return new BoundaryCollision();
+
+        if (secondEntity == null)
+            return new BoundaryCollision(firstEntity, earliestCollisionTime);
+
+        return new EntityCollision(firstEntity, secondEntity, earliestCollisionTime);
+    }
+
+
+    private double time = 0;
+
+    /**
+     * Returns the total amount of time this world has evolved.
+     *
+     * @return  | result == this.time
+     */
+    @Basic
+    public double getTime() {
+        return time;
+    }
+
+    private CollisionRecorder collisionRecorder = null;
+
+    /**
+     * Returns the recorder every collision resolved in this world is reported to, null if collisions
+     * are not recorded.
+     *
+     * @return  | result == this.collisionRecorder
+     */
+    @Basic
+    public CollisionRecorder getCollisionRecorder() {
+        return collisionRecorder;
+    }
+
+    /**
+     * Sets the recorder every collision resolved in this world is reported to.
+     *
+     * @param collisionRecorder The recorder to report collisions to, null if collisions should not be recorded.
+     *
+     * @Post    | (new this).getCollisionRecorder() == collisionRecorder
+     */
+    public void setCollisionRecorder(CollisionRecorder collisionRecorder) {
+        this.collisionRecorder = collisionRecorder;
     }
 
+    private CollisionEventBuffer collisionEventBuffer = null;
+
+    /**
+     * Returns the buffer in which the collision events of this world are stored while it evolves. If this world
+     * delivers collision events synchronously, null is returned.
+     *
+     * @return  | result == this.collisionEventBuffer
+     */
+    @Basic
+    public CollisionEventBuffer getCollisionEventBuffer() {
+        return collisionEventBuffer;
+    }
+
+    /**
+     * Returns true if this world delivers its collision events in one batch after it is done evolving.
+     *
+     * @return  | result == (getCollisionEventBuffer() != null)
+     */
+    public boolean hasDeferredCollisionDelivery() {
+        return getCollisionEventBuffer() != null;
+    }
+
+    /**
+     * Sets the buffer in which the collision events of this world are stored while it evolves. If the given buffer
+     * is null, collision events are delivered to the collision listener as soon as the collision is resolved.
+     *
+     * @param collisionEventBuffer  The buffer to store the collision events in.
+     *
+     * @Post    | (new this).getCollisionEventBuffer() == collisionEventBuffer
+     */
+    public void setCollisionEventBuffer(CollisionEventBuffer collisionEventBuffer) {
+        this.collisionEventBuffer = collisionEventBuffer;
+    }
 
     /**
      * Lets this world evolve for the given amount of time and with the given collisionListener.
@@ -371,6 +463,8 @@ public class World {
      * a first collision occurs. If no collision occurs within the given amount of time, the world 
      * is done evolving. If there is a collision, this collision is resolved and the world will 
      * evolve further for the remaining amount of time.
+     * If this world has deferred collision delivery, the collision events are stored in the collision event buffer
+     * and handed to the collisionListener in one batch when this world is done evolving.
      * 
      * @param time	The time to let this world evolve
      * @param collisionListener
@@ -387,6 +481,29 @@ public class World {
         if (time < 0 || Double.isNaN(time))
             throw new IllegalArgumentException(Double.toString(time));
 
+        if (hasDeferredCollisionDelivery() && collisionListener != null) {
+            CollisionEventBuffer buffer = getCollisionEventBuffer();
+            buffer.setListener(collisionListener);
+            try {
+                evolveEntities(time, buffer);
+            } finally {
+                buffer.flush();
+                buffer.setListener(null);
+            }
+        }
+
+        else
+            evolveEntities(time, collisionListener);
+    }
+
+    /**
+     * Moves all entities in this world for the given amount of time, resolving all collisions that happen
+     * in that period and reporting them to the given collisionListener.
+     *
+     * @param time  The time to let this world evolve
+     * @param collisionListener
+     */
+    private void evolveEntities(double time, CollisionListener collisionListener) {
         if (time > 0) {
             Collision firstCollision = getFirstCollision();
             double collisionTime = firstCollision.getTimeToCollision();
@@ -395,21 +512,110 @@ public class World {
                 for (Entity entity : getAllEntities()) {
                     entity.move(time);
                 }
+                this.time += time;
             }
 
             else {
                 for (Entity entity : getAllEntities()) {
                     entity.move(collisionTime);
                 }
+                this.time += collisionTime;
+
+                firstCollision.advance(collisionTime);
+                if (getCollisionRecorder() != null) {
+                    getCollisionRecorder().collisionResolving(firstCollision);
+                    firstCollision.resolve(collisionListener);
+                    getCollisionRecorder().collisionResolved(firstCollision, getTime());
+                }
+                else
+                    firstCollision.resolve(collisionListener);
+                evolveEntities(time - collisionTime, collisionListener);
+            }
+        }
+    }
+
+    /**
+     * Executes the programs of all ships in this world that have a program loaded for the given amount of time.
+     * The programs are executed concurrently. While they execute, the actions they perform are buffered, so every
+     * program sees this world as it was before any of them executed. The buffered actions are performed afterwards,
+     * ship after ship in the order of the positions of the ships, each ship in the order its program performed them.
+     * The threads of the programs that execute their main statement on a thread of their own are all resumed first,
+     * the other programs are executed in parallel while those threads run. A program that fails does not affect the
+     * other programs: their actions are still performed, only the actions of the failing program are discarded, and
+     * the first failure is thrown afterwards.
+     *
+     * @param time  The time to execute the programs for.
+     *
+     * @return  The results of the executions of the programs, by ship, in the order in which the actions of the
+     *          ships were performed.
+     *          | @see implementation
+     * @throws  IllegalStateException
+     *          The main statement of one of the programs executed a break statement outside of a while loop. The
+     *          actions of the other programs are performed then.
+     */
+    public Map<Ship, List<Object>> executePrograms(double time) throws IllegalStateException {
+        List<Ship> ships = new ArrayList<>();
+        for (Ship ship : getAllShips())
+            if (ship.getProgram() != null)
+                ships.add(ship);
+        ships.sort(Comparator.comparingDouble((Ship ship) -> ship.getPosition().getX())
+                .thenComparingDouble(ship -> ship.getPosition().getY()));
+
+        List<List<Consumer<Ship>>> actions = new ArrayList<>();
+        for (int i = 0; i < ships.size(); i++)
+            actions.add(new ArrayList<>());
+
+        for (int i = 0; i < ships.size(); i++)
+            if (ships.get(i).getProgram().getThreadFactory() != null)
+                ships.get(i).getProgram().start(time, actions.get(i));
+
+        // every program is executed and every thread is awaited, whichever of them fail
+        Throwable[] failures = new Throwable[ships.size()];
+        List<List<Object>> results = IntStream.range(0, ships.size()).parallel()
+                .mapToObj(i -> {
+                    if (ships.get(i).getProgram().getThreadFactory() != null)
+                        return null;
+                    try {
+                        return ships.get(i).getProgram().execute(time, actions.get(i));
+                    } catch (RuntimeException | Error exc) {
+                        failures[i] = exc;
+                        return null;
+                    }
+                })
+                .collect(Collectors.toCollection(ArrayList::new));
+        for (int i = 0; i < ships.size(); i++) {
+            if (ships.get(i).getProgram().getThreadFactory() != null) {
+                try {
+                    results.set(i, ships.get(i).getProgram().finish());
+                } catch (RuntimeException | Error exc) {
+                    failures[i] = exc;
+                }
+            }
+        }
 
-                firstCollision.resolve(collisionListener);
-                evolve(time - collisionTime, collisionListener);
+        Map<Ship, List<Object>> resultsByShip = new LinkedHashMap<>();
+        Throwable failure = null;
+        for (int i = 0; i < ships.size(); i++) {
+            if (failures[i] == null) {
+                for (Consumer<Ship> action : actions.get(i))
+                    action.accept(ships.get(i));
+                resultsByShip.put(ships.get(i), results.get(i));
             }
+            else if (failure == null)
+                failure = failures[i];
+            else
+                failure.addSuppressed(failures[i]);
         }
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        return resultsByShip;
     }
 
     /**
-     * Destroys this world, removing all entities from this world.
+     * Destroys this world, removing all entities from this world. The threads of the programs of its ships are
+     * stopped.
      * 
      * @Post	This world no longer contains any entities
      * 			| (new this).getAllEntities().size() == 0
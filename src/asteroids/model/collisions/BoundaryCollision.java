@@ -74,6 +74,9 @@ public class BoundaryCollision extends Collision {
         if (getEntity1() == null)
             throw new IllegalStateException("The entity won't collide with the boundary of its world");
 
+        if (collisionListener != null)
+            getCollisionPosition();
+
         if (getEntity1() instanceof Bullet) {
         	Bullet bullet = (Bullet) getEntity1();
             if (bullet.getWallHits() >= bullet.getMaxWallHits()) {
@@ -44,15 +44,65 @@ public abstract class Collision {
         return timeToCollision;
     }
 
+    private double timeElapsed = 0;
+
+    /**
+     * Returns the amount of time the entities involved in this collision have already moved towards it
+     * since this collision was predicted.
+     *
+     * @return  The time elapsed since this collision was predicted.
+     *          | result == this.timeElapsed
+     */
+    @Basic
+    public double getTimeElapsed() {
+        return timeElapsed;
+    }
+
+    /**
+     * Returns the time that remains before this collision will happen.
+     *
+     * @return  | result == getTimeToCollision() - getTimeElapsed()
+     */
+    public double getRemainingTimeToCollision() {
+        return getTimeToCollision() - getTimeElapsed();
+    }
+
+    /**
+     * Registers that the entities involved in this collision have moved for the given amount of time
+     * towards this collision. A collision position that still has to be calculated will be calculated
+     * relative to the new state of the entities.
+     *
+     * @param time  The time the entities have moved.
+     *
+     * @Post    | (new this).getTimeElapsed() == this.getTimeElapsed() + time
+     * @throws  IllegalArgumentException
+     *          | time < 0 || Double.isNaN(time)
+     */
+    public void advance(double time) throws IllegalArgumentException {
+        if (time < 0 || Double.isNaN(time))
+            throw new IllegalArgumentException(Double.toString(time));
+
+        timeElapsed += time;
+    }
+
     private Vector collisionPosition;
 
     /**
-     * Returns the position where this collision will happen.
+     * Returns the position where this collision will happen. The position is only calculated the first time
+     * it is requested, collisions that are resolved without ever being observed don't pay for it. Since it is
+     * calculated from the state of the involved entities, a resolution that reports the position has to request
+     * it before it changes those entities.
+     *
      * @return	The position of this collision.
-     * 			| result == this.collisionPosition		
+     * 			| if this.collisionPosition == null then
+     * 			|   result == calculateCollisionPosition()
+     * 			| else
+     * 			|   result == this.collisionPosition
      */
-    @Basic
     public Vector getCollisionPosition() {
+        if (collisionPosition == null)
+            collisionPosition = calculateCollisionPosition();
+
         return collisionPosition;
     }
 
@@ -71,13 +121,14 @@ public abstract class Collision {
      */
     @Basic
     public void setCollisionPosition(Vector collisionPosition) {
-        if (getCollisionPosition() == null) {
+        if (this.collisionPosition == null) {
             this.collisionPosition = collisionPosition;
         }
     }
 
     /**
-     * Calculates and returns the position at which this collision will occur.
+     * Calculates and returns the position at which this collision will occur, given the current state of the
+     * involved entities and the remaining time to this collision.
      */
     public abstract Vector calculateCollisionPosition();
 
@@ -0,0 +1,184 @@
+package asteroids.model.collisions;
+
+import asteroids.part2.CollisionListener;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of collision listeners that do not handle collision events themselves, but store them in a ring buffer
+ * that is allocated once. The stored events can be handed to another collision listener in one batch, so slow
+ * listeners don't stretch the evolution of a world.
+ * If the buffer is full when a new event arrives, the pending events are first delivered to the listener this buffer
+ * is bound to, no events are ever dropped.
+ *
+ * @Invar   The number of pending events never exceeds the capacity of this buffer.
+ *          | getNbPendingEvents() <= getCapacity()
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class CollisionEventBuffer implements CollisionListener {
+
+    /**
+     * Creates a new collision event buffer that can hold the given number of events.
+     *
+     * @param capacity  The number of events this buffer can hold.
+     *
+     * @Post    | (new this).getCapacity() == capacity
+     * @Post    | (new this).getNbPendingEvents() == 0
+     * @throws  IllegalArgumentException
+     *          | capacity <= 0
+     */
+    public CollisionEventBuffer(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity of a collision event buffer must be positive");
+
+        entities1 = new Object[capacity];
+        entities2 = new Object[capacity];
+        xPositions = new double[capacity];
+        yPositions = new double[capacity];
+    }
+
+    /**
+     * Creates a new collision event buffer with the default capacity.
+     *
+     * @Effect  | this(getDefaultCapacity())
+     */
+    public CollisionEventBuffer() {
+        this(getDefaultCapacity());
+    }
+
+    private static final int defaultCapacity = 256;
+
+    /**
+     * Returns the default capacity of a collision event buffer.
+     *
+     * @return  | result == defaultCapacity
+     */
+    @Basic @Immutable
+    public static int getDefaultCapacity() {
+        return defaultCapacity;
+    }
+
+    private final Object[] entities1;
+    private final Object[] entities2;
+    private final double[] xPositions;
+    private final double[] yPositions;
+
+    /**
+     * Returns the number of events this buffer can hold.
+     *
+     * @return  | @see implementation
+     */
+    @Basic @Immutable
+    public int getCapacity() {
+        return entities1.length;
+    }
+
+    private int head = 0;
+    private int nbPendingEvents = 0;
+
+    /**
+     * Returns the number of events that are stored in this buffer and have not been delivered yet.
+     *
+     * @return  | result == this.nbPendingEvents
+     */
+    @Basic
+    public int getNbPendingEvents() {
+        return nbPendingEvents;
+    }
+
+    private CollisionListener listener;
+
+    /**
+     * Returns the listener the events in this buffer are delivered to when the buffer overflows.
+     *
+     * @return  | result == this.listener
+     */
+    @Basic
+    public CollisionListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Binds this buffer to the given listener.
+     *
+     * @param listener  The listener the events will be delivered to, null if events should be discarded.
+     *
+     * @Post    | (new this).getListener() == listener
+     */
+    public void setListener(CollisionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Stores a collision of the given entity with a boundary at the given position.
+     *
+     * @Effect  | @see implementation
+     */
+    @Override
+    public void boundaryCollision(Object entity, double x, double y) {
+        append(entity, null, x, y);
+    }
+
+    /**
+     * Stores a collision of the given entities at the given position.
+     *
+     * @Effect  | @see implementation
+     */
+    @Override
+    public void objectCollision(Object entity1, Object entity2, double x, double y) {
+        append(entity1, entity2, x, y);
+    }
+
+    /**
+     * Stores an event in the first free slot of this buffer, flushing this buffer first if it is full.
+     */
+    private void append(Object entity1, Object entity2, double x, double y) {
+        if (nbPendingEvents == getCapacity())
+            flush();
+
+        int index = (head + nbPendingEvents) % getCapacity();
+        entities1[index] = entity1;
+        entities2[index] = entity2;
+        xPositions[index] = x;
+        yPositions[index] = y;
+        nbPendingEvents++;
+    }
+
+    /**
+     * Delivers all pending events to the listener of this buffer.
+     *
+     * @Effect  | deliverTo(getListener())
+     */
+    public void flush() {
+        deliverTo(getListener());
+    }
+
+    /**
+     * Delivers all pending events, in the order in which they happened, to the given listener and empties this buffer.
+     * If the given listener is null, the pending events are discarded.
+     *
+     * @param listener  The listener to deliver the events to.
+     *
+     * @Post    | (new this).getNbPendingEvents() == 0
+     */
+    public void deliverTo(CollisionListener listener) {
+        while (nbPendingEvents > 0) {
+            Object entity1 = entities1[head];
+            Object entity2 = entities2[head];
+            double x = xPositions[head];
+            double y = yPositions[head];
+
+            entities1[head] = null;
+            entities2[head] = null;
+            head = (head + 1) % getCapacity();
+            nbPendingEvents--;
+
+            if (listener != null) {
+                if (entity2 == null)
+                    listener.boundaryCollision(entity1, x, y);
+                else
+                    listener.objectCollision(entity1, entity2, x, y);
+            }
+        }
+    }
+}
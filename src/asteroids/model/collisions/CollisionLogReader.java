@@ -0,0 +1,130 @@
+package asteroids.model.collisions;
+
+import asteroids.model.util.vector.Vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A class of readers that stream the records of a collision log written by a CollisionRecorder.
+ * Only a small window of the file is kept in memory, so logs of any size can be iterated.
+ * A truncated record at the end of the log, for instance of a match that crashed, is ignored.
+ * Every record tells in which session of the log it was recorded, the sessions are numbered from 0 in the order in
+ * which they were appended.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class CollisionLogReader implements Iterator<CollisionRecord>, Closeable {
+
+    private static final int RECORDS_PER_BUFFER = 1024;
+
+    /**
+     * Opens the collision log at the given path for reading.
+     *
+     * @param path  The path of the log file.
+     *
+     * @throws  IOException
+     *          If the file could not be opened or is not a collision log of a supported version.
+     */
+    public CollisionLogReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.limit(0);
+
+        try {
+            if (!fill(CollisionRecorder.HEADER_SIZE) || buffer.getInt() != CollisionRecorder.MAGIC)
+                throw new IOException(path + " is not a collision log");
+            if (buffer.getShort() != CollisionRecorder.VERSION)
+                throw new IOException(path + " has an unsupported collision log version");
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CollisionRecord.SIZE * RECORDS_PER_BUFFER);
+
+    /**
+     * Makes sure at least the given number of bytes can be read from the buffer, reading from the file if needed.
+     *
+     * @return  True if and only if enough bytes are available.
+     */
+    private boolean fill(int nbBytes) throws IOException {
+        if (buffer.remaining() >= nbBytes)
+            return true;
+
+        buffer.compact();
+        while (buffer.position() < nbBytes && channel.read(buffer) >= 0);
+        buffer.flip();
+
+        return buffer.remaining() >= nbBytes;
+    }
+
+    /**
+     * The number of the session of the records that are read, -1 before the first session marker.
+     */
+    private int session = -1;
+
+    /**
+     * Returns true if the log contains another complete record. Session markers are skipped.
+     *
+     * @throws  UncheckedIOException
+     *          If the log could not be read.
+     */
+    @Override
+    public boolean hasNext() throws UncheckedIOException {
+        try {
+            while (fill(CollisionRecord.SIZE)) {
+                if (buffer.get(buffer.position() + 8) != CollisionRecorder.SESSION)
+                    return true;
+                buffer.position(buffer.position() + CollisionRecord.SIZE);
+                session++;
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the next record of the log.
+     *
+     * @throws  NoSuchElementException
+     *          | ! hasNext()
+     */
+    @Override
+    public CollisionRecord next() throws NoSuchElementException {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        double time = buffer.getDouble();
+        byte kind1 = buffer.get();
+        byte kind2 = buffer.get();
+        int id1 = buffer.getInt();
+        int id2 = buffer.getInt();
+
+        return new CollisionRecord(session, time, kind1, id1, kind2, id2, getVector(), getVector(), getVector(),
+                getVector(), getVector());
+    }
+
+    private Vector getVector() {
+        double x = buffer.getDouble();
+        return new Vector(x, buffer.getDouble());
+    }
+
+    /**
+     * Closes the log file.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,225 @@
+package asteroids.model.collisions;
+
+import asteroids.model.*;
+import asteroids.model.util.vector.Vector;
+import be.kuleuven.cs.som.annotate.*;
+
+import java.util.Objects;
+
+/**
+ * A class of immutable records of resolved collisions, as they are stored in a collision log.
+ * A collision with the boundary of a world is recorded with getKind2() == BOUNDARY, an id of -1 and zero velocities
+ * for the second party.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@Value
+public class CollisionRecord {
+
+    public static final byte BOUNDARY = 0;
+    public static final byte SHIP = 1;
+    public static final byte BULLET = 2;
+    public static final byte ASTEROID = 3;
+    public static final byte PLANETOID = 4;
+    public static final byte OTHER = 5;
+
+    /**
+     * The number of bytes a single record occupies in a collision log.
+     */
+    static final int SIZE = 8 + 1 + 1 + 4 + 4 + 2 * 8 + 8 * 8;
+
+    /**
+     * Creates a new collision record with the given properties.
+     *
+     * @Post    | @see implementation
+     */
+    public CollisionRecord(int session, double time, byte kind1, int id1, byte kind2, int id2, Vector position,
+                           Vector velocityBefore1, Vector velocityAfter1, Vector velocityBefore2, Vector velocityAfter2) {
+        this.session = session;
+        this.time = time;
+        this.kind1 = kind1;
+        this.id1 = id1;
+        this.kind2 = kind2;
+        this.id2 = id2;
+        this.position = position;
+        this.velocityBefore1 = velocityBefore1;
+        this.velocityAfter1 = velocityAfter1;
+        this.velocityBefore2 = velocityBefore2;
+        this.velocityAfter2 = velocityAfter2;
+    }
+
+    /**
+     * Returns the kind of the given entity as it is stored in a collision log.
+     *
+     * @param entity    The entity to classify, null for the boundary of a world.
+     *
+     * @return  | @see implementation
+     */
+    public static byte getKind(Entity entity) {
+        if (entity == null)
+            return BOUNDARY;
+        if (entity instanceof Ship)
+            return SHIP;
+        if (entity instanceof Bullet)
+            return BULLET;
+        if (entity instanceof Asteroid)
+            return ASTEROID;
+        if (entity instanceof Planetoid)
+            return PLANETOID;
+        return OTHER;
+    }
+
+    private final int session;
+
+    /**
+     * Returns the number of the session of the log in which the collision was recorded. The ids of entities are
+     * only unique within a session.
+     */
+    @Basic @Immutable
+    public int getSession() {
+        return session;
+    }
+
+    private final double time;
+
+    /**
+     * Returns the time of the world at which the recorded collision happened.
+     */
+    @Basic @Immutable
+    public double getTime() {
+        return time;
+    }
+
+    private final byte kind1;
+
+    /**
+     * Returns the kind of the first entity involved in the recorded collision.
+     */
+    @Basic @Immutable
+    public byte getKind1() {
+        return kind1;
+    }
+
+    private final int id1;
+
+    /**
+     * Returns the id the recorder assigned to the first entity involved in the recorded collision.
+     */
+    @Basic @Immutable
+    public int getId1() {
+        return id1;
+    }
+
+    private final byte kind2;
+
+    /**
+     * Returns the kind of the second party involved in the recorded collision.
+     */
+    @Basic @Immutable
+    public byte getKind2() {
+        return kind2;
+    }
+
+    private final int id2;
+
+    /**
+     * Returns the id the recorder assigned to the second entity involved in the recorded collision,
+     * -1 for a boundary.
+     */
+    @Basic @Immutable
+    public int getId2() {
+        return id2;
+    }
+
+    private final Vector position;
+
+    /**
+     * Returns the position of the recorded collision.
+     */
+    @Basic @Immutable
+    public Vector getPosition() {
+        return position;
+    }
+
+    private final Vector velocityBefore1;
+
+    /**
+     * Returns the velocity of the first entity before the collision was resolved.
+     */
+    @Basic @Immutable
+    public Vector getVelocityBefore1() {
+        return velocityBefore1;
+    }
+
+    private final Vector velocityAfter1;
+
+    /**
+     * Returns the velocity of the first entity after the collision was resolved.
+     */
+    @Basic @Immutable
+    public Vector getVelocityAfter1() {
+        return velocityAfter1;
+    }
+
+    private final Vector velocityBefore2;
+
+    /**
+     * Returns the velocity of the second entity before the collision was resolved.
+     */
+    @Basic @Immutable
+    public Vector getVelocityBefore2() {
+        return velocityBefore2;
+    }
+
+    private final Vector velocityAfter2;
+
+    /**
+     * Returns the velocity of the second entity after the collision was resolved.
+     */
+    @Basic @Immutable
+    public Vector getVelocityAfter2() {
+        return velocityAfter2;
+    }
+
+    /**
+     * Compares this collision record with the given object, two records are equal if and only if all their
+     * properties are equal.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (! (obj instanceof CollisionRecord))
+            return false;
+
+        CollisionRecord other = (CollisionRecord) obj;
+        return session == other.session && Double.compare(time, other.time) == 0
+                && kind1 == other.kind1 && id1 == other.id1 && kind2 == other.kind2 && id2 == other.id2
+                && Objects.equals(position, other.position)
+                && Objects.equals(velocityBefore1, other.velocityBefore1)
+                && Objects.equals(velocityAfter1, other.velocityAfter1)
+                && Objects.equals(velocityBefore2, other.velocityBefore2)
+                && Objects.equals(velocityAfter2, other.velocityAfter2);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(session, time, kind1, id1, kind2, id2, position, velocityBefore1, velocityAfter1,
+                velocityBefore2, velocityAfter2);
+    }
+
+    /**
+     * Returns a string representation of this collision record.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public String toString() {
+        return "Collision record (session: " + getSession() + ", time: " + getTime()
+                + ", " + getKind1() + "#" + getId1()
+                + ", " + getKind2() + "#" + getId2()
+                + ", Position: " + getPosition() + ")";
+    }
+}
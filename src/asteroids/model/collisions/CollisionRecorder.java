@@ -0,0 +1,208 @@
+package asteroids.model.collisions;
+
+import asteroids.model.Entity;
+import asteroids.model.util.vector.Vector;
+import be.kuleuven.cs.som.annotate.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A class of recorders that append every collision resolved in a world to a compact binary log file.
+ * Records are of a fixed size and are written through a buffered channel, they can be read back with a
+ * CollisionLogReader.
+ * Every recorder starts a new session in the log with a session marker, the ids of entities are only unique within
+ * the session of the recorder that assigned them.
+ * A recorder is attached to a world with World.setCollisionRecorder, the world notifies it right before and
+ * right after it resolves a collision.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class CollisionRecorder implements Closeable {
+
+    /**
+     * The magic number at the start of every collision log.
+     */
+    static final int MAGIC = 0x41434c47;
+
+    /**
+     * The version of the format of the records in a collision log.
+     */
+    static final short VERSION = 2;
+
+    /**
+     * The kind stored in place of the kind of the first entity in the session marker a recorder writes first.
+     */
+    static final byte SESSION = -1;
+
+    /**
+     * The number of bytes of the header of a collision log.
+     */
+    static final int HEADER_SIZE = 4 + 2;
+
+    private static final int RECORDS_PER_BUFFER = 1024;
+
+    /**
+     * Creates a new collision recorder that appends its records to the file at the given path, after a marker of
+     * the new session. If the file does not exist or is empty, it is created and a header is written to it.
+     *
+     * @param path  The path of the log file.
+     *
+     * @throws  IOException
+     *          If the file could not be opened.
+     */
+    public CollisionRecorder(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+        }
+        buffer.putDouble(System.currentTimeMillis());
+        buffer.put(SESSION);
+        buffer.put(new byte[CollisionRecord.SIZE - 8 - 1]);
+    }
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CollisionRecord.SIZE * RECORDS_PER_BUFFER);
+
+    /**
+     * The ids of the recorded entities. Entities are compared by reference, and the ids of entities that are no
+     * longer used are dropped.
+     */
+    private final Map<Entity, Integer> ids = new WeakHashMap<>();
+
+    private int nextId = 0;
+
+    /**
+     * Returns the id this recorder assigned to the given entity, assigning the next id if the entity has not been
+     * recorded before. Ids are never assigned twice by the same recorder. The boundary of a world, represented by
+     * null, has -1 as its id.
+     *
+     * @param entity    The entity to return the id of.
+     *
+     * @return  | @see implementation
+     */
+    public int getId(Entity entity) {
+        if (entity == null)
+            return -1;
+
+        Integer id = ids.get(entity);
+        if (id == null) {
+            id = nextId++;
+            ids.put(entity, id);
+        }
+
+        return id;
+    }
+
+    private long nbRecords = 0;
+
+    /**
+     * Returns the number of collisions this recorder has recorded.
+     *
+     * @return  | result == this.nbRecords
+     */
+    @Basic
+    public long getNbRecords() {
+        return nbRecords;
+    }
+
+    private Vector position;
+    private Vector velocityBefore1;
+    private Vector velocityBefore2;
+
+    /**
+     * Captures the state of the given collision before it is resolved.
+     *
+     * @param collision The collision that is about to be resolved.
+     */
+    public void collisionResolving(Collision collision) {
+        position = collision.getCollisionPosition();
+        velocityBefore1 = collision.getEntity1().getVelocity();
+        velocityBefore2 = getEntity2(collision) == null ? null : getEntity2(collision).getVelocity();
+    }
+
+    /**
+     * Appends a record of the given collision, which has just been resolved at the given time, to the log.
+     * The state of the collision before it was resolved must have been captured with collisionResolving.
+     *
+     * @param collision The collision that has been resolved.
+     * @param time      The time of the world at which the collision happened.
+     *
+     * @throws  UncheckedIOException
+     *          If the record could not be written.
+     */
+    public void collisionResolved(Collision collision, double time) throws UncheckedIOException {
+        Entity entity1 = collision.getEntity1();
+        Entity entity2 = getEntity2(collision);
+
+        if (buffer.remaining() < CollisionRecord.SIZE)
+            writeBuffer();
+
+        buffer.putDouble(time);
+        buffer.put(CollisionRecord.getKind(entity1));
+        buffer.put(CollisionRecord.getKind(entity2));
+        buffer.putInt(getId(entity1));
+        buffer.putInt(getId(entity2));
+        putVector(position);
+        putVector(velocityBefore1);
+        putVector(entity1.getVelocity());
+        putVector(velocityBefore2);
+        putVector(entity2 == null ? null : entity2.getVelocity());
+        nbRecords++;
+    }
+
+    /**
+     * Writes all buffered records to the log file.
+     *
+     * @throws  IOException
+     *          If the records could not be written.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Writes all buffered records to the log file and closes it.
+     *
+     * @throws  IOException
+     *          If the records could not be written or the file could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeBuffer() throws UncheckedIOException {
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void putVector(Vector vector) {
+        buffer.putDouble(vector == null ? 0 : vector.getX());
+        buffer.putDouble(vector == null ? 0 : vector.getY());
+    }
+
+    private static Entity getEntity2(Collision collision) {
+        return collision instanceof EntityCollision ? ((EntityCollision) collision).getEntity2() : null;
+    }
+}
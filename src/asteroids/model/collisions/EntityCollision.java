@@ -65,7 +65,7 @@ public class EntityCollision extends Collision {
      */
     @Override
     public Vector calculateCollisionPosition() {
-        return getEntity1().getCollisionPosition(getEntity2(), getTimeToCollision());
+        return getEntity1().getCollisionPosition(getEntity2(), getRemainingTimeToCollision());
     }
 
     /**
@@ -97,6 +97,9 @@ public class EntityCollision extends Collision {
      */
     @Override
     public void resolve(CollisionListener collisionListener) {
+        if (collisionListener != null)
+            getCollisionPosition();
+
         if (getEntity1() instanceof Bullet)
             ((Bullet) getEntity1()).resolveCollisionWithEntity(getEntity2());
 
@@ -0,0 +1,21 @@
+package asteroids.model.programs;
+
+import asteroids.model.programs.statements.Completion;
+
+/**
+ * An interface of executions of the main statement of a program by one of the engines. The code an engine executes
+ * is shared by all programs of an image, an execution holds the state of a single program between the times it is
+ * executed.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public interface Execution {
+
+    /**
+     * Executes the main statement of the program until it completes or is suspended. A suspended execution resumes
+     * where it was suspended.
+     *
+     * @return  How the execution of the main statement completed.
+     */
+    Completion resume();
+}
@@ -0,0 +1,30 @@
+package asteroids.model.programs;
+
+/**
+ * An enumeration of the engines a program can be executed by.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public enum ExecutionEngine {
+
+    /**
+     * The statements of the program are interpreted.
+     */
+    INTERPRETER,
+
+    /**
+     * The program is compiled into closures by a ProgramCompiler.
+     */
+    COMPILER,
+
+    /**
+     * The program is flattened into instructions by a ProgramAssembler and executed by a VmProgram.
+     */
+    VIRTUAL_MACHINE,
+
+    /**
+     * The statements of the program are interpreted, and its loops and functions are compiled by a TieredCompiler
+     * once they have been executed often enough.
+     */
+    TIERED
+}
@@ -0,0 +1,121 @@
+package asteroids.model.programs;
+
+import asteroids.model.Program;
+import asteroids.model.programs.compiler.TieredCompiler;
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Completion;
+import asteroids.model.programs.statements.Statement;
+import be.kuleuven.cs.som.annotate.Basic;
+
+import java.util.List;
+
+/**
+ * A class of executions that interpret the statements of an image. The statements are shared by all programs of the
+ * image, so they do not know which program executes them: while a program is interpreted, it is the parent of the
+ * main statement and of the functions of its image on the interpreting thread.
+ * The point at which a suspended statement resumes is kept by the interpreter of the program, under the index of
+ * the statement in its image.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class Interpreter implements Execution {
+
+    /**
+     * Creates a new interpreter of the statements of the image of the given program, with the given global
+     * variables. The interpreter compiles hot loops and functions if the image is tiered.
+     */
+    public Interpreter(Program program, Object[] globals) {
+        this.program = program;
+        this.main = program.getImage().getMain();
+        this.resumePoints = new int[program.getImage().getNbStatements()];
+        if (program.getImage().isTiered())
+            tieredCompiler = new TieredCompiler(program, program.getImage().getFunctions(), globals,
+                    resumePoints.length);
+    }
+
+    private final Program program;
+
+    private final Statement<Program> main;
+
+    /**
+     * The points at which the suspended statements of the main statement resume, by index. Zero means the statement
+     * is not suspended.
+     */
+    private final int[] resumePoints;
+
+    /**
+     * Returns the point at which the given statement resumes, 0 if it is not suspended. What the point means is up
+     * to the statement.
+     */
+    public int getResumePoint(Statement<?> statement) {
+        return resumePoints[statement.getIndex()];
+    }
+
+    /**
+     * Sets the point at which the given statement resumes to the given point, 0 if it is not suspended.
+     */
+    public void setResumePoint(Statement<?> statement, int resumePoint) {
+        resumePoints[statement.getIndex()] = resumePoint;
+    }
+
+    private TieredCompiler tieredCompiler;
+
+    /**
+     * Returns the compiler that compiles the hot loops and functions of the program, null if the program does not
+     * compile them.
+     */
+    @Basic
+    public TieredCompiler getTieredCompiler() {
+        return tieredCompiler;
+    }
+
+    /**
+     * The program that is interpreted on the current thread.
+     */
+    private static final ThreadLocal<Program> interpreted = new ThreadLocal<>();
+
+    /**
+     * Returns the program whose statements are interpreted on the calling thread, null if no program is.
+     */
+    public static Program getInterpretedProgram() {
+        return interpreted.get();
+    }
+
+    @Override
+    public Completion resume() {
+        Program previous = interpreted.get();
+        interpreted.set(program);
+        try {
+            return main.run();
+        } finally {
+            interpreted.set(previous);
+        }
+    }
+
+    /**
+     * Gives every statement of the given functions and main statement an index, and every function the index of its
+     * position among the given functions. The expressions of every statement are bound to it here, since the
+     * statements of an image must not change once its programs execute them.
+     *
+     * @return  The number of indexed statements.
+     */
+    public static int index(List<Function> functions, Statement<?> main) {
+        for (int i = 0; i < functions.size(); i++)
+            functions.get(i).setIndex(i);
+
+        int nbStatements = index(main, 0);
+        for (Function function : functions)
+            nbStatements = index(function.getBody(), nbStatements);
+        return nbStatements;
+    }
+
+    private static int index(Statement<?> statement, int index) {
+        statement.setIndex(index++);
+        for (Expression<?> expression : statement.getExpressions())
+            expression.setStatement(statement);
+        for (Statement<?> subStatement : statement.getSubStatements())
+            index = index(subStatement, index);
+        return index;
+    }
+}
@@ -1,32 +1,37 @@
 package asteroids.model.programs;
 
+import asteroids.model.Entity;
 import asteroids.model.Ship;
-import asteroids.model.programs.expressions.Expression;
-import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
 import asteroids.model.programs.function.Function;
-
-import java.util.Map;
+import asteroids.model.programs.profiler.ProgramProfiler;
+import asteroids.model.util.exceptions.InstructionLimitExceededException;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
 public interface Parent<T> {
-    Expression getVariable(String varName);
-
-    void addVariable(String varName, Object value);
-
-    default void addVariableToMap(String varName, Object value, Map<String, Expression> variables) throws IllegalArgumentException {
-        if (variables.containsKey(varName))
-            if (variables.get(varName).getValue().getClass() == value.getClass()) {
-                variables.put(varName, new ValueExpression<>(value));
-            }
-            else
-                throw new IllegalArgumentException("Expected type of " + varName +
-                        " is: " + variables.get(varName).getValue().getClass() +
-                        " but received: " + value.getClass());
-        else
-            variables.put(varName, new ValueExpression<>(value));
-    }
+    /**
+     * Returns the value of the variable with the given name. The variable is read from the given local slot, or from
+     * the given global slot if it has no local value. A slot of -1 means the variable has no such slot.
+     *
+     * @throws  IllegalArgumentException
+     *          The variable has never been assigned.
+     */
+    Object getVariable(String varName, int localSlot, int globalSlot) throws IllegalArgumentException;
+
+    /**
+     * Assigns the given value to the variable with the given name, which is stored in the given slot.
+     *
+     * @throws  IllegalArgumentException
+     *          The variable can not be assigned the given value.
+     */
+    void addVariable(String varName, int slot, Object value) throws IllegalArgumentException;
+
+    /**
+     * Stores the given value in the given slot without checking it, for an assignment a TypeChecker verified.
+     */
+    void storeVariable(int slot, Object value);
 
     void addPrintedObject(Object value);
 
@@ -34,6 +39,33 @@ public interface Parent<T> {
 
     Ship getShip();
 
+    /**
+     * Returns the value of the given entity query for the ship of the program.
+     */
+    <E extends Entity> E queryEntity(EntityExpression<E> query);
+
     double getTimeRemaining();
 
+    /**
+     * Counts an instruction of the execution of the program, an iteration of a while loop or a call of a function.
+     *
+     * @return  True if and only if the execution exceeded its instruction budget and must be suspended. Only
+     *          the main statement of a program can be suspended.
+     * @throws  InstructionLimitExceededException
+     *          The execution exceeded the instruction limit of the program.
+     */
+    boolean countInstruction() throws InstructionLimitExceededException;
+
+    /**
+     * Returns the profiler the executions of the statements of the program are reported to, null if the program is
+     * not profiled.
+     */
+    ProgramProfiler getProfiler();
+
+    /**
+     * Returns the interpreter that interprets the statements of the program, null if the program executes another
+     * form of them.
+     */
+    Interpreter getInterpreter();
+
 }
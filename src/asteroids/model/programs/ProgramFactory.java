@@ -1,7 +1,15 @@
 package asteroids.model.programs;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import asteroids.model.Program;
+import asteroids.model.ProgramImage;
+import asteroids.model.programs.optimizer.Optimization;
+import asteroids.model.programs.optimizer.ProgramOptimizer;
 import asteroids.model.programs.expressions.FunctionCall;
 import asteroids.model.programs.expressions.ReadParameter;
 import asteroids.model.programs.expressions.ReadVariableExpression;
@@ -27,7 +35,78 @@ import asteroids.model.programs.expressions.Expression;
 public class ProgramFactory implements IProgramFactory<Expression, Statement, Function, Program> {
 
 	public ProgramFactory() {
+		this(ExecutionEngine.COMPILER);
+	}
+
+	/**
+	 * Creates a new program factory.
+	 *
+	 * @param compiling	Whether the programs created by this factory are compiled, or only interpreted.
+	 */
+	public ProgramFactory(boolean compiling) {
+		this(compiling ? ExecutionEngine.COMPILER : ExecutionEngine.INTERPRETER);
+	}
+
+	/**
+	 * Creates a new program factory whose programs are executed by the given engine and optimized.
+	 */
+	public ProgramFactory(ExecutionEngine engine) {
+		this(engine, true);
+	}
 
+	/**
+	 * Creates a new program factory.
+	 *
+	 * @param engine		The engine the programs created by this factory are executed by.
+	 * @param optimizing	Whether the statements of the programs are simplified by a ProgramOptimizer.
+	 */
+	public ProgramFactory(ExecutionEngine engine, boolean optimizing) {
+		this.engine = engine;
+		this.optimizing = optimizing;
+	}
+
+	private final ExecutionEngine engine;
+
+	/**
+	 * Returns the engine the programs created by this factory are executed by.
+	 */
+	public ExecutionEngine getEngine() {
+		return engine;
+	}
+
+	private final boolean optimizing;
+
+	/**
+	 * Returns whether the statements of the programs created by this factory are optimized.
+	 */
+	public boolean isOptimizing() {
+		return optimizing;
+	}
+
+	/**
+	 * The source locations of the statements, expressions and functions created by this factory since it last
+	 * created a program, by identity.
+	 */
+	private final Map<Object, SourceLocation> sourceLocations = new IdentityHashMap<>();
+
+	/**
+	 * Returns the source locations of the statements, expressions and functions created by this factory since it
+	 * last created a program, by identity.
+	 */
+	public Map<Object, SourceLocation> getSourceLocations() {
+		return Collections.unmodifiableMap(sourceLocations);
+	}
+
+	private <N> N locate(N node, SourceLocation sourceLocation) {
+		sourceLocations.put(node, sourceLocation);
+		return node;
+	}
+
+	/**
+	 * Returns whether the programs created by this factory are compiled into closures.
+	 */
+	public boolean isCompiling() {
+		return engine == ExecutionEngine.COMPILER;
 	}
 
 	/**
@@ -36,11 +115,38 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 * @param functions The function definitions for the program.
 	 * @param main      The main statement of the program. Most likely this is a
 	 *                  sequence statement.
-	 * @return A new program.
+	 * @return The first program of a new image of the given program, as created by createImage.
 	 */
 	@Override
 	public Program createProgram(List<Function> functions, Statement main) {
-		return new Program(functions, main);
+		return createImage(functions, (Statement<Program>) main).instantiate();
+	}
+
+	/**
+	 * Creates an image of the program with the given functions and main statement, from which the programs of any
+	 * number of ships can be created.
+	 *
+	 * @return A new image, executed by the engine of this factory. If this factory is optimizing, the image is
+	 *         created from the optimized statements, and reports the optimizations that were made. If the given
+	 *         statements cannot be compiled or assembled for that engine, the image falls back to interpreting them.
+	 */
+	public ProgramImage createImage(List<Function> functions, Statement<Program> main) {
+		List<Optimization> optimizations = Collections.emptyList();
+		if (isOptimizing()) {
+			ProgramOptimizer optimizer = new ProgramOptimizer(sourceLocations);
+			functions = functions.stream().map(optimizer::optimize).collect(Collectors.toList());
+			main = optimizer.optimize(main);
+			optimizations = optimizer.getOptimizations();
+		}
+		sourceLocations.forEach((node, location) -> {
+			if (node instanceof Statement)
+				((Statement) node).setSourceLocation(location);
+			else if (node instanceof Expression)
+				((Expression) node).setSourceLocation(location);
+		});
+		sourceLocations.clear();
+
+		return new ProgramImage(functions, main, engine, optimizations);
 	}
 
 	/**
@@ -53,7 +159,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Function createFunctionDefinition(String functionName, Statement body, SourceLocation sourceLocation) {
-		return new Function(functionName, body);
+		return locate(new Function(functionName, body), sourceLocation);
 	}
 
 	/**
@@ -65,7 +171,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createAssignmentStatement(String variableName, Expression value, SourceLocation sourceLocation) {
-		return new Assignment(variableName, value);
+		return locate(new Assignment(variableName, value), sourceLocation);
 	}
 
 	/**
@@ -77,7 +183,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createWhileStatement(Expression condition, Statement body, SourceLocation sourceLocation) {
-		return new While(condition, body);
+		return locate(new While(condition, body), sourceLocation);
 	}
 
 	/**
@@ -87,7 +193,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createBreakStatement(SourceLocation sourceLocation) {
-		return new Break();
+		return locate(new Break(), sourceLocation);
 	}
 
 	/**
@@ -98,7 +204,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createReturnStatement(Expression value, SourceLocation sourceLocation) {
-		return new Return(value);
+		return locate(new Return(value), sourceLocation);
 	}
 
 	/**
@@ -113,7 +219,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createIfStatement(Expression condition, Statement ifBody, Statement elseBody, SourceLocation sourceLocation) {
-		return new If(condition, ifBody, elseBody);
+		return locate(new If(condition, ifBody, elseBody), sourceLocation);
 	}
 
 	/**
@@ -125,7 +231,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createPrintStatement(Expression value, SourceLocation sourceLocation) {
-		return new Print(value);
+		return locate(new Print(value), sourceLocation);
 	}
 
 	/**
@@ -136,7 +242,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createSequenceStatement(List<Statement> statements, SourceLocation sourceLocation) {
-		return new Sequence(statements);
+		return locate(new Sequence(statements), sourceLocation);
 	}
 
 	/**
@@ -148,7 +254,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createReadVariableExpression(String variableName, SourceLocation sourceLocation) {
-		return new ReadVariableExpression(variableName);
+		return locate(new ReadVariableExpression(variableName), sourceLocation);
 	}
 
 	/**
@@ -160,7 +266,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createReadParameterExpression(String parameterName, SourceLocation sourceLocation) {
-		return new ReadParameter(parameterName);
+		return locate(new ReadParameter(parameterName), sourceLocation);
 	}
 
 	/**
@@ -173,7 +279,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createFunctionCallExpression(String functionName, List<Expression> actualArgs, SourceLocation sourceLocation) {
-		return new FunctionCall(functionName, actualArgs);
+		return locate(new FunctionCall(functionName, actualArgs), sourceLocation);
 	}
 
 	/**
@@ -185,7 +291,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createChangeSignExpression(Expression expression, SourceLocation sourceLocation) {
-		return new Negate(expression);
+		return locate(new Negate(expression), sourceLocation);
 	}
 
 	/**
@@ -197,7 +303,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createNotExpression(Expression expression, SourceLocation sourceLocation) {
-		return new Not(expression);
+		return locate(new Not(expression), sourceLocation);
 	}
 
 	/**
@@ -208,7 +314,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createDoubleLiteralExpression(double value, SourceLocation location) {
-		return new ValueExpression<>(value);
+		return locate(new ValueExpression<>(value), location);
 	}
 
 	/**
@@ -218,7 +324,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createNullExpression(SourceLocation location) {
-		return new ValueExpression<>(null);
+		return locate(new ValueExpression<>(null), location);
 	}
 
 	/**
@@ -229,7 +335,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createSelfExpression(SourceLocation location) {
-		return new SelfExpression();
+		return locate(new SelfExpression(), location);
 	}
 
 	/**
@@ -240,7 +346,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createShipExpression(SourceLocation location) {
-		return new ShipExpression();
+		return locate(new ShipExpression(), location);
 	}
 
 	/**
@@ -251,7 +357,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createAsteroidExpression(SourceLocation location) {
-		return new AsteroidExpression();
+		return locate(new AsteroidExpression(), location);
 	}
 
 	/**
@@ -262,7 +368,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createPlanetoidExpression(SourceLocation location) {
-		return new PlanetoidExpression();
+		return locate(new PlanetoidExpression(), location);
 	}
 
 	/**
@@ -273,7 +379,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createBulletExpression(SourceLocation location) {
-		return new BulletExpression();
+		return locate(new BulletExpression(), location);
 	}
 
 	/**
@@ -284,7 +390,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createPlanetExpression(SourceLocation location) {
-		return new MinorPlanetExpression();
+		return locate(new MinorPlanetExpression(), location);
 	}
 
 	/**
@@ -295,7 +401,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createAnyExpression(SourceLocation location) {
-		return new AnyExpression();
+		return locate(new AnyExpression(), location);
 	}
 
 	/**
@@ -307,7 +413,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createGetXExpression(Expression expression, SourceLocation location) {
-		return new GetX(expression);
+		return locate(new GetX(expression), location);
 	}
 
 	/**
@@ -319,7 +425,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createGetYExpression(Expression expression, SourceLocation location) {
-		return new GetY(expression);
+		return locate(new GetY(expression), location);
 	}
 
 	/**
@@ -331,7 +437,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createGetVXExpression(Expression expression, SourceLocation location) {
-		return new GetVX(expression);
+		return locate(new GetVX(expression), location);
 	}
 
 	/**
@@ -343,7 +449,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createGetVYExpression(Expression expression, SourceLocation location) {
-		return new GetVY(expression);
+		return locate(new GetVY(expression), location);
 	}
 
 	/**
@@ -355,7 +461,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createGetRadiusExpression(Expression expression, SourceLocation location) {
-		return new GetRadius(expression);
+		return locate(new GetRadius(expression), location);
 	}
 
 	/**
@@ -369,7 +475,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createLessThanExpression(Expression e1, Expression e2, SourceLocation location) {
-		return new LessThan(e1, e2);
+		return locate(new LessThan(e1, e2), location);
 	}
 
 	/**
@@ -383,7 +489,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createEqualityExpression(Expression e1, Expression e2, SourceLocation location) {
-		return new Equal(e1, e2);
+		return locate(new Equal(e1, e2), location);
 	}
 
 	/**
@@ -396,7 +502,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createAdditionExpression(Expression e1, Expression e2, SourceLocation location) {
-		return new Addition(e1, e2);
+		return locate(new Addition(e1, e2), location);
 	}
 
 	/**
@@ -409,7 +515,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createMultiplicationExpression(Expression e1, Expression e2, SourceLocation location) {
-		return new Multiplication(e1, e2);
+		return locate(new Multiplication(e1, e2), location);
 	}
 
 	/**
@@ -421,7 +527,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createSqrtExpression(Expression expression, SourceLocation location) {
-		return new Sqrt(expression);
+		return locate(new Sqrt(expression), location);
 	}
 
 	/**
@@ -432,7 +538,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Expression createGetDirectionExpression(SourceLocation location) {
-		return new GetDirection();
+		return locate(new GetDirection(), location);
 	}
 
 	/**
@@ -443,7 +549,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createThrustOnStatement(SourceLocation location) {
-		return new EnableThruster();
+		return locate(new EnableThruster(), location);
 	}
 
 	/**
@@ -454,7 +560,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createThrustOffStatement(SourceLocation location) {
-		return new DisableThruster();
+		return locate(new DisableThruster(), location);
 	}
 
 	/**
@@ -465,7 +571,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createFireStatement(SourceLocation location) {
-		return new FireBullet();
+		return locate(new FireBullet(), location);
 	}
 
 	/**
@@ -477,7 +583,7 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createTurnStatement(Expression angle, SourceLocation location) {
-		return new Turn(angle);
+		return locate(new Turn(angle), location);
 	}
 
 	/**
@@ -487,6 +593,6 @@ public class ProgramFactory implements IProgramFactory<Expression, Statement, Fu
 	 */
 	@Override
 	public Statement createSkipStatement(SourceLocation location) {
-		return new Skip();
+		return locate(new Skip(), location);
 	}
 }
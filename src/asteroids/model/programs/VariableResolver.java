@@ -0,0 +1,105 @@
+package asteroids.model.programs;
+
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.ReadVariableExpression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.simpleStatements.Assignment;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A class of passes that resolve every variable of a program to a fixed slot, so variables are accessed by
+ * indexing an array at run time instead of by looking up their name.
+ * The variables assigned in the main statement of a program are its global variables. The variables assigned in the
+ * body of a function are local to each call of that function, a local variable that has not been assigned yet is read
+ * from the global variable with the same name.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class VariableResolver {
+
+    /**
+     * Resolves the variables of the program with the given functions and main statement. Every function is told
+     * the number of its local variables.
+     *
+     * @param functions The function definitions of the program.
+     * @param main      The main statement of the program.
+     *
+     * @return  The number of global variables of the program.
+     */
+    public static int resolve(List<Function> functions, Statement<?> main) {
+        VariableResolver resolver = new VariableResolver(functions);
+        collectAssignedVariables(main, resolver.globalSlots, resolver.functionNames);
+
+        for (Function function : functions) {
+            resolver.localSlots = new HashMap<>();
+            collectAssignedVariables(function.getBody(), resolver.localSlots, null);
+            resolver.resolveStatement(function.getBody());
+            function.setNbLocalVariables(resolver.localSlots.size());
+        }
+
+        resolver.localSlots = null;
+        resolver.resolveStatement(main);
+
+        return resolver.globalSlots.size();
+    }
+
+    private VariableResolver(List<Function> functions) {
+        for (Function function : functions)
+            functionNames.add(function.getFunctionName());
+    }
+
+    private final Set<String> functionNames = new HashSet<>();
+
+    private final Map<String, Integer> globalSlots = new HashMap<>();
+
+    /**
+     * The slots of the local variables of the function that is being resolved, null while the main statement is
+     * being resolved.
+     */
+    private Map<String, Integer> localSlots;
+
+    /**
+     * Gives every variable that is assigned in the given statement, and that does not have one of the given
+     * excluded names, a slot in the given map.
+     */
+    private static void collectAssignedVariables(Statement<?> statement, Map<String, Integer> slots,
+                                                 Set<String> excludedNames) {
+        if (statement instanceof Assignment) {
+            String name = ((Assignment<?>) statement).getName();
+            if (excludedNames == null || ! excludedNames.contains(name))
+                slots.putIfAbsent(name, slots.size());
+        }
+
+        for (Statement<?> subStatement : statement.getSubStatements())
+            collectAssignedVariables(subStatement, slots, excludedNames);
+    }
+
+    private void resolveStatement(Statement<?> statement) {
+        if (statement instanceof Assignment) {
+            Map<String, Integer> slots = localSlots == null ? globalSlots : localSlots;
+            ((Assignment<?>) statement).setSlot(slots.getOrDefault(((Assignment<?>) statement).getName(), -1));
+        }
+
+        for (Expression<?> expression : statement.getExpressions())
+            resolveExpression(expression);
+        for (Statement<?> subStatement : statement.getSubStatements())
+            resolveStatement(subStatement);
+    }
+
+    private void resolveExpression(Expression<?> expression) {
+        if (expression instanceof ReadVariableExpression) {
+            String name = ((ReadVariableExpression) expression).getName();
+            ((ReadVariableExpression) expression).setSlots(localSlots == null ? -1 : localSlots.getOrDefault(name, -1),
+                    globalSlots.getOrDefault(name, -1));
+        }
+
+        for (Expression<?> subExpression : expression.getSubExpressions())
+            resolveExpression(subExpression);
+    }
+}
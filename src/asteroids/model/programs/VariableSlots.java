@@ -0,0 +1,68 @@
+package asteroids.model.programs;
+
+import java.util.Arrays;
+
+/**
+ * A class with the operations on the arrays of slots in which the variables of a program or a function call are
+ * stored. The slot of every variable is fixed by a VariableResolver when the program is created.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public final class VariableSlots {
+
+    private VariableSlots() {
+    }
+
+    /**
+     * The value of a slot whose variable has never been assigned.
+     */
+    public static final Object UNASSIGNED = new Object();
+
+    /**
+     * Returns a new array of the given number of slots, none of which are assigned.
+     *
+     * @param nbSlots   The number of slots.
+     */
+    public static Object[] create(int nbSlots) {
+        Object[] slots = new Object[nbSlots];
+        Arrays.fill(slots, UNASSIGNED);
+        return slots;
+    }
+
+    /**
+     * Returns the given value of the variable with the given name.
+     *
+     * @param name  The name of the variable.
+     * @param value The value stored in the slot of the variable.
+     *
+     * @throws  IllegalArgumentException
+     *          | value == UNASSIGNED
+     */
+    public static Object read(String name, Object value) throws IllegalArgumentException {
+        if (value == UNASSIGNED)
+            throw new IllegalArgumentException("Variable " + name + " is never assigned.");
+        return value;
+    }
+
+    /**
+     * Stores the given value in the given slot. A variable can never change the class of its value.
+     *
+     * @param name  The name of the variable.
+     * @param slots The slots the variable is stored in.
+     * @param slot  The slot of the variable.
+     * @param value The new value of the variable.
+     *
+     * @throws  IllegalArgumentException
+     *          The variable already has a value that is null or of another class than the given value.
+     *          | slots[slot] != UNASSIGNED &&
+     *          |   (slots[slot] == null || value == null || slots[slot].getClass() != value.getClass())
+     */
+    public static void write(String name, Object[] slots, int slot, Object value) throws IllegalArgumentException {
+        Object oldValue = slots[slot];
+        if (oldValue != UNASSIGNED && (oldValue == null || value == null || oldValue.getClass() != value.getClass()))
+            throw new IllegalArgumentException("Expected type of " + name + " is: "
+                    + (oldValue == null ? null : oldValue.getClass())
+                    + " but received: " + (value == null ? null : value.getClass()));
+        slots[slot] = value;
+    }
+}
@@ -0,0 +1,165 @@
+package asteroids.model.programs.cache;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Statement;
+import asteroids.part3.programs.internal.ParseOutcome;
+import asteroids.part3.programs.internal.ProgramParser;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * A class of caches that keep the programs parsed from source in a directory, in the form written by a
+ * ProgramWriter, under the SHA-256 hash of their source. A program whose source was loaded before is created from
+ * that form, without lexing and parsing its source. The programs are created by the given factory either way, so
+ * they are optimized, compiled or assembled like any program created by that factory.
+ * Only programs that could be parsed and created are cached. A cached form from which no program can be created, for
+ * instance of another version, is deleted and replaced.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramCache {
+
+    /**
+     * Creates a new cache of the programs created by the given factory in the given directory.
+     *
+     * @param directory The directory to keep the programs in. It is created if it does not exist.
+     * @param factory   The factory to create the programs with.
+     *
+     * @throws  IOException
+     *          The directory could not be created.
+     */
+    public ProgramCache(Path directory, ProgramFactory factory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.factory = factory;
+    }
+
+    private final Path directory;
+
+    private final ProgramFactory factory;
+
+    private long nbHits = 0;
+
+    private long nbMisses = 0;
+
+    /**
+     * Returns the number of programs this cache created from their cached form.
+     */
+    public long getNbHits() {
+        return nbHits;
+    }
+
+    /**
+     * Returns the number of programs this cache parsed from their source.
+     */
+    public long getNbMisses() {
+        return nbMisses;
+    }
+
+    /**
+     * Returns the program with the source at the given URL.
+     *
+     * @throws  IOException
+     *          The source could not be read.
+     * @see     #load(String)
+     */
+    public Program load(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            ByteArrayOutputStream source = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int nbBytes; (nbBytes = in.read(buffer)) >= 0; )
+                source.write(buffer, 0, nbBytes);
+            return load(new String(source.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Returns the program with the given source. The program is created from its cached form if its source was
+     * loaded before, and parsed and cached otherwise.
+     *
+     * @param source    The source of the program.
+     *
+     * @return  The program, null if its source could not be parsed.
+     */
+    public Program load(String source) {
+        Path path = directory.resolve(hash(source) + ".program");
+
+        if (Files.isRegularFile(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                Program program = ProgramReader.read(in, factory);
+                nbHits++;
+                return program;
+            } catch (IOException | RuntimeException exc) {
+                // the cached form is deleted, the source is parsed again and its form replaces it
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        nbMisses++;
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        ProgramFactory writingFactory = new ProgramFactory(factory.getEngine(), factory.isOptimizing()) {
+            @Override
+            @SuppressWarnings("rawtypes")
+            public Program createProgram(List<Function> functions, Statement main) {
+                try {
+                    ProgramWriter.write(functions, main, getSourceLocations(), new DataOutputStream(image));
+                } catch (IOException | UnsupportedOperationException exc) {
+                    image.reset();
+                }
+                return super.createProgram(functions, main);
+            }
+        };
+
+        ParseOutcome<Program> outcome = ProgramParser.create(writingFactory).parseString(source);
+        if (outcome.isFail())
+            return null;
+
+        if (image.size() > 0)
+            store(path, image.toByteArray());
+        return outcome.getSuccessValue();
+    }
+
+    /**
+     * Stores the given cached form at the given path. The form is written to a temporary file first, so
+     * concurrent loaders never read a partially written form.
+     */
+    private void store(Path path, byte[] image) {
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, "program", ".tmp");
+            Files.write(temporary, image);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exc) {
+            // the program is parsed again the next time it is loaded
+            try {
+                if (temporary != null)
+                    Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static String hash(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest)
+                hash.append(String.format("%02x", b));
+            return hash.toString();
+        } catch (NoSuchAlgorithmException exc) {
+            throw new AssertionError(exc);
+        }
+    }
+}
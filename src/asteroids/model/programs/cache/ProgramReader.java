@@ -0,0 +1,191 @@
+package asteroids.model.programs.cache;
+
+import asteroids.part3.programs.IProgramFactory;
+import asteroids.part3.programs.SourceLocation;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static asteroids.model.programs.cache.ProgramWriter.*;
+
+/**
+ * A class of readers that create programs from the binary form written by a ProgramWriter, by invoking the methods
+ * of a program factory in the order a parser of the source of the program would.
+ *
+ * @param <E>   The type of the expressions created by the factory.
+ * @param <S>   The type of the statements created by the factory.
+ * @param <F>   The type of the functions created by the factory.
+ * @param <P>   The type of the programs created by the factory.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramReader<E, S, F, P> {
+
+    /**
+     * Reads a program from the given input and creates it with the given factory.
+     *
+     * @param in        The input to read the program from.
+     * @param factory   The factory to create the program with.
+     *
+     * @return  The program created by the given factory.
+     * @throws  IOException
+     *          The input could not be read, or does not hold a program written by a ProgramWriter of this version.
+     */
+    public static <E, S, F, P> P read(DataInput in, IProgramFactory<E, S, F, P> factory) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a written program");
+        if (in.readShort() != VERSION)
+            throw new IOException("Unsupported version of a written program");
+
+        ProgramReader<E, S, F, P> reader = new ProgramReader<>(in, factory);
+        int nbFunctions = in.readInt();
+        List<F> functions = new ArrayList<>();
+        for (int i = 0; i < nbFunctions; i++) {
+            if (in.readByte() != FUNCTION)
+                throw new IOException("Function definition expected");
+            SourceLocation location = reader.readLocation();
+            String name = in.readUTF();
+            functions.add(factory.createFunctionDefinition(name, reader.readStatement(), location));
+        }
+        S main = reader.readStatement();
+        return factory.createProgram(functions, main);
+    }
+
+    private ProgramReader(DataInput in, IProgramFactory<E, S, F, P> factory) {
+        this.in = in;
+        this.factory = factory;
+    }
+
+    private final DataInput in;
+
+    private final IProgramFactory<E, S, F, P> factory;
+
+    private SourceLocation readLocation() throws IOException {
+        int line = in.readInt();
+        int column = in.readInt();
+        return line < 0 ? null : new SourceLocation(line, column);
+    }
+
+    private S readStatement() throws IOException {
+        int tag = in.readByte();
+        SourceLocation location = readLocation();
+
+        switch (tag) {
+            case SEQUENCE: {
+                int nbStatements = in.readInt();
+                List<S> statements = new ArrayList<>();
+                for (int i = 0; i < nbStatements; i++)
+                    statements.add(readStatement());
+                return factory.createSequenceStatement(statements, location);
+            }
+            case ASSIGNMENT: {
+                String name = in.readUTF();
+                return factory.createAssignmentStatement(name, readExpression(), location);
+            }
+            case WHILE: {
+                E condition = readExpression();
+                return factory.createWhileStatement(condition, readStatement(), location);
+            }
+            case IF: {
+                E condition = readExpression();
+                S ifBody = readStatement();
+                S elseBody = in.readBoolean() ? readStatement() : null;
+                return factory.createIfStatement(condition, ifBody, elseBody, location);
+            }
+            case PRINT:
+                return factory.createPrintStatement(readExpression(), location);
+            case RETURN:
+                return factory.createReturnStatement(readExpression(), location);
+            case TURN:
+                return factory.createTurnStatement(readExpression(), location);
+            case BREAK:
+                return factory.createBreakStatement(location);
+            case THRUST_ON:
+                return factory.createThrustOnStatement(location);
+            case THRUST_OFF:
+                return factory.createThrustOffStatement(location);
+            case FIRE:
+                return factory.createFireStatement(location);
+            case SKIP:
+                return factory.createSkipStatement(location);
+            default:
+                throw new IOException("Invalid statement tag " + tag);
+        }
+    }
+
+    private E readExpression() throws IOException {
+        int tag = in.readByte();
+        SourceLocation location = readLocation();
+
+        switch (tag) {
+            case DOUBLE_LITERAL:
+                return factory.createDoubleLiteralExpression(in.readDouble(), location);
+            case NULL:
+                return factory.createNullExpression(location);
+            case READ_VARIABLE:
+                return factory.createReadVariableExpression(in.readUTF(), location);
+            case READ_PARAMETER:
+                return factory.createReadParameterExpression(in.readUTF(), location);
+            case FUNCTION_CALL: {
+                String name = in.readUTF();
+                int nbArguments = in.readInt();
+                List<E> arguments = new ArrayList<>();
+                for (int i = 0; i < nbArguments; i++)
+                    arguments.add(readExpression());
+                return factory.createFunctionCallExpression(name, arguments, location);
+            }
+            case ADDITION: {
+                E left = readExpression();
+                return factory.createAdditionExpression(left, readExpression(), location);
+            }
+            case MULTIPLICATION: {
+                E left = readExpression();
+                return factory.createMultiplicationExpression(left, readExpression(), location);
+            }
+            case LESS_THAN: {
+                E left = readExpression();
+                return factory.createLessThanExpression(left, readExpression(), location);
+            }
+            case EQUALITY: {
+                E left = readExpression();
+                return factory.createEqualityExpression(left, readExpression(), location);
+            }
+            case CHANGE_SIGN:
+                return factory.createChangeSignExpression(readExpression(), location);
+            case SQRT:
+                return factory.createSqrtExpression(readExpression(), location);
+            case NOT:
+                return factory.createNotExpression(readExpression(), location);
+            case GET_X:
+                return factory.createGetXExpression(readExpression(), location);
+            case GET_Y:
+                return factory.createGetYExpression(readExpression(), location);
+            case GET_VX:
+                return factory.createGetVXExpression(readExpression(), location);
+            case GET_VY:
+                return factory.createGetVYExpression(readExpression(), location);
+            case GET_RADIUS:
+                return factory.createGetRadiusExpression(readExpression(), location);
+            case GET_DIRECTION:
+                return factory.createGetDirectionExpression(location);
+            case SELF:
+                return factory.createSelfExpression(location);
+            case SHIP:
+                return factory.createShipExpression(location);
+            case ASTEROID:
+                return factory.createAsteroidExpression(location);
+            case PLANETOID:
+                return factory.createPlanetoidExpression(location);
+            case BULLET:
+                return factory.createBulletExpression(location);
+            case PLANET:
+                return factory.createPlanetExpression(location);
+            case ANY:
+                return factory.createAnyExpression(location);
+            default:
+                throw new IOException("Invalid expression tag " + tag);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package asteroids.model.programs.cache;
+
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.expressions.ReadParameter;
+import asteroids.model.programs.expressions.ReadVariableExpression;
+import asteroids.model.programs.expressions.binaryExpressions.BinaryExpression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Addition;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Multiplication;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.Equal;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.LessThan;
+import asteroids.model.programs.expressions.entityExpressions.*;
+import asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions.*;
+import asteroids.model.programs.expressions.unaryExpressions.UnaryExpression;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Negate;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Sqrt;
+import asteroids.model.programs.expressions.unaryExpressions.logicalExpressions.Not;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.actionStatements.*;
+import asteroids.model.programs.statements.composedStatements.If;
+import asteroids.model.programs.statements.composedStatements.Sequence;
+import asteroids.model.programs.statements.composedStatements.While;
+import asteroids.model.programs.statements.simpleStatements.*;
+import asteroids.part3.programs.SourceLocation;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A class of writers that write the statement and expression trees of a program, as built by a ProgramFactory from
+ * the source of the program, in a compact binary form. A ProgramReader creates the program again from that form
+ * with the methods of a ProgramFactory, in the order a parser would, without lexing or parsing the source.
+ * A tree is written in prefix order: a tag identifying the method of the factory that created a node, the source
+ * location of the node and the operands of that method, with the subtrees in place of their nodes.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramWriter {
+
+    static final int MAGIC = 0x41535052;
+
+    static final short VERSION = 1;
+
+    static final int FUNCTION = 0;
+    static final int ASSIGNMENT = 1;
+    static final int WHILE = 2;
+    static final int BREAK = 3;
+    static final int RETURN = 4;
+    static final int IF = 5;
+    static final int PRINT = 6;
+    static final int SEQUENCE = 7;
+    static final int THRUST_ON = 8;
+    static final int THRUST_OFF = 9;
+    static final int FIRE = 10;
+    static final int TURN = 11;
+    static final int SKIP = 12;
+    static final int READ_VARIABLE = 13;
+    static final int READ_PARAMETER = 14;
+    static final int FUNCTION_CALL = 15;
+    static final int CHANGE_SIGN = 16;
+    static final int NOT = 17;
+    static final int DOUBLE_LITERAL = 18;
+    static final int NULL = 19;
+    static final int SELF = 20;
+    static final int SHIP = 21;
+    static final int ASTEROID = 22;
+    static final int PLANETOID = 23;
+    static final int BULLET = 24;
+    static final int PLANET = 25;
+    static final int ANY = 26;
+    static final int GET_X = 27;
+    static final int GET_Y = 28;
+    static final int GET_VX = 29;
+    static final int GET_VY = 30;
+    static final int GET_RADIUS = 31;
+    static final int LESS_THAN = 32;
+    static final int EQUALITY = 33;
+    static final int ADDITION = 34;
+    static final int MULTIPLICATION = 35;
+    static final int SQRT = 36;
+    static final int GET_DIRECTION = 37;
+
+    /**
+     * Writes the program with the given functions and main statement, as they were created by a ProgramFactory
+     * before it created the program, to the given output.
+     *
+     * @param functions The function definitions of the program.
+     * @param main      The main statement of the program.
+     * @param locations The source locations of the functions, statements and expressions, by identity.
+     *
+     * @throws  IOException
+     *          The output could not be written.
+     * @throws  UnsupportedOperationException
+     *          The program contains a statement or expression that a ProgramFactory does not create from source.
+     */
+    public static void write(List<Function> functions, Statement<?> main, Map<Object, SourceLocation> locations,
+                             DataOutput out) throws IOException, UnsupportedOperationException {
+        ProgramWriter writer = new ProgramWriter(locations, out);
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(functions.size());
+        for (Function function : functions) {
+            writer.writeNode(FUNCTION, function);
+            out.writeUTF(function.getFunctionName());
+            writer.writeStatement(function.getBody());
+        }
+        writer.writeStatement(main);
+    }
+
+    private ProgramWriter(Map<Object, SourceLocation> locations, DataOutput out) {
+        this.locations = locations;
+        this.out = out;
+    }
+
+    private final Map<Object, SourceLocation> locations;
+
+    private final DataOutput out;
+
+    private void writeNode(int tag, Object node) throws IOException {
+        out.writeByte(tag);
+        SourceLocation location = locations.get(node);
+        out.writeInt(location == null ? -1 : location.getLine());
+        out.writeInt(location == null ? -1 : location.getColumn());
+    }
+
+    private void writeStatement(Statement<?> statement) throws IOException {
+        if (statement instanceof Sequence) {
+            writeNode(SEQUENCE, statement);
+            List<? extends Statement<?>> statements = ((Sequence<?>) statement).getStatements();
+            out.writeInt(statements.size());
+            for (Statement<?> subStatement : statements)
+                writeStatement(subStatement);
+        }
+        else if (statement instanceof Assignment) {
+            writeNode(ASSIGNMENT, statement);
+            out.writeUTF(((Assignment<?>) statement).getName());
+            writeExpression(((Assignment<?>) statement).getValue());
+        }
+        else if (statement instanceof While) {
+            // the tree has not been optimized yet, so every loop has a condition
+            writeNode(WHILE, statement);
+            writeExpression(((While<?>) statement).getCondition());
+            writeStatement(((While<?>) statement).getBody());
+        }
+        else if (statement instanceof If) {
+            If<?> ifStatement = (If<?>) statement;
+            writeNode(IF, statement);
+            writeExpression(ifStatement.getCondition());
+            writeStatement(ifStatement.getIfBody());
+            out.writeBoolean(ifStatement.getElseBody() != null);
+            if (ifStatement.getElseBody() != null)
+                writeStatement(ifStatement.getElseBody());
+        }
+        else if (statement instanceof Print) {
+            writeNode(PRINT, statement);
+            writeExpression(((Print<?>) statement).getExpression());
+        }
+        else if (statement instanceof Return) {
+            writeNode(RETURN, statement);
+            writeExpression(((Return) statement).getValue());
+        }
+        else if (statement instanceof Turn) {
+            writeNode(TURN, statement);
+            writeExpression(((Turn) statement).getAngleExpression());
+        }
+        else if (statement instanceof Break)
+            writeNode(BREAK, statement);
+        else if (statement instanceof EnableThruster)
+            writeNode(THRUST_ON, statement);
+        else if (statement instanceof DisableThruster)
+            writeNode(THRUST_OFF, statement);
+        else if (statement instanceof FireBullet)
+            writeNode(FIRE, statement);
+        else if (statement instanceof Skip)
+            writeNode(SKIP, statement);
+        else
+            throw new UnsupportedOperationException("Cannot write " + statement.getClass().getSimpleName());
+    }
+
+    private void writeExpression(Expression<?> expression) throws IOException {
+        if (expression instanceof ValueExpression) {
+            Object value = expression.getValue();
+            if (value == null)
+                writeNode(NULL, expression);
+            else if (value instanceof Double) {
+                writeNode(DOUBLE_LITERAL, expression);
+                out.writeDouble((Double) value);
+            }
+            else
+                throw new UnsupportedOperationException("Cannot write a literal " + value);
+        }
+        else if (expression instanceof ReadVariableExpression) {
+            writeNode(READ_VARIABLE, expression);
+            out.writeUTF(((ReadVariableExpression) expression).getName());
+        }
+        else if (expression instanceof ReadParameter) {
+            writeNode(READ_PARAMETER, expression);
+            out.writeUTF(((ReadParameter) expression).getParamName());
+        }
+        else if (expression instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) expression;
+            writeNode(FUNCTION_CALL, expression);
+            out.writeUTF(call.getFunctionName());
+            out.writeInt(call.getActualArgs().size());
+            for (Expression<?> argument : call.getActualArgs())
+                writeExpression(argument);
+        }
+        else if (expression instanceof Addition)
+            writeBinary(ADDITION, (BinaryExpression) expression);
+        else if (expression instanceof Multiplication)
+            writeBinary(MULTIPLICATION, (BinaryExpression) expression);
+        else if (expression instanceof LessThan)
+            writeBinary(LESS_THAN, (BinaryExpression) expression);
+        else if (expression instanceof Equal)
+            writeBinary(EQUALITY, (BinaryExpression) expression);
+        else if (expression instanceof Negate)
+            writeUnary(CHANGE_SIGN, (UnaryExpression) expression);
+        else if (expression instanceof Sqrt)
+            writeUnary(SQRT, (UnaryExpression) expression);
+        else if (expression instanceof Not)
+            writeUnary(NOT, (UnaryExpression) expression);
+        else if (expression instanceof GetDirection)
+            writeNode(GET_DIRECTION, expression);
+        else if (expression instanceof EntityCharacteristicExpression)
+            writeCharacteristic((EntityCharacteristicExpression) expression);
+        else if (expression instanceof SelfExpression)
+            writeNode(SELF, expression);
+        else if (expression instanceof ShipExpression)
+            writeNode(SHIP, expression);
+        else if (expression instanceof AsteroidExpression)
+            writeNode(ASTEROID, expression);
+        else if (expression instanceof PlanetoidExpression)
+            writeNode(PLANETOID, expression);
+        else if (expression instanceof BulletExpression)
+            writeNode(BULLET, expression);
+        else if (expression instanceof MinorPlanetExpression)
+            writeNode(PLANET, expression);
+        else if (expression instanceof AnyExpression)
+            writeNode(ANY, expression);
+        else
+            throw new UnsupportedOperationException("Cannot write " + expression.getClass().getSimpleName());
+    }
+
+    private void writeBinary(int tag, BinaryExpression<?, ?> expression) throws IOException {
+        writeNode(tag, expression);
+        writeExpression(expression.getLeftOperand());
+        writeExpression(expression.getRightOperand());
+    }
+
+    private void writeUnary(int tag, UnaryExpression<?> expression) throws IOException {
+        writeNode(tag, expression);
+        writeExpression(expression.getOperand());
+    }
+
+    private void writeCharacteristic(EntityCharacteristicExpression expression) throws IOException {
+        if (expression instanceof GetX)
+            writeNode(GET_X, expression);
+        else if (expression instanceof GetY)
+            writeNode(GET_Y, expression);
+        else if (expression instanceof GetVX)
+            writeNode(GET_VX, expression);
+        else if (expression instanceof GetVY)
+            writeNode(GET_VY, expression);
+        else if (expression instanceof GetRadius)
+            writeNode(GET_RADIUS, expression);
+        else
+            throw new UnsupportedOperationException("Cannot write " + expression.getClass().getSimpleName());
+        writeExpression(expression.getEntity());
+    }
+}
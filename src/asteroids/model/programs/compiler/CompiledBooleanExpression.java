@@ -0,0 +1,19 @@
+package asteroids.model.programs.compiler;
+
+/**
+ * An interface for compiled expressions that always evaluate to a boolean. They are evaluated without boxing when
+ * they are used as a condition.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@FunctionalInterface
+public interface CompiledBooleanExpression extends CompiledExpression {
+
+    @Override
+    boolean evaluateBoolean(Frame frame);
+
+    @Override
+    default Object evaluate(Frame frame) {
+        return evaluateBoolean(frame);
+    }
+}
@@ -0,0 +1,19 @@
+package asteroids.model.programs.compiler;
+
+/**
+ * An interface for compiled expressions that always evaluate to a double. They are evaluated without boxing when
+ * they are used by other numeric expressions.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@FunctionalInterface
+public interface CompiledDoubleExpression extends CompiledExpression {
+
+    @Override
+    double evaluateDouble(Frame frame);
+
+    @Override
+    default Object evaluate(Frame frame) {
+        return evaluateDouble(frame);
+    }
+}
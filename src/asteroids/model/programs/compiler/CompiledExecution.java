@@ -0,0 +1,40 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.Program;
+import asteroids.model.programs.Execution;
+import asteroids.model.programs.statements.Completion;
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of executions of a compiled program, in a frame of the program that executes it.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class CompiledExecution implements Execution {
+
+    /**
+     * Creates a new execution of the given compiled program by the given program, from the start.
+     */
+    public CompiledExecution(CompiledProgram compiledProgram, Program program) {
+        this.compiledProgram = compiledProgram;
+        this.frame = compiledProgram.createFrame(program);
+    }
+
+    private final CompiledProgram compiledProgram;
+
+    /**
+     * Returns the compiled program this execution executes.
+     */
+    @Basic @Immutable
+    public CompiledProgram getCompiledProgram() {
+        return compiledProgram;
+    }
+
+    private final Frame frame;
+
+    @Override
+    public Completion resume() {
+        return compiledProgram.execute(frame);
+    }
+}
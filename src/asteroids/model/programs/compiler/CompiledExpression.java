@@ -0,0 +1,38 @@
+package asteroids.model.programs.compiler;
+
+/**
+ * An interface for expressions that have been compiled into closures. Compiled expressions have no state of their
+ * own, they read variables and parameters from the frame they are evaluated in.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    /**
+     * Returns the value of this expression in the given frame.
+     *
+     * @param frame The frame to evaluate this expression in.
+     */
+    Object evaluate(Frame frame);
+
+    /**
+     * Returns the value of this expression in the given frame as a double.
+     *
+     * @throws  ClassCastException
+     *          If this expression does not evaluate to a double.
+     */
+    default double evaluateDouble(Frame frame) throws ClassCastException {
+        return (Double) evaluate(frame);
+    }
+
+    /**
+     * Returns the value of this expression in the given frame as a boolean.
+     *
+     * @throws  ClassCastException
+     *          If this expression does not evaluate to a boolean.
+     */
+    default boolean evaluateBoolean(Frame frame) throws ClassCastException {
+        return (Boolean) evaluate(frame);
+    }
+}
@@ -0,0 +1,112 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.Program;
+import asteroids.model.programs.function.FunctionCache;
+import asteroids.model.programs.function.Purity;
+import asteroids.model.util.exceptions.BreakException;
+import asteroids.model.util.exceptions.CallDepthExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class of compiled function definitions.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+class CompiledFunction {
+
+    CompiledFunction(String name, Purity purity) {
+        this.name = name;
+        this.purity = purity;
+    }
+
+    private final String name;
+
+    String getName() {
+        return name;
+    }
+
+    private final Purity purity;
+
+    private int nbLocals;
+
+    private CompiledStatement body;
+
+    void setBody(CompiledStatement body, int nbLocals) {
+        this.body = body;
+        this.nbLocals = nbLocals;
+    }
+
+    /**
+     * Calls this function from the given frame with the given arguments. Like the interpreter, the results of
+     * cacheable functions are cached in the function cache of the program, and a call that executes a tail call is
+     * replaced by the call of the tail call.
+     *
+     * @return  The value returned by the body of this function.
+     * @throws  BreakException
+     *          The body of this function executed a break statement outside of a while loop. Like the interpreter,
+     *          such a break ends the while loop the function was called from.
+     * @throws  IllegalStateException
+     *          The body of this function completed without executing a return statement.
+     * @throws  CallDepthExceededException
+     *          The call would nest more calls than the maximum call depth of the program allows.
+     */
+    Object invoke(Frame caller, Object[] arguments)
+            throws BreakException, IllegalStateException, CallDepthExceededException {
+        Program program = caller.program;
+        FunctionCache cache = program.getFunctionCache();
+
+        // the cacheable calls that were replaced by tail calls, whose result is the result of this call
+        List<CompiledFunction> replacedFunctions = null;
+        List<Object[]> replacedArguments = null;
+
+        CompiledFunction function = this;
+        Object result;
+        while (true) {
+            program.countInstruction();
+            if (function.purity.isCacheable()) {
+                result = cache.get(function.name, arguments);
+                if (result != FunctionCache.MISSING)
+                    break;
+            }
+            if (caller.depth >= program.getMaxCallDepth())
+                throw new CallDepthExceededException(program.getMaxCallDepth());
+
+            Frame frame = new Frame(caller, function.nbLocals, arguments);
+            switch (function.body.execute(frame)) {
+                case RETURN:
+                    break;
+                case BREAK:
+                    throw new BreakException();
+                default:
+                    throw new IllegalStateException("no return statement found in " + function.name);
+            }
+
+            if (frame.tailFunction == null) {
+                result = frame.returnValue;
+                if (function.purity.isCacheable())
+                    cache.put(function.name, function.purity, arguments, result);
+                break;
+            }
+            if (function.purity.isCacheable()) {
+                if (replacedFunctions == null) {
+                    replacedFunctions = new ArrayList<>();
+                    replacedArguments = new ArrayList<>();
+                }
+                replacedFunctions.add(function);
+                replacedArguments.add(arguments);
+            }
+            function = frame.tailFunction;
+            arguments = frame.tailArguments;
+        }
+
+        if (replacedFunctions != null) {
+            for (int i = 0; i < replacedFunctions.size(); i++) {
+                CompiledFunction replaced = replacedFunctions.get(i);
+                cache.put(replaced.name, replaced.purity, replacedArguments.get(i), result);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.Program;
+import asteroids.model.programs.function.ActivationFrame;
+import asteroids.model.programs.function.FrameStack;
+import asteroids.model.programs.statements.Completion;
+import asteroids.model.util.exceptions.BreakException;
+
+import java.util.Arrays;
+
+/**
+ * A class of while loops of interpreted programs of which the condition and the body have been compiled by a
+ * TieredCompiler. The interpreted loop still controls the iterations, so it can switch between its compiled and its
+ * interpreted form at the start of every iteration.
+ * Compiled code reads and writes the same slots of variables as the interpreter, the global variables of the program
+ * and the local variables of the call in progress.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class CompiledLoop {
+
+    CompiledLoop(CompiledExpression condition, CompiledStatement body, Program program, Object[] globals,
+                 Frame mainFrame) {
+        this.condition = condition;
+        this.body = body;
+        this.program = program;
+        this.globals = globals;
+        this.mainFrame = mainFrame;
+    }
+
+    private final CompiledExpression condition;
+
+    private final CompiledStatement body;
+
+    private final Program program;
+
+    private final Object[] globals;
+
+    /**
+     * The frame of a loop of the main statement, which keeps the points at which its body resumes. Null for a loop
+     * of a function.
+     */
+    private final Frame mainFrame;
+
+    /**
+     * Returns the frame in which this loop is executed by the execution of the main statement, or by the call of
+     * its function that is in progress.
+     */
+    public Frame getFrame() {
+        if (mainFrame != null)
+            return mainFrame;
+
+        FrameStack frameStack = program.getFrameStack();
+        ActivationFrame activation = frameStack.getTop();
+        return new Frame(program, globals, activation.getLocalVariables(), activation.getArguments(),
+                frameStack.getDepth());
+    }
+
+    /**
+     * Evaluates the condition of this loop in the given frame.
+     */
+    public boolean evaluateCondition(Frame frame) {
+        return condition.evaluateBoolean(frame);
+    }
+
+    /**
+     * Executes the body of this loop in the given frame, resuming it where it was suspended.
+     *
+     * @return  How the execution of the body completed.
+     * @throws  BreakException
+     *          A function called in the body executed a break statement outside of a while loop.
+     */
+    public Completion executeBody(Frame frame) throws BreakException {
+        try {
+            return body.execute(frame);
+        } catch (BreakException exc) {
+            // the loop ends, so its body starts from the beginning when the loop is executed again
+            if (frame.resumePoints != null)
+                Arrays.fill(frame.resumePoints, 0);
+            throw exc;
+        }
+    }
+
+    /**
+     * Returns the value the body of this loop returned in the given frame.
+     */
+    public Object getReturnValue(Frame frame) {
+        return frame.returnValue;
+    }
+}
@@ -0,0 +1,43 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.Program;
+import asteroids.model.programs.statements.Completion;
+
+/**
+ * A class of programs that have been compiled into closures by a ProgramCompiler. A compiled program only holds
+ * code, the state of an execution is kept in a frame that is created for the program that executes it.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class CompiledProgram {
+
+    CompiledProgram(CompiledStatement main, int nbResumePoints) {
+        this.main = main;
+        this.nbResumePoints = nbResumePoints;
+    }
+
+    private final CompiledStatement main;
+
+    private final int nbResumePoints;
+
+    /**
+     * Returns a new frame in which the given program can execute this compiled program from the start.
+     *
+     * @param program   The program that executes this compiled program.
+     */
+    public Frame createFrame(Program program) {
+        return new Frame(program, program.getNbGlobalVariables(), nbResumePoints);
+    }
+
+    /**
+     * Executes this compiled program in the given frame until it completes or runs out of time. A suspended
+     * execution is resumed at the action statement that ran out of time.
+     *
+     * @param frame The frame to execute in, as created by createFrame.
+     *
+     * @return  How the execution of the main statement completed.
+     */
+    public Completion execute(Frame frame) {
+        return main.execute(frame);
+    }
+}
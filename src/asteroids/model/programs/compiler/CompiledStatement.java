@@ -0,0 +1,22 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.programs.statements.Completion;
+
+/**
+ * An interface for statements that have been compiled into closures. Instead of throwing exceptions, a compiled
+ * statement reports how its execution completed.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@FunctionalInterface
+public interface CompiledStatement {
+
+    /**
+     * Executes this statement in the given frame.
+     *
+     * @param frame The frame to execute this statement in.
+     *
+     * @return  How the execution of this statement completed. A returned value is stored in the frame.
+     */
+    Completion execute(Frame frame);
+}
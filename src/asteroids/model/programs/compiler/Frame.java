@@ -0,0 +1,80 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.Program;
+import asteroids.model.programs.VariableSlots;
+
+/**
+ * A class of frames in which compiled code is executed. The frame of the main statement of a program holds the
+ * global variables and the points at which a suspended execution must be resumed, each call of a function gets a
+ * frame of its own that holds its arguments and local variables and shares the global variables of the program.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class Frame {
+
+    /**
+     * Creates a new frame for the main statement of the given program.
+     */
+    Frame(Program program, int nbGlobals, int nbResumePoints) {
+        this(program, VariableSlots.create(nbGlobals), new Object[0], null, 0);
+        this.resumePoints = new int[nbResumePoints];
+    }
+
+    /**
+     * Creates a new frame for a call of a function with the given number of local variables.
+     */
+    Frame(Frame caller, int nbLocals, Object[] arguments) {
+        this(caller.program, caller.globals, VariableSlots.create(nbLocals), arguments, caller.depth + 1);
+    }
+
+    /**
+     * Creates a new frame for a loop of the main statement of the given program, that is compiled while the program
+     * interprets its statements, with the given global variables of the program.
+     */
+    Frame(Program program, Object[] globals, int nbResumePoints) {
+        this(program, globals, new Object[0], null, 0);
+        this.resumePoints = new int[nbResumePoints];
+    }
+
+    /**
+     * Creates a new frame with the given variables and arguments, at the given number of function calls in progress.
+     */
+    Frame(Program program, Object[] globals, Object[] locals, Object[] arguments, int depth) {
+        this.program = program;
+        this.globals = globals;
+        this.locals = locals;
+        this.arguments = arguments;
+        this.depth = depth;
+    }
+
+    final Program program;
+
+    final Object[] globals;
+
+    final Object[] locals;
+
+    /**
+     * The arguments of the function call this frame belongs to, null for the frame of a main statement.
+     */
+    final Object[] arguments;
+
+    /**
+     * The resume points of the composed statements of the main statement, null for the frame of a function call.
+     */
+    int[] resumePoints;
+
+    /**
+     * The number of function calls in progress up to and including the call this frame belongs to, 0 for the frame
+     * of a main statement.
+     */
+    final int depth;
+
+    Object returnValue;
+
+    /**
+     * The function the call this frame belongs to must be replaced by, null if it did not execute a tail call.
+     */
+    CompiledFunction tailFunction;
+
+    Object[] tailArguments;
+}
@@ -0,0 +1,549 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.Entity;
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.programs.VariableSlots;
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.expressions.ReadParameter;
+import asteroids.model.programs.expressions.ReadVariableExpression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Addition;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Multiplication;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Subtraction;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.Equal;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.LessThan;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
+import asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions.EntityCharacteristicExpression;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Negate;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Sqrt;
+import asteroids.model.programs.expressions.unaryExpressions.logicalExpressions.Not;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.profiler.ProgramProfiler;
+import asteroids.model.programs.statements.Completion;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.actionStatements.*;
+import asteroids.model.programs.statements.composedStatements.If;
+import asteroids.model.programs.statements.composedStatements.Sequence;
+import asteroids.model.programs.statements.composedStatements.While;
+import asteroids.model.programs.statements.simpleStatements.*;
+import asteroids.model.util.exceptions.BreakException;
+import asteroids.part3.programs.SourceLocation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static asteroids.model.programs.statements.Completion.*;
+
+/**
+ * A class of compilers that translate the statement and expression trees built by a ProgramFactory into trees of
+ * closures. Variables are read from and written to the slots a VariableResolver assigned to them, and every
+ * composed statement of a main statement keeps the point at which it must be resumed in the frame, instead of in a
+ * chain of live iterators.
+ * Compiled code behaves like the interpreter, run time errors such as reading a variable that was never assigned
+ * are still reported when the offending statement is executed.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramCompiler {
+
+    /**
+     * Compiles the program with the given functions and main statement. The variables of the program must have
+     * been resolved by a VariableResolver.
+     *
+     * @param functions The function definitions of the program.
+     * @param main      The main statement of the program.
+     *
+     * @throws  UnsupportedOperationException
+     *          The program contains a statement or expression this compiler does not know.
+     */
+    public static CompiledProgram compile(List<Function> functions, Statement<?> main) throws UnsupportedOperationException {
+        return compile(functions, main, false);
+    }
+
+    /**
+     * Compiles the program with the given functions and main statement, like compile. If the program is profiled,
+     * the compiled statements report their executions to the profiler of the program that executes them.
+     *
+     * @param profiled  Whether the compiled statements report to a profiler.
+     *
+     * @see #compile(List, Statement)
+     */
+    public static CompiledProgram compile(List<Function> functions, Statement<?> main, boolean profiled)
+            throws UnsupportedOperationException {
+        ProgramCompiler compiler = new ProgramCompiler(functions, profiled);
+        compiler.compilingMain = true;
+        compiler.functionName = "main";
+        CompiledStatement compiledMain = compiler.compileStatement(main);
+
+        return new CompiledProgram(compiledMain, compiler.nbResumePoints);
+    }
+
+    /**
+     * Creates a new compiler for a program with the given functions, and compiles the bodies of the functions.
+     *
+     * @throws  UnsupportedOperationException
+     *          A function contains a statement or expression this compiler does not know.
+     */
+    ProgramCompiler(List<Function> functions, boolean profiled) throws UnsupportedOperationException {
+        for (Function function : functions)
+            this.functions.put(function.getFunctionName(), new CompiledFunction(function.getFunctionName(),
+                    function.getPurity()));
+        this.profiled = profiled;
+
+        for (Function function : functions) {
+            compilingMain = false;
+            functionName = function.getFunctionName();
+            this.functions.get(functionName).setBody(compileStatement(function.getBody()),
+                    function.getNbLocalVariables());
+        }
+    }
+
+    /**
+     * Returns the compiled form of the function with the given name, null if the program has no such function.
+     */
+    CompiledFunction getFunction(String functionName) {
+        return functions.get(functionName);
+    }
+
+    /**
+     * Compiles the condition and the body of the given loop, which belongs to the function with the given name or
+     * to the main statement if the name is null. The compiled loop is executed by the given program, and reads and
+     * writes the given global variables of that program.
+     *
+     * @throws  UnsupportedOperationException
+     *          The loop contains a statement or expression this compiler does not know.
+     */
+    CompiledLoop compileLoop(While<?> loop, String functionName, Program program, Object[] globals)
+            throws UnsupportedOperationException {
+        compilingMain = functionName == null;
+        this.functionName = compilingMain ? "main" : functionName;
+        // the resume points of the body of a loop of the main statement are kept in a frame of that loop
+        nbResumePoints = 0;
+
+        CompiledExpression condition = loop.isUnconditional() ? (CompiledBooleanExpression) frame -> true
+                : compileExpression(loop.getCondition());
+        CompiledStatement body = compileStatement(loop.getBody());
+        return new CompiledLoop(condition, body, program, globals,
+                compilingMain ? new Frame(program, globals, nbResumePoints) : null);
+    }
+
+    private final Map<String, CompiledFunction> functions = new HashMap<>();
+
+    private boolean compilingMain;
+
+    private boolean profiled;
+
+    /**
+     * The name of the function that is being compiled, main for the main statement.
+     */
+    private String functionName;
+
+    private int nbResumePoints = 0;
+
+    private boolean isCompilingMain() {
+        return compilingMain;
+    }
+
+    private CompiledStatement compileStatement(Statement<?> statement) throws UnsupportedOperationException {
+        CompiledStatement compiled = compileUnprofiledStatement(statement);
+        if (! profiled || statement instanceof Sequence)
+            return compiled;
+
+        // like the interpreter, sequences are not reported, their statements are
+        String functionName = this.functionName;
+        SourceLocation location = statement.getSourceLocation();
+        return frame -> {
+            ProgramProfiler profiler = frame.program.getProfiler();
+            if (profiler == null)
+                return compiled.execute(frame);
+
+            Completion completion = null;
+            profiler.enter(functionName, location);
+            try {
+                completion = compiled.execute(frame);
+                return completion;
+            } finally {
+                profiler.exit(completion != SUSPEND);
+            }
+        };
+    }
+
+    private CompiledStatement compileUnprofiledStatement(Statement<?> statement) throws UnsupportedOperationException {
+        if (statement instanceof Sequence)
+            return compileSequence((Sequence<?>) statement);
+        if (statement instanceof Assignment)
+            return compileAssignment((Assignment<?>) statement);
+        if (statement instanceof While)
+            return compileWhile((While<?>) statement);
+        if (statement instanceof If)
+            return compileIf((If<?>) statement);
+        if (statement instanceof Print)
+            return compilePrint((Print<?>) statement);
+        if (statement instanceof Return)
+            return compileReturn((Return) statement);
+        if (statement instanceof Break)
+            return frame -> BREAK;
+        if (statement instanceof Turn) {
+            CompiledExpression angle = compileExpression(((Turn) statement).getAngleExpression());
+            return compileAction(frame -> {
+                double value = angle.evaluateDouble(frame);
+                frame.program.performAction(ship -> ship.turn(value));
+            });
+        }
+        if (statement instanceof EnableThruster)
+            return compileAction(frame -> frame.program.performAction(Ship::thrustOn));
+        if (statement instanceof DisableThruster)
+            return compileAction(frame -> frame.program.performAction(Ship::thrustOff));
+        if (statement instanceof FireBullet)
+            return compileAction(frame -> frame.program.performAction(Ship::fireBullet));
+        if (statement instanceof Skip)
+            return compileAction(frame -> {});
+
+        throw new UnsupportedOperationException("Cannot compile " + statement.getClass().getSimpleName());
+    }
+
+    private CompiledStatement compileSequence(Sequence<?> sequence) {
+        int resumePoint = isCompilingMain() ? nbResumePoints++ : -1;
+
+        CompiledStatement[] statements = new CompiledStatement[sequence.getStatements().size()];
+        for (int i = 0; i < statements.length; i++)
+            statements[i] = compileStatement(sequence.getStatements().get(i));
+
+        if (resumePoint < 0)
+            return frame -> {
+                for (CompiledStatement statement : statements) {
+                    Completion completion = statement.execute(frame);
+                    if (completion != NORMAL)
+                        return completion;
+                }
+                return NORMAL;
+            };
+
+        return frame -> {
+            int[] resumePoints = frame.resumePoints;
+            for (int i = resumePoints[resumePoint]; i < statements.length; i++) {
+                Completion completion = statements[i].execute(frame);
+                if (completion != NORMAL) {
+                    resumePoints[resumePoint] = completion == SUSPEND ? i : 0;
+                    return completion;
+                }
+            }
+            resumePoints[resumePoint] = 0;
+            return NORMAL;
+        };
+    }
+
+    private CompiledStatement compileWhile(While<?> loop) {
+        CompiledExpression condition = loop.isUnconditional() ? (CompiledBooleanExpression) frame -> true
+                : compileExpression(loop.getCondition());
+        int resumePoint = isCompilingMain() ? nbResumePoints++ : -1;
+        CompiledStatement body = compileStatement(loop.getBody());
+        int endOfBody = nbResumePoints;
+
+        // A break statement in a function that is called in the loop ends the loop, as it does in the interpreter.
+        if (resumePoint < 0)
+            return frame -> {
+                try {
+                    while (true) {
+                        // a function cannot be suspended, only the instruction limit applies
+                        frame.program.countInstruction();
+                        if (! condition.evaluateBoolean(frame))
+                            break;
+                        Completion completion = body.execute(frame);
+                        if (completion == BREAK)
+                            break;
+                        if (completion != NORMAL)
+                            return completion;
+                    }
+                } catch (BreakException exc) {
+                    // the loop ends
+                }
+                return NORMAL;
+            };
+
+        return frame -> {
+            int[] resumePoints = frame.resumePoints;
+            try {
+                for (boolean resuming = resumePoints[resumePoint] != 0; ; resuming = false) {
+                    if (! resuming) {
+                        if (frame.program.countInstruction()) {
+                            // suspended before the condition is evaluated, which happens again when the loop resumes
+                            resumePoints[resumePoint] = 0;
+                            return SUSPEND;
+                        }
+                        if (! condition.evaluateBoolean(frame))
+                            break;
+                    }
+                    Completion completion = body.execute(frame);
+                    if (completion == BREAK)
+                        break;
+                    if (completion != NORMAL) {
+                        resumePoints[resumePoint] = completion == SUSPEND ? 1 : 0;
+                        return completion;
+                    }
+                }
+            } catch (BreakException exc) {
+                Arrays.fill(resumePoints, resumePoint, endOfBody, 0);
+            }
+            resumePoints[resumePoint] = 0;
+            return NORMAL;
+        };
+    }
+
+    private CompiledStatement compileIf(If<?> statement) {
+        CompiledExpression condition = compileExpression(statement.getCondition());
+        int resumePoint = isCompilingMain() ? nbResumePoints++ : -1;
+        CompiledStatement ifBody = compileStatement(statement.getIfBody());
+        CompiledStatement elseBody = statement.getElseBody() == null ? frame -> NORMAL
+                : compileStatement(statement.getElseBody());
+
+        if (resumePoint < 0)
+            return frame -> condition.evaluateBoolean(frame) ? ifBody.execute(frame) : elseBody.execute(frame);
+
+        return frame -> {
+            int[] resumePoints = frame.resumePoints;
+            int branch = resumePoints[resumePoint];
+            if (branch == 0)
+                branch = condition.evaluateBoolean(frame) ? 1 : 2;
+
+            Completion completion = (branch == 1 ? ifBody : elseBody).execute(frame);
+            resumePoints[resumePoint] = completion == SUSPEND ? branch : 0;
+            return completion;
+        };
+    }
+
+    private CompiledStatement compileAssignment(Assignment<?> assignment) {
+        String name = assignment.getName();
+        int slot = assignment.getSlot();
+        CompiledExpression value = compileExpression(assignment.getValue());
+
+        if (! isCompilingMain()) {
+            if (assignment.isVerified())
+                return frame -> {
+                    frame.locals[slot] = value.evaluate(frame);
+                    return NORMAL;
+                };
+            return frame -> {
+                VariableSlots.write(name, frame.locals, slot, value.evaluate(frame));
+                return NORMAL;
+            };
+        }
+
+        if (slot < 0)
+            return frame -> {
+                value.evaluate(frame);
+                throw new IllegalArgumentException("function and variables can not hold the same name");
+            };
+
+        if (assignment.isVerified())
+            return frame -> {
+                frame.globals[slot] = value.evaluate(frame);
+                return NORMAL;
+            };
+        return frame -> {
+            VariableSlots.write(name, frame.globals, slot, value.evaluate(frame));
+            return NORMAL;
+        };
+    }
+
+    private CompiledStatement compilePrint(Print<?> print) {
+        CompiledExpression expression = compileExpression(print.getExpression());
+        return frame -> {
+            frame.program.addPrintedObject(expression.evaluate(frame));
+            return NORMAL;
+        };
+    }
+
+    private CompiledStatement compileReturn(Return statement) {
+        if (statement.isTailCall() && functions.containsKey(((FunctionCall) statement.getValue()).getFunctionName()))
+            return compileTailCall((FunctionCall) statement.getValue());
+
+        CompiledExpression value = compileExpression(statement.getValue());
+        return frame -> {
+            frame.returnValue = value.evaluate(frame);
+            return RETURN;
+        };
+    }
+
+    /**
+     * Compiles a return statement that is a tail call of the given call. The function that executes it is replaced
+     * by the call, like in the interpreter.
+     */
+    private CompiledStatement compileTailCall(FunctionCall call) {
+        CompiledFunction function = functions.get(call.getFunctionName());
+        CompiledExpression[] arguments = compileArguments(call);
+        return frame -> {
+            frame.tailFunction = function;
+            frame.tailArguments = evaluateArguments(arguments, frame);
+            return RETURN;
+        };
+    }
+
+    /**
+     * Returns a compiled action statement that performs the given action if enough time remains, and suspends
+     * otherwise.
+     */
+    private static CompiledStatement compileAction(Consumer<Frame> action) {
+        return frame -> {
+            if (! frame.program.decrementTimeRemaining(ActionStatement.getExecutionTime()))
+                return SUSPEND;
+
+            action.accept(frame);
+            return NORMAL;
+        };
+    }
+
+    private CompiledExpression compileExpression(Expression<?> expression) throws UnsupportedOperationException {
+        if (expression instanceof ValueExpression)
+            return compileValue(expression.getValue());
+        if (expression instanceof ReadVariableExpression)
+            return compileReadVariable((ReadVariableExpression) expression);
+        if (expression instanceof ReadParameter)
+            return compileReadParameter((ReadParameter) expression);
+        if (expression instanceof FunctionCall)
+            return compileFunctionCall((FunctionCall) expression);
+
+        if (expression instanceof Addition) {
+            CompiledExpression left = compileExpression(((Addition) expression).getLeftOperand());
+            CompiledExpression right = compileExpression(((Addition) expression).getRightOperand());
+            return (CompiledDoubleExpression) frame -> left.evaluateDouble(frame) + right.evaluateDouble(frame);
+        }
+        if (expression instanceof Multiplication) {
+            CompiledExpression left = compileExpression(((Multiplication) expression).getLeftOperand());
+            CompiledExpression right = compileExpression(((Multiplication) expression).getRightOperand());
+            return (CompiledDoubleExpression) frame -> left.evaluateDouble(frame) * right.evaluateDouble(frame);
+        }
+        if (expression instanceof Subtraction) {
+            CompiledExpression left = compileExpression(((Subtraction) expression).getLeftOperand());
+            CompiledExpression right = compileExpression(((Subtraction) expression).getRightOperand());
+            return (CompiledDoubleExpression) frame -> left.evaluateDouble(frame) - right.evaluateDouble(frame);
+        }
+        if (expression instanceof LessThan) {
+            CompiledExpression left = compileExpression(((LessThan) expression).getLeftOperand());
+            CompiledExpression right = compileExpression(((LessThan) expression).getRightOperand());
+            return (CompiledBooleanExpression) frame -> left.evaluateDouble(frame) < right.evaluateDouble(frame);
+        }
+        if (expression instanceof Equal) {
+            // Like the interpreter, values are compared by reference.
+            CompiledExpression left = compileExpression(((Equal) expression).getLeftOperand());
+            CompiledExpression right = compileExpression(((Equal) expression).getRightOperand());
+            return (CompiledBooleanExpression) frame -> left.evaluate(frame) == right.evaluate(frame);
+        }
+        if (expression instanceof Negate) {
+            CompiledExpression operand = compileExpression(((Negate) expression).getOperand());
+            return (CompiledDoubleExpression) frame -> - operand.evaluateDouble(frame);
+        }
+        if (expression instanceof Sqrt) {
+            CompiledExpression operand = compileExpression(((Sqrt) expression).getOperand());
+            return (CompiledDoubleExpression) frame -> Math.sqrt(operand.evaluateDouble(frame));
+        }
+        if (expression instanceof Not) {
+            CompiledExpression operand = compileExpression(((Not) expression).getOperand());
+            return (CompiledBooleanExpression) frame -> ! operand.evaluateBoolean(frame);
+        }
+
+        if (expression instanceof EntityCharacteristicExpression) {
+            EntityCharacteristicExpression characteristic = (EntityCharacteristicExpression) expression;
+            CompiledExpression entity = compileExpression(characteristic.getEntity());
+            return (CompiledDoubleExpression) frame -> characteristic.getCharacteristic((Entity) entity.evaluate(frame));
+        }
+        if (expression instanceof EntityExpression) {
+            EntityExpression<?> entity = (EntityExpression<?>) expression;
+            return frame -> frame.program.queryEntity(entity);
+        }
+
+        throw new UnsupportedOperationException("Cannot compile " + expression.getClass().getSimpleName());
+    }
+
+    /**
+     * Returns a compiled literal. A double literal keeps its boxed value, so it evaluates to the same object every
+     * time, as a ValueExpression does.
+     */
+    private static CompiledExpression compileValue(Object value) {
+        if (! (value instanceof Double))
+            return frame -> value;
+
+        double primitiveValue = (Double) value;
+        return new CompiledDoubleExpression() {
+            @Override
+            public double evaluateDouble(Frame frame) {
+                return primitiveValue;
+            }
+
+            @Override
+            public Object evaluate(Frame frame) {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Returns a compiled read of the given variable. In a function, a local variable that has not been assigned yet
+     * falls back to the global variable with the same name.
+     */
+    private static CompiledExpression compileReadVariable(ReadVariableExpression variable) {
+        String name = variable.getName();
+        int local = variable.getSlot();
+        int global = variable.getGlobalSlot();
+
+        if (local >= 0 && global >= 0)
+            return frame -> {
+                Object value = frame.locals[local];
+                return value != VariableSlots.UNASSIGNED ? value : VariableSlots.read(name, frame.globals[global]);
+            };
+        if (local >= 0)
+            return frame -> VariableSlots.read(name, frame.locals[local]);
+        if (global >= 0)
+            return frame -> VariableSlots.read(name, frame.globals[global]);
+
+        return frame -> VariableSlots.read(name, VariableSlots.UNASSIGNED);
+    }
+
+    private CompiledExpression compileReadParameter(ReadParameter parameter) {
+        String name = parameter.getParamName();
+        if (isCompilingMain())
+            return frame -> {
+                throw new IllegalStateException("Parameter " + name + " can only be read in a function body.");
+            };
+
+        int index = parameter.getIndex();
+        return frame -> {
+            if (index < 0 || index >= frame.arguments.length)
+                throw new IllegalArgumentException("No argument given for parameter " + name + ".");
+            return frame.arguments[index];
+        };
+    }
+
+    private CompiledExpression compileFunctionCall(FunctionCall call) {
+        CompiledFunction function = functions.get(call.getFunctionName());
+
+        CompiledExpression[] arguments = compileArguments(call);
+
+        if (function == null)
+            return frame -> {
+                throw new IllegalArgumentException("Function " + call.getFunctionName() + " is not defined.");
+            };
+
+        return frame -> function.invoke(frame, evaluateArguments(arguments, frame));
+    }
+
+    private CompiledExpression[] compileArguments(FunctionCall call) {
+        List<Expression<?>> actualArgs = call.getActualArgs();
+        CompiledExpression[] arguments = new CompiledExpression[actualArgs.size()];
+        for (int i = 0; i < arguments.length; i++)
+            arguments[i] = compileExpression(actualArgs.get(i));
+        return arguments;
+    }
+
+    private static Object[] evaluateArguments(CompiledExpression[] arguments, Frame frame) {
+        Object[] values = new Object[arguments.length];
+        for (int i = 0; i < values.length; i++)
+            values[i] = arguments[i].evaluate(frame);
+        return values;
+    }
+}
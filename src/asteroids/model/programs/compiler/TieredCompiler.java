@@ -0,0 +1,230 @@
+package asteroids.model.programs.compiler;
+
+import asteroids.model.Program;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.composedStatements.While;
+import asteroids.model.util.exceptions.BreakException;
+import asteroids.model.util.exceptions.CallDepthExceededException;
+import be.kuleuven.cs.som.annotate.Basic;
+
+import java.util.List;
+
+/**
+ * A class of compilers that compile the hot code of a program while the program interprets its statements. This
+ * compiler counts how often every while loop and function of the program is executed, and compiles it once the count
+ * reaches the threshold of this compiler. The statements are shared by all programs of an image, their counts and
+ * compiled forms are kept by the compiler of every program, under the index of the loop or the function. The compiled forms are executed from then on, unless the program is profiled, in
+ * which case the statements are interpreted again.
+ * The bodies of all functions are compiled together, the first time anything is compiled, since compiled code calls
+ * the compiled forms of functions directly. The results are the same, only the time spent executing them differs.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class TieredCompiler {
+
+    /**
+     * The default number of executions after which a loop or a function is compiled.
+     */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    /**
+     * Creates a new compiler for the given program, with the given functions and global variables and the given
+     * number of indexed statements.
+     */
+    public TieredCompiler(Program program, List<Function> functions, Object[] globals, int nbStatements) {
+        this.program = program;
+        this.functions = functions;
+        this.globals = globals;
+        this.nbIterations = new int[nbStatements];
+        this.compiledLoops = new CompiledLoop[nbStatements];
+        this.nbCalls = new int[functions.size()];
+        this.compiledFunctions = new boolean[functions.size()];
+    }
+
+    private final Program program;
+
+    private final List<Function> functions;
+
+    private final Object[] globals;
+
+    /**
+     * The number of counted iterations of the loops of the program, by index.
+     */
+    private final int[] nbIterations;
+
+    /**
+     * The compiled forms of the loops of the program, by index, null for a loop that has not been compiled.
+     */
+    private final CompiledLoop[] compiledLoops;
+
+    /**
+     * The number of counted calls of the functions of the program, by index.
+     */
+    private final int[] nbCalls;
+
+    /**
+     * Whether the functions of the program became hot and are called in their compiled form, by index.
+     */
+    private final boolean[] compiledFunctions;
+
+    private int threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * Returns the number of iterations of a loop, or calls of a function, after which it is compiled.
+     */
+    @Basic
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the number of executions after which loops and functions are compiled to the given number. Loops and
+     * functions that have been counted already keep their count.
+     *
+     * @throws  IllegalArgumentException
+     *          | threshold <= 0
+     */
+    public void setThreshold(int threshold) throws IllegalArgumentException {
+        if (threshold <= 0)
+            throw new IllegalArgumentException("Invalid threshold " + threshold + ".");
+        this.threshold = threshold;
+    }
+
+    private ProgramCompiler compiler;
+
+    /**
+     * Whether the functions of the program could not be compiled, in which case nothing is compiled.
+     */
+    private boolean failed = false;
+
+    private int nbCompiledLoops = 0;
+
+    private int nbCompiledFunctions = 0;
+
+    /**
+     * Returns the number of loops this compiler compiled.
+     */
+    @Basic
+    public int getNbCompiledLoops() {
+        return nbCompiledLoops;
+    }
+
+    /**
+     * Returns the number of functions that are called in their compiled form since they became hot.
+     */
+    @Basic
+    public int getNbCompiledFunctions() {
+        return nbCompiledFunctions;
+    }
+
+    private ProgramCompiler getCompiler() {
+        if (compiler == null && ! failed) {
+            try {
+                compiler = new ProgramCompiler(functions, false);
+            } catch (UnsupportedOperationException exc) {
+                failed = true;
+            }
+        }
+        return compiler;
+    }
+
+    /**
+     * Returns the number of iterations of the given loop that were counted to decide whether it must be compiled.
+     * The iterations are only counted until the loop is compiled.
+     */
+    public int getNbIterations(While<?> loop) {
+        return nbIterations[loop.getIndex()];
+    }
+
+    /**
+     * Returns the compiled form of the given loop, null if it has not been compiled.
+     */
+    public CompiledLoop getCompiledLoop(While<?> loop) {
+        return compiledLoops[loop.getIndex()];
+    }
+
+    /**
+     * Counts an iteration of the given loop, which belongs to the given function or to the main statement if the
+     * function is null, and compiles the loop if the count reaches the threshold of this compiler.
+     *
+     * @return  The compiled form of the loop, null if it has not been compiled.
+     */
+    public CompiledLoop countIteration(While<?> loop, Function function) {
+        int index = loop.getIndex();
+        if (compiledLoops[index] == null && nbIterations[index] < threshold && ++nbIterations[index] == threshold)
+            compiledLoops[index] = compile(loop, function);
+        return compiledLoops[index];
+    }
+
+    /**
+     * Returns the number of calls of the given function that were counted to decide whether it must be compiled.
+     * The calls are only counted until the function is compiled.
+     */
+    public int getNbCalls(Function function) {
+        return nbCalls[function.getIndex()];
+    }
+
+    /**
+     * Counts a call of the given function, and compiles the function if the count reaches the threshold of this
+     * compiler.
+     *
+     * @return  Whether the call is executed by the compiled form of the function.
+     */
+    public boolean countCall(Function function) {
+        int index = function.getIndex();
+        if (! compiledFunctions[index] && nbCalls[index] < threshold && ++nbCalls[index] == threshold)
+            compiledFunctions[index] = compile(function);
+        return compiledFunctions[index];
+    }
+
+    /**
+     * Compiles the given loop, which belongs to the given function or to the main statement if the function is null.
+     *
+     * @return  The compiled form of the loop, null if it cannot be compiled.
+     */
+    private CompiledLoop compile(While<?> loop, Function function) {
+        ProgramCompiler compiler = getCompiler();
+        if (compiler == null)
+            return null;
+
+        try {
+            CompiledLoop compiled = compiler.compileLoop(loop, function == null ? null : function.getFunctionName(),
+                    program, globals);
+            nbCompiledLoops++;
+            return compiled;
+        } catch (UnsupportedOperationException exc) {
+            return null;
+        }
+    }
+
+    /**
+     * Compiles the given function.
+     *
+     * @return  Whether the given function can be called in its compiled form.
+     */
+    private boolean compile(Function function) {
+        ProgramCompiler compiler = getCompiler();
+        if (compiler == null || compiler.getFunction(function.getFunctionName()) == null)
+            return false;
+        nbCompiledFunctions++;
+        return true;
+    }
+
+    /**
+     * Calls the compiled form of the given function with the given arguments, from the call of a function that is
+     * in progress or from the main statement.
+     *
+     * @return  The value returned by the body of the function.
+     * @throws  BreakException
+     *          The body of the function executed a break statement outside of a while loop.
+     * @throws  IllegalStateException
+     *          The body of the function completed without executing a return statement.
+     * @throws  CallDepthExceededException
+     *          The call would nest more calls than the maximum call depth of the program allows.
+     */
+    public Object invoke(Function function, Object[] arguments)
+            throws BreakException, IllegalStateException, CallDepthExceededException {
+        Frame caller = new Frame(program, globals, null, null, program.getFrameStack().getDepth());
+        return compiler.getFunction(function.getFunctionName()).invoke(caller, arguments);
+    }
+}
@@ -2,8 +2,13 @@ package asteroids.model.programs.expressions;
 
 import asteroids.model.Ship;
 import asteroids.model.programs.statements.Statement;
+import asteroids.part3.programs.SourceLocation;
+import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
@@ -11,6 +16,26 @@ public abstract class Expression <T> implements Cloneable {
 
     public abstract T getValue();
 
+    /**
+     * Returns the value of this expression as a double. Numeric expressions compute it without boxing.
+     *
+     * @throws  ClassCastException
+     *          This expression does not evaluate to a double.
+     */
+    public double evalDouble() throws ClassCastException {
+        return (Double) getValue();
+    }
+
+    /**
+     * Returns the value of this expression as a boolean. Logical expressions compute it without boxing.
+     *
+     * @throws  ClassCastException
+     *          This expression does not evaluate to a boolean.
+     */
+    public boolean evalBoolean() throws ClassCastException {
+        return (Boolean) getValue();
+    }
+
     @Override
     public String toString() {
         Object value = getValue();
@@ -28,6 +53,28 @@ public abstract class Expression <T> implements Cloneable {
         this.statement = statement;
     }
 
+    private SourceLocation sourceLocation;
+
+    /**
+     * Returns the location of this expression in the source of its program, null if it is unknown.
+     */
+    @Basic
+    public SourceLocation getSourceLocation() {
+        return sourceLocation;
+    }
+
+    @Raw
+    public void setSourceLocation(SourceLocation sourceLocation) {
+        this.sourceLocation = sourceLocation;
+    }
+
+    /**
+     * Returns the expressions this expression is directly composed of.
+     */
+    public List<Expression<?>> getSubExpressions() {
+        return Collections.emptyList();
+    }
+
     @Override
     public abstract Expression<T> clone();
 }
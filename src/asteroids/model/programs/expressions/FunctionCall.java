@@ -1,6 +1,6 @@
 package asteroids.model.programs.expressions;
 
-import asteroids.model.programs.function.CalledFunction;
+import asteroids.model.programs.function.Function;
 import asteroids.model.programs.statements.Statement;
 
 import java.util.List;
@@ -17,13 +17,50 @@ public class FunctionCall extends Expression {
 
     private String functionName;
 
+    public String getFunctionName() {
+        return functionName;
+    }
+
     private List<Expression> actualArgs;
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Expression<?>> getActualArgs() {
+        // the arguments are created as raw expressions by the factory of the parser
+        return (List) actualArgs;
+    }
+
     @Override
     public Object getValue() {
-        try {
-            return new CalledFunction(getStatement().getParent().getFunction(functionName), actualArgs).execute().getValue();
-        } catch (CloneNotSupportedException e) { return null;}
+        return getFunction().call(evaluateArguments());
+    }
+
+    /**
+     * Returns the function this call calls.
+     *
+     * @throws  IllegalArgumentException
+     *          The program has no function with the name of this call.
+     */
+    public Function getFunction() throws IllegalArgumentException {
+        Function function = getStatement().getParent().getFunction(functionName);
+        if (function == null)
+            throw new IllegalArgumentException("Function " + functionName + " is not defined.");
+        return function;
+    }
+
+    /**
+     * Returns the values of the actual arguments of this call.
+     */
+    public Object[] evaluateArguments() {
+        Object[] arguments = new Object[actualArgs.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = actualArgs.get(i).getValue();
+        }
+        return arguments;
+    }
+
+    @Override
+    public List<Expression<?>> getSubExpressions() {
+        return getActualArgs();
     }
 
     @Override
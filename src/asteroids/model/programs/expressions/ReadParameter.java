@@ -1,7 +1,7 @@
 package asteroids.model.programs.expressions;
 
 
-import asteroids.model.programs.function.CalledFunction;
+import asteroids.model.programs.function.Function;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
@@ -9,15 +9,29 @@ import asteroids.model.programs.function.CalledFunction;
 public class ReadParameter extends Expression {
     public ReadParameter(String paramName) {
         this.paramName = paramName;
+        this.index = Integer.parseInt(paramName.substring(1)) - 1;
     }
 
     private String paramName;
 
+    /**
+     * The index of the read parameter in the arguments of a function call.
+     */
+    private final int index;
+
+    public String getParamName() {
+        return paramName;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public Object getValue() {
 //        System.out.println("reading param");
 //        System.out.println(getStatement());
-        return ((CalledFunction) getStatement().getParent()).getParameter(paramName).getValue();
+        return ((Function) getStatement().getParent()).getArgument(index);
     }
 
     @Override
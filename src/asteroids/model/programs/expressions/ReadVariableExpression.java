@@ -11,13 +11,44 @@ public class ReadVariableExpression extends Expression {
 
 	private String name;
 
+	public String getName() {
+		return name;
+	}
+
+	private int slot = -1;
+
+	private int globalSlot = -1;
+
+	/**
+	 * Returns the slot of the read variable among the local variables of the function it is read in, as resolved
+	 * by a VariableResolver. The slot is -1 if the variable is not read in a function or is never assigned in it.
+	 */
+	public int getSlot() {
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of the read variable among the global variables of its program, as resolved by a
+	 * VariableResolver. The slot is -1 if the variable is never assigned in the main statement of the program.
+	 */
+	public int getGlobalSlot() {
+		return globalSlot;
+	}
+
+	public void setSlots(int slot, int globalSlot) {
+		this.slot = slot;
+		this.globalSlot = globalSlot;
+	}
+
 	@Override
 	public Object getValue() {
-		return getStatement().getParent().getVariable(name).getValue();
+		return getStatement().getParent().getVariable(name, slot, globalSlot);
 	}
 
 	@Override
 	public Expression clone() {
-		return new ReadVariableExpression(name);
+		ReadVariableExpression clone = new ReadVariableExpression(name);
+		clone.setSlots(slot, globalSlot);
+		return clone;
 	}
 }
@@ -3,6 +3,9 @@ package asteroids.model.programs.expressions.binaryExpressions;
 import asteroids.model.programs.expressions.Expression;
 import asteroids.model.programs.statements.Statement;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
@@ -15,16 +18,21 @@ public abstract class BinaryExpression<T, O> extends Expression<T> {
 
     private Expression<O> leftOperand;
 
-    protected Expression<O> getLeftOperand() {
+    public Expression<O> getLeftOperand() {
         return leftOperand;
     }
 
     private Expression<O> rightOperand;
 
-    protected Expression<O> getRightOperand() {
+    public Expression<O> getRightOperand() {
         return rightOperand;
     }
 
+    @Override
+    public List<Expression<?>> getSubExpressions() {
+        return Arrays.asList(leftOperand, rightOperand);
+    }
+
     @Override
     public void setStatement(Statement statement) {
         super.setStatement(statement);
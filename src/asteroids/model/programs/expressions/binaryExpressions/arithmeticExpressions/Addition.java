@@ -14,8 +14,8 @@ public class Addition extends BinaryArithmeticExpression {
     }
 
     @Override
-    public Double getValue() {
-        return getLeftOperand().getValue() + getRightOperand().getValue();
+    public double evalDouble() {
+        return getLeftOperand().evalDouble() + getRightOperand().evalDouble();
     }
 
     @Override
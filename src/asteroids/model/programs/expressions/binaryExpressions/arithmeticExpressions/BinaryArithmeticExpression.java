@@ -11,4 +11,12 @@ public abstract class BinaryArithmeticExpression extends BinaryExpression<Double
     public BinaryArithmeticExpression(Expression<Double> leftOperand, Expression<Double> rightOperand) {
         super(leftOperand, rightOperand);
     }
+
+    @Override
+    public Double getValue() {
+        return evalDouble();
+    }
+
+    @Override
+    public abstract double evalDouble();
 }
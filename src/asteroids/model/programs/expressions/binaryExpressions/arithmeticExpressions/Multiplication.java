@@ -13,8 +13,8 @@ public class Multiplication extends BinaryArithmeticExpression {
     }
 
     @Override
-    public Double getValue() {
-        return getLeftOperand().getValue() * getRightOperand().getValue();
+    public double evalDouble() {
+        return getLeftOperand().evalDouble() * getRightOperand().evalDouble();
     }
 
     @Override
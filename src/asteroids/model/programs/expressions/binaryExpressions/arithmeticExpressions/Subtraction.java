@@ -0,0 +1,26 @@
+package asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions;
+
+import asteroids.model.programs.expressions.Expression;
+
+/**
+ * A class of subtractions. Programs have no syntax for subtraction, a ProgramOptimizer rewrites additions of a negated
+ * operand into subtractions.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class Subtraction extends BinaryArithmeticExpression {
+
+    public Subtraction(Expression<Double> leftOperand, Expression<Double> rightOperand) {
+        super(leftOperand, rightOperand);
+    }
+
+    @Override
+    public double evalDouble() {
+        return getLeftOperand().evalDouble() - getRightOperand().evalDouble();
+    }
+
+    @Override
+    public Expression<Double> clone() {
+        return new Subtraction(getLeftOperand().clone(), getRightOperand().clone());
+    }
+}
@@ -10,4 +10,12 @@ public abstract class CompareExpression<O> extends BinaryExpression<Boolean, O>
     public CompareExpression(Expression<O> leftOperand, Expression<O> rightOperand) {
         super(leftOperand, rightOperand);
     }
+
+    @Override
+    public Boolean getValue() {
+        return evalBoolean();
+    }
+
+    @Override
+    public abstract boolean evalBoolean();
 }
@@ -11,7 +11,7 @@ public class Equal extends CompareExpression<Object> {
     }
 
     @Override
-    public Boolean getValue() {
+    public boolean evalBoolean() {
         return getLeftOperand().getValue() == getRightOperand().getValue();
     }
 
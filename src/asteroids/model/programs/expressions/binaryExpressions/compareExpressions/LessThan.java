@@ -14,8 +14,8 @@ public class LessThan extends CompareExpression<Double> {
     }
 
     @Override
-    public Boolean getValue() {
-        return getLeftOperand().getValue() < getRightOperand().getValue();
+    public boolean evalBoolean() {
+        return getLeftOperand().evalDouble() < getRightOperand().evalDouble();
     }
 
     @Override
@@ -1,6 +1,7 @@
 package asteroids.model.programs.expressions.entityExpressions;
 
 import asteroids.model.Entity;
+import asteroids.model.Ship;
 import asteroids.model.programs.expressions.Expression;
 
 import java.util.ArrayList;
@@ -12,8 +13,8 @@ import java.util.Set;
 public class AnyExpression extends EntityExpression<Entity> {
 
     @Override @SuppressWarnings("all")
-    public Entity getValue() {
-        return getWorld()
+    public Entity getValue(Ship ship) {
+        return ship.getWorld()
                 .getAllEntities()
                 .stream()
                 .findAny()
@@ -1,6 +1,7 @@
 package asteroids.model.programs.expressions.entityExpressions;
 
 import asteroids.model.Asteroid;
+import asteroids.model.Ship;
 import asteroids.model.programs.expressions.Expression;
 
 import java.util.Comparator;
@@ -10,11 +11,11 @@ import java.util.Comparator;
  */
 public class AsteroidExpression extends EntityExpression<Asteroid> {
     @Override
-    public Asteroid getValue() {
-        return getWorld()
+    public Asteroid getValue(Ship ship) {
+        return ship.getWorld()
                 .getAllAsteroids()
                 .stream()
-                .min(Comparator.comparingDouble(asteroid -> asteroid.getDistanceBetween(getShip())))
+                .min(Comparator.comparingDouble(asteroid -> asteroid.getDistanceBetween(ship)))
                 .orElse(null);
     }
 
@@ -1,6 +1,7 @@
 package asteroids.model.programs.expressions.entityExpressions;
 
 import asteroids.model.Bullet;
+import asteroids.model.Ship;
 import asteroids.model.programs.expressions.Expression;
 
 import java.util.Comparator;
@@ -11,12 +12,12 @@ import java.util.Comparator;
 public class BulletExpression extends EntityExpression<Bullet> {
 
     @Override
-    public Bullet getValue() {
-        return getWorld()
+    public Bullet getValue(Ship ship) {
+        return ship.getWorld()
                 .getAllBullets()
                 .stream()
-                .filter(bullet -> bullet.getParentShip() == getShip())
-                .min(Comparator.comparingDouble(bullet -> bullet.getDistanceBetween(getShip())))
+                .filter(bullet -> bullet.getParentShip() == ship)
+                .min(Comparator.comparingDouble(bullet -> bullet.getDistanceBetween(ship)))
                 .orElse(null);
     }
 
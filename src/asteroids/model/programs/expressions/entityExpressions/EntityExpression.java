@@ -3,6 +3,7 @@ package asteroids.model.programs.expressions.entityExpressions;
 import asteroids.model.Entity;
 import asteroids.model.Ship;
 import asteroids.model.World;
+import asteroids.model.programs.Parent;
 import asteroids.model.programs.expressions.Expression;
 
 /**
@@ -10,6 +11,31 @@ import asteroids.model.programs.expressions.Expression;
  */
 public abstract class EntityExpression<T extends Entity> extends Expression<T> {
 
+    /**
+     * Returns the value of this expression for the program it belongs to. Like all entity queries of a program,
+     * the value is cached until the world changes.
+     */
+    @Override
+    public T getValue() {
+        Parent<?> parent = getStatement().getParent();
+        return parent.queryEntity(this);
+    }
+
+    /**
+     * Returns the value of this expression for a program that is executed by the given ship.
+     *
+     * @param ship  The ship executing the program.
+     */
+    public abstract T getValue(Ship ship);
+
+    /**
+     * Returns whether evaluating this expression searches the world of the ship, so that its value is worth
+     * caching.
+     */
+    public boolean isWorldQuery() {
+        return true;
+    }
+
     public Ship getShip() {
         return getStatement().getParent().getShip();
     }
@@ -1,6 +1,7 @@
 package asteroids.model.programs.expressions.entityExpressions;
 
 import asteroids.model.MinorPlanet;
+import asteroids.model.Ship;
 import asteroids.model.programs.expressions.Expression;
 
 import java.util.Comparator;
@@ -10,11 +11,11 @@ import java.util.Comparator;
  */
 public class MinorPlanetExpression extends EntityExpression<MinorPlanet> {
     @Override
-    public MinorPlanet getValue() {
-        return getWorld()
+    public MinorPlanet getValue(Ship ship) {
+        return ship.getWorld()
                 .getAllMinorPlanets()
                 .stream()
-                .min(Comparator.comparingDouble(minorPlanet -> minorPlanet.getDistanceBetween(getShip())))
+                .min(Comparator.comparingDouble(minorPlanet -> minorPlanet.getDistanceBetween(ship)))
                 .orElse(null);
     }
 
@@ -1,6 +1,7 @@
 package asteroids.model.programs.expressions.entityExpressions;
 
 import asteroids.model.Planetoid;
+import asteroids.model.Ship;
 import asteroids.model.programs.expressions.Expression;
 
 import java.util.Comparator;
@@ -10,11 +11,11 @@ import java.util.Comparator;
  */
 public class PlanetoidExpression extends EntityExpression<Planetoid> {
     @Override
-    public Planetoid getValue() {
-        return getWorld()
+    public Planetoid getValue(Ship ship) {
+        return ship.getWorld()
                 .getAllPlanetoids()
                 .stream()
-                .min(Comparator.comparingDouble(planetoid -> planetoid.getDistanceBetween(getShip())))
+                .min(Comparator.comparingDouble(planetoid -> planetoid.getDistanceBetween(ship)))
                 .orElse(null);
     }
 
@@ -9,8 +9,13 @@ import asteroids.model.programs.expressions.Expression;
 public class SelfExpression extends EntityExpression<Ship> {
 
     @Override
-    public Ship getValue() {
-        return getShip();
+    public Ship getValue(Ship ship) {
+        return ship;
+    }
+
+    @Override
+    public boolean isWorldQuery() {
+        return false;
     }
 
     @Override
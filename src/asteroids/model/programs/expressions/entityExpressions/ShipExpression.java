@@ -11,13 +11,13 @@ import java.util.Comparator;
 public class ShipExpression extends EntityExpression<Ship> {
 
     @Override
-    public Ship getValue() {
-        return getShip()
+    public Ship getValue(Ship ship) {
+        return ship
                 .getWorld()
                 .getAllShips()
                 .stream()
-                .filter(ship -> ship != getShip())
-                .min(Comparator.comparingDouble(ship -> ship.getDistanceBetween(getShip())))
+                .filter(other -> other != ship)
+                .min(Comparator.comparingDouble(other -> other.getDistanceBetween(ship)))
                 .orElse(null);
     }
 
@@ -5,6 +5,9 @@ import asteroids.model.programs.expressions.Expression;
 import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
 import asteroids.model.programs.statements.Statement;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
@@ -24,6 +27,28 @@ public abstract class EntityCharacteristicExpression extends Expression<Double>
         return entity;
     }
 
+    @Override
+    public Double getValue() {
+        return evalDouble();
+    }
+
+    @Override
+    public double evalDouble() {
+        return getCharacteristic(getEntity().getValue());
+    }
+
+    /**
+     * Returns the characteristic of the given entity this expression evaluates to.
+     *
+     * @param entity    The entity to inspect.
+     */
+    public abstract double getCharacteristic(Entity entity);
+
+    @Override
+    public List<Expression<?>> getSubExpressions() {
+        return Collections.singletonList(entity);
+    }
+
     @Override
     public void setStatement(Statement statement) {
         super.setStatement(statement);
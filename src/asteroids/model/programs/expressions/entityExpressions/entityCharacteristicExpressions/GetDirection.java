@@ -1,5 +1,6 @@
 package asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions;
 
+import asteroids.model.Entity;
 import asteroids.model.Ship;
 import asteroids.model.programs.expressions.Expression;
 import asteroids.model.programs.expressions.entityExpressions.SelfExpression;
@@ -14,8 +15,8 @@ public class GetDirection extends EntityCharacteristicExpression {
     }
 
     @Override
-    public Double getValue() {
-        return ((Ship) getEntity().getValue()).getOrientation();
+    public double getCharacteristic(Entity entity) {
+        return ((Ship) entity).getOrientation();
     }
 
     @Override
@@ -1,5 +1,6 @@
 package asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions;
 
+import asteroids.model.Entity;
 import asteroids.model.programs.expressions.Expression;
 
 /**
@@ -12,8 +13,8 @@ public class GetVX extends EntityCharacteristicExpression {
     }
 
     @Override
-    public Double getValue() {
-        return getEntity().getValue().getVelocity().getX();
+    public double getCharacteristic(Entity entity) {
+        return entity.getVelocity().getX();
     }
 
     @Override
@@ -4,6 +4,9 @@ import asteroids.model.Entity;
 import asteroids.model.programs.expressions.Expression;
 import asteroids.model.programs.statements.Statement;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
@@ -19,6 +22,11 @@ public abstract class UnaryExpression<T> extends Expression<T> {
         return operand;
     }
 
+    @Override
+    public List<Expression<?>> getSubExpressions() {
+        return Collections.singletonList(operand);
+    }
+
     @Override
     public void setStatement(Statement statement) {
         super.setStatement(statement);
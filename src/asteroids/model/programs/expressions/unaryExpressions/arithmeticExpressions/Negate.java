@@ -12,8 +12,8 @@ public class Negate extends UnaryArithmeticExpression {
     }
 
     @Override
-    public Double getValue() {
-        return - ((Double)getOperand().getValue());
+    public double evalDouble() {
+        return - getOperand().evalDouble();
     }
 
     @Override
@@ -11,8 +11,8 @@ public class Sqrt extends UnaryArithmeticExpression {
     }
 
     @Override
-    public Double getValue() {
-        return Math.sqrt((Double) getOperand().getValue());
+    public double evalDouble() {
+        return Math.sqrt(getOperand().evalDouble());
     }
 
     @Override
@@ -10,4 +10,12 @@ public abstract class UnaryArithmeticExpression extends UnaryExpression<Double>
     public UnaryArithmeticExpression(Expression operand) {
         super(operand);
     }
+
+    @Override
+    public Double getValue() {
+        return evalDouble();
+    }
+
+    @Override
+    public abstract double evalDouble();
 }
@@ -14,7 +14,12 @@ public class Not extends UnaryExpression<Boolean> {
 
     @Override
     public Boolean getValue() {
-        return ! (Boolean) getOperand().getValue();
+        return evalBoolean();
+    }
+
+    @Override
+    public boolean evalBoolean() {
+        return ! getOperand().evalBoolean();
     }
 
     @Override
@@ -0,0 +1,129 @@
+package asteroids.model.programs.function;
+
+import asteroids.model.programs.VariableSlots;
+
+import java.util.Arrays;
+
+/**
+ * A class of activation frames, which hold the arguments and local variables of a single call of a function.
+ * Frames are owned by a FrameStack, which reuses them for later calls.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ActivationFrame {
+
+    ActivationFrame() {
+    }
+
+    private Function function;
+
+    /**
+     * Returns the function whose call this frame belongs to, null if this frame is not in use.
+     */
+    public Function getFunction() {
+        return function;
+    }
+
+    private Object[] arguments;
+
+    private Object[] localVariables = new Object[0];
+
+    /**
+     * Returns the slots of the local variables of the call this frame belongs to. The array may be longer than the
+     * number of local variables of the function.
+     */
+    public Object[] getLocalVariables() {
+        return localVariables;
+    }
+
+    /**
+     * Returns the arguments of the call this frame belongs to.
+     */
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Returns the argument at the given index, which is one less than the number of the parameter.
+     *
+     * @throws  IllegalArgumentException
+     *          No argument was given at the given index.
+     */
+    public Object getArgument(int index) throws IllegalArgumentException {
+        if (index < 0 || index >= arguments.length)
+            throw new IllegalArgumentException("No argument given for parameter $" + (index + 1) + ".");
+        return arguments[index];
+    }
+
+    private Object returnValue;
+
+    /**
+     * Returns the value returned by the call this frame belongs to, null if it has not returned yet.
+     */
+    public Object getReturnValue() {
+        return returnValue;
+    }
+
+    /**
+     * Sets the value returned by the call this frame belongs to.
+     */
+    public void setReturnValue(Object returnValue) {
+        this.returnValue = returnValue;
+    }
+
+    private Function tailFunction;
+
+    private Object[] tailArguments;
+
+    /**
+     * Returns the function the call this frame belongs to must be replaced by, null if it did not execute a tail
+     * call.
+     */
+    public Function getTailFunction() {
+        return tailFunction;
+    }
+
+    /**
+     * Returns the arguments the tail call of the call this frame belongs to calls its function with.
+     */
+    public Object[] getTailArguments() {
+        return tailArguments;
+    }
+
+    /**
+     * Lets the call this frame belongs to be replaced by a call of the given function with the given arguments.
+     */
+    public void setTailCall(Function function, Object[] arguments) {
+        this.tailFunction = function;
+        this.tailArguments = arguments;
+    }
+
+    /**
+     * Prepares this frame for a call of the given function with the given arguments.
+     */
+    void activate(Function function, Object[] arguments) {
+        this.function = function;
+        this.arguments = arguments;
+        this.returnValue = null;
+        this.tailFunction = null;
+        this.tailArguments = null;
+
+        int nbLocalVariables = function.getNbLocalVariables();
+        if (localVariables.length < nbLocalVariables)
+            localVariables = VariableSlots.create(nbLocalVariables);
+        else
+            Arrays.fill(localVariables, 0, nbLocalVariables, VariableSlots.UNASSIGNED);
+    }
+
+    /**
+     * Releases the values this frame refers to after the call it belongs to has completed.
+     */
+    void deactivate() {
+        Arrays.fill(localVariables, null);
+        this.function = null;
+        this.arguments = null;
+        this.returnValue = null;
+        this.tailFunction = null;
+        this.tailArguments = null;
+    }
+}
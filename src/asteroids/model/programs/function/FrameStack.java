@@ -0,0 +1,64 @@
+package asteroids.model.programs.function;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class of stacks of the activation frames of the function calls of a program that are in progress.
+ * Frames that are popped are kept, so that a later call at the same depth does not have to allocate a new frame.
+ *
+ * @Invar   | 0 <= getDepth()
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class FrameStack {
+
+    private final List<ActivationFrame> frames = new ArrayList<>();
+
+    private int depth = 0;
+
+    /**
+     * Returns the number of function calls that are in progress.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the frame of the innermost function call that is in progress.
+     *
+     * @throws  IllegalStateException
+     *          | getDepth() == 0
+     */
+    public ActivationFrame getTop() throws IllegalStateException {
+        if (depth == 0)
+            throw new IllegalStateException("No function call is in progress.");
+        return frames.get(depth - 1);
+    }
+
+    /**
+     * Pushes a frame for a call of the given function with the given arguments on this stack.
+     *
+     * @return  The pushed frame.
+     * @Post    | (new this).getDepth() == getDepth() + 1
+     */
+    public ActivationFrame push(Function function, Object[] arguments) {
+        if (depth == frames.size())
+            frames.add(new ActivationFrame());
+
+        ActivationFrame frame = frames.get(depth++);
+        frame.activate(function, arguments);
+        return frame;
+    }
+
+    /**
+     * Pops the frame of the innermost function call from this stack.
+     *
+     * @throws  IllegalStateException
+     *          | getDepth() == 0
+     */
+    public void pop() throws IllegalStateException {
+        getTop().deactivate();
+        depth--;
+    }
+}
@@ -1,15 +1,32 @@
 package asteroids.model.programs.function;
 
+import asteroids.model.Entity;
 import asteroids.model.Program;
+import asteroids.model.Ship;
 import asteroids.model.programs.Child;
+import asteroids.model.programs.Interpreter;
+import asteroids.model.programs.Parent;
+import asteroids.model.programs.VariableSlots;
+import asteroids.model.programs.compiler.TieredCompiler;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
+import asteroids.model.programs.profiler.ProgramProfiler;
 import asteroids.model.programs.statements.*;
+import asteroids.model.util.exceptions.BreakException;
+import asteroids.model.util.exceptions.CallDepthExceededException;
+import asteroids.model.util.exceptions.InstructionLimitExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * A class of function definitions. The body of a function is shared by all calls of the function, the arguments and
+ * local variables of a call are kept in an activation frame on the frame stack of the program.
+ *
  * @author  Bo Kleynen & Yrjo Koyen
  */
-public class Function implements Child<Program>{
+public class Function implements Parent<Function>, Child<Program> {
 
-	public Function(String functionName, Statement<CalledFunction> body) {
+	public Function(String functionName, Statement<Function> body) {
 		this.functionName = functionName;
 		setBody(body);
 	}
@@ -20,28 +37,249 @@ public class Function implements Child<Program>{
 		return functionName;
 	}
 	
-	private void setBody(Statement<CalledFunction> body) {
+	private void setBody(Statement<Function> body) {
 		if (! body.isValidFunctionStatement())
 			throw new IllegalArgumentException();
 
 		this.body = body;
+		body.setParent(this);
 	}
 
-	private Statement<CalledFunction> body;
+	private Statement<Function> body;
 
-	public Statement<CalledFunction> getBody() {
+	public Statement<Function> getBody() {
 		return body;
 	}
 
+	private Purity purity = Purity.IMPURE;
+
+	/**
+	 * Returns the purity of this function, as determined by a PurityAnalyzer. A function that has not been analyzed
+	 * is impure.
+	 */
+	public Purity getPurity() {
+		return purity;
+	}
+
+	public void setPurity(Purity purity) {
+		this.purity = purity;
+	}
+
+	private int nbLocalVariables;
+
+	/**
+	 * Returns the number of local variables of this function, as resolved by a VariableResolver.
+	 */
+	public int getNbLocalVariables() {
+		return nbLocalVariables;
+	}
+
+	public void setNbLocalVariables(int nbLocalVariables) {
+		this.nbLocalVariables = nbLocalVariables;
+	}
+
+	private int index = -1;
+
+	/**
+	 * Returns the index of this function among the functions of its image, under which the programs of the image
+	 * keep the state of this function. The index is -1 if this function does not belong to an image.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * Calls this function with the given arguments. The result of a call of a cacheable function is served from the
+	 * function cache of the program if it is cached there, and is cached otherwise.
+	 * A call that executes a tail call is replaced by the call of the tail call, which does not nest the calls. The
+	 * result of that call is also the result of the replaced call.
+	 * If the program compiles its hot functions and this function is hot, the call is executed by its compiled form,
+	 * unless the program is profiled.
+	 *
+	 * @param arguments	The values of the actual arguments of the call.
+	 *
+	 * @return	The value returned by the body of this function.
+	 * @throws	BreakException
+	 * 			The body of this function executed a break statement outside of a while loop. Such a break ends the
+	 * 			while loop the function was called from.
+	 * @throws	IllegalStateException
+	 * 			The body of this function completed without executing a return statement.
+	 * @throws	CallDepthExceededException
+	 * 			The call would nest more calls than the maximum call depth of the program allows.
+	 */
+	public Object call(Object[] arguments) throws BreakException, IllegalStateException, CallDepthExceededException {
+		Program program = getParent();
+		TieredCompiler tieredCompiler = program.getTieredCompiler();
+		if (tieredCompiler != null && program.getProfiler() == null && tieredCompiler.countCall(this))
+			return tieredCompiler.invoke(this, arguments);
+
+		FunctionCache cache = program.getFunctionCache();
+		FrameStack frameStack = program.getFrameStack();
+
+		// the cacheable calls that were replaced by tail calls, whose result is the result of this call
+		List<Function> replacedFunctions = null;
+		List<Object[]> replacedArguments = null;
+
+		Function function = this;
+		Object result;
+		while (true) {
+			program.countInstruction();
+			if (function.purity.isCacheable()) {
+				result = cache.get(function.functionName, arguments);
+				if (result != FunctionCache.MISSING)
+					break;
+			}
+			if (frameStack.getDepth() >= program.getMaxCallDepth())
+				throw new CallDepthExceededException(program.getMaxCallDepth());
+
+			ActivationFrame frame = frameStack.push(function, arguments);
+			Function tailFunction;
+			Object[] tailArguments;
+			try {
+				Completion completion = function.body.run();
+				if (completion == Completion.BREAK)
+					throw new BreakException();
+				if (completion != Completion.RETURN)
+					throw new IllegalStateException("no return statement found");
+				result = frame.getReturnValue();
+				tailFunction = frame.getTailFunction();
+				tailArguments = frame.getTailArguments();
+			} finally {
+				frameStack.pop();
+			}
+
+			if (tailFunction == null) {
+				if (function.purity.isCacheable())
+					cache.put(function.functionName, function.purity, arguments, result);
+				break;
+			}
+			if (function.purity.isCacheable()) {
+				if (replacedFunctions == null) {
+					replacedFunctions = new ArrayList<>();
+					replacedArguments = new ArrayList<>();
+				}
+				replacedFunctions.add(function);
+				replacedArguments.add(arguments);
+			}
+			function = tailFunction;
+			arguments = tailArguments;
+		}
+
+		if (replacedFunctions != null) {
+			for (int i = 0; i < replacedFunctions.size(); i++) {
+				Function replaced = replacedFunctions.get(i);
+				cache.put(replaced.functionName, replaced.purity, replacedArguments.get(i), result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Lets the call of this function that is in progress be replaced by a call of the given function with the given
+	 * arguments, when it returns.
+	 */
+	public void setTailCall(Function function, Object[] arguments) {
+		getParent().getFrameStack().getTop().setTailCall(function, arguments);
+	}
+
+	/**
+	 * Sets the value returned by the call of this function that is in progress.
+	 */
+	public void setReturnValue(Object value) {
+		getParent().getFrameStack().getTop().setReturnValue(value);
+	}
+
+	/**
+	 * Returns the argument at the given index of the call of this function that is in progress.
+	 */
+	public Object getArgument(int index) throws IllegalArgumentException {
+		return getParent().getFrameStack().getTop().getArgument(index);
+	}
+
+	@Override
+	public Object getVariable(String varName, int localSlot, int globalSlot) {
+		Object[] localVariables = getParent().getFrameStack().getTop().getLocalVariables();
+
+		if (localSlot >= 0 && localVariables[localSlot] != VariableSlots.UNASSIGNED)
+			return localVariables[localSlot];
+		else
+			return getParent().getVariable(varName, -1, globalSlot);
+	}
+
+	@Override
+	public void addVariable(String varName, int slot, Object value) {
+		VariableSlots.write(varName, getParent().getFrameStack().getTop().getLocalVariables(), slot, value);
+	}
+
+	@Override
+	public void storeVariable(int slot, Object value) {
+		getParent().getFrameStack().getTop().getLocalVariables()[slot] = value;
+	}
+
 	private Program parent;
 
+	/**
+	 * Returns the program of this function. The functions of an image have no program of their own, since all
+	 * programs of the image share them: their program is the program that interprets them on the calling thread.
+	 */
 	@Override
 	public Program getParent() {
-		return parent;
+		return parent != null ? parent : Interpreter.getInterpretedProgram();
 	}
 
 	@Override
 	public void setParent(Program parent) {
 		this.parent = parent;
 	}
+
+	@Override
+	public void addPrintedObject(Object value) {
+		getParent().addPrintedObject(value);
+	}
+
+	@Override
+	public Function getFunction(String functionName) {
+		return getParent().getFunction(functionName);
+	}
+
+	@Override
+	public Ship getShip() {
+		return getParent().getShip();
+	}
+
+	@Override
+	public <E extends Entity> E queryEntity(EntityExpression<E> query) {
+		return getParent().queryEntity(query);
+	}
+
+	@Override
+	public double getTimeRemaining() {
+		return getParent().getTimeRemaining();
+	}
+
+	/**
+	 * Counts an instruction of the program of this function. The body of a function cannot be suspended, so only
+	 * the instruction limit of the program applies to it.
+	 *
+	 * @return	False.
+	 */
+	@Override
+	public boolean countInstruction() throws InstructionLimitExceededException {
+		getParent().countInstruction();
+		return false;
+	}
+
+	@Override
+	public ProgramProfiler getProfiler() {
+		return getParent() == null ? null : getParent().getProfiler();
+	}
+
+	@Override
+	public Interpreter getInterpreter() {
+		return getParent() == null ? null : getParent().getInterpreter();
+	}
 }
@@ -0,0 +1,245 @@
+package asteroids.model.programs.function;
+
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.statements.Statement;
+
+import java.util.*;
+
+/**
+ * A class of bounded caches of the results of calls of cacheable functions of a program. A call is identified by the
+ * name of the function and the values of its arguments, values are compared with equals. When the cache is full,
+ * the least recently used result is dropped.
+ * The results of functions that read the state of entities are dropped whenever the world advances.
+ * Programs compare values by reference, so a cached result is served as the object the call would have returned: the
+ * argument it returned, the literal it returned, or a new object for a double the function calculated.
+ *
+ * @Invar   | getSize() <= getCapacity()
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class FunctionCache {
+
+    /**
+     * The number of results a cache of a program holds by default.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The value returned by get for a call whose result is not cached. Functions can return null.
+     */
+    public static final Object MISSING = new Object();
+
+    /**
+     * Creates a new empty cache that holds at most the given number of results.
+     *
+     * @throws  IllegalArgumentException
+     *          | capacity <= 0
+     */
+    public FunctionCache(int capacity) throws IllegalArgumentException {
+        this(capacity, Collections.emptySet());
+    }
+
+    /**
+     * Creates a new empty cache that holds at most the given number of results of the functions with the given
+     * double literals.
+     *
+     * @param capacity  The number of results the cache holds at most.
+     * @param literals  The double literals of the bodies of the functions, as returned by collectLiterals.
+     *
+     * @throws  IllegalArgumentException
+     *          | capacity <= 0
+     */
+    public FunctionCache(int capacity, Set<Object> literals) throws IllegalArgumentException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity of a cache must be positive.");
+        this.capacity = capacity;
+        this.literals = literals;
+    }
+
+    /**
+     * Returns the double literals of the bodies of the given functions, compared by reference.
+     */
+    public static Set<Object> collectLiterals(List<Function> functions) {
+        Set<Object> literals = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Function function : functions)
+            collectLiterals(function.getBody(), literals);
+        return Collections.unmodifiableSet(literals);
+    }
+
+    private static void collectLiterals(Statement<?> statement, Set<Object> literals) {
+        for (Expression<?> expression : statement.getExpressions())
+            collectLiterals(expression, literals);
+        for (Statement<?> subStatement : statement.getSubStatements())
+            collectLiterals(subStatement, literals);
+    }
+
+    private static void collectLiterals(Expression<?> expression, Set<Object> literals) {
+        if (expression instanceof ValueExpression && expression.getValue() instanceof Double)
+            literals.add(expression.getValue());
+        for (Expression<?> subExpression : expression.getSubExpressions())
+            collectLiterals(subExpression, literals);
+    }
+
+    /**
+     * The double literals of the functions whose results this cache holds. A function returns the same object every
+     * time it returns one of them.
+     */
+    private final Set<Object> literals;
+
+    private final int capacity;
+
+    /**
+     * Returns the number of results this cache holds at most.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private final Map<Call, Object> results = new LinkedHashMap<Call, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Call, Object> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    /**
+     * Returns the number of results this cache holds.
+     */
+    public int getSize() {
+        return results.size();
+    }
+
+    private long nbHits = 0;
+
+    /**
+     * Returns the number of calls whose result was served from this cache.
+     */
+    public long getNbHits() {
+        return nbHits;
+    }
+
+    /**
+     * Returns the cached result of a call of the function with the given name with the given arguments, MISSING if
+     * it is not cached.
+     */
+    public Object get(String functionName, Object[] arguments) {
+        Object result = results.get(new Call(functionName, arguments, false));
+        if (result == null)
+            return MISSING;
+
+        nbHits++;
+        if (result == NULL)
+            return null;
+        if (result instanceof Argument)
+            return arguments[((Argument) result).index];
+        if (result instanceof Calculated)
+            return (Double) ((Calculated) result).value;
+        return result;
+    }
+
+    /**
+     * Caches the given result of a call of the function with the given name and purity with the given arguments.
+     * The given arguments must not be changed afterwards.
+     *
+     * @throws  IllegalArgumentException
+     *          | ! purity.isCacheable()
+     */
+    public void put(String functionName, Purity purity, Object[] arguments, Object result)
+            throws IllegalArgumentException {
+        if (! purity.isCacheable())
+            throw new IllegalArgumentException("The results of " + functionName + " cannot be cached.");
+
+        boolean readsEntities = purity == Purity.READS_ENTITIES;
+        results.put(new Call(functionName, arguments, readsEntities), encode(arguments, result));
+        if (readsEntities)
+            hasEntityResults = true;
+    }
+
+    private boolean hasEntityResults = false;
+
+    /**
+     * Drops the results of the functions that read the state of entities, because the world advanced.
+     */
+    public void advance() {
+        if (hasEntityResults) {
+            results.keySet().removeIf(call -> call.readsEntities);
+            hasEntityResults = false;
+        }
+    }
+
+    /**
+     * Returns the value under which the given result of a call with the given arguments is stored.
+     */
+    private Object encode(Object[] arguments, Object result) {
+        if (result == null)
+            return NULL;
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] == result)
+                return new Argument(i);
+        }
+        if (result instanceof Double && ! literals.contains(result))
+            return new Calculated((Double) result);
+        return result;
+    }
+
+    /**
+     * The value under which a null result is stored.
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * The value under which a result is stored that is one of the arguments of its call, the argument of the call
+     * that is served is returned instead.
+     */
+    private static final class Argument {
+
+        Argument(int index) {
+            this.index = index;
+        }
+
+        private final int index;
+    }
+
+    /**
+     * The value under which a double the function calculated is stored, a new object is returned for every call
+     * that is served.
+     */
+    private static final class Calculated {
+
+        Calculated(double value) {
+            this.value = value;
+        }
+
+        private final double value;
+    }
+
+    private static final class Call {
+
+        Call(String functionName, Object[] arguments, boolean readsEntities) {
+            this.functionName = functionName;
+            this.arguments = arguments;
+            this.readsEntities = readsEntities;
+            this.hashCode = 31 * functionName.hashCode() + Arrays.hashCode(arguments);
+        }
+
+        private final String functionName;
+
+        private final Object[] arguments;
+
+        private final boolean readsEntities;
+
+        private final int hashCode;
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Call && functionName.equals(((Call) other).functionName)
+                    && Arrays.equals(arguments, ((Call) other).arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
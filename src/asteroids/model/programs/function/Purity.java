@@ -0,0 +1,33 @@
+package asteroids.model.programs.function;
+
+/**
+ * An enumeration of the kinds of purity of a function, as determined by a PurityAnalyzer.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public enum Purity {
+
+    /**
+     * The result of the function only depends on its arguments.
+     */
+    PURE,
+
+    /**
+     * The result of the function only depends on its arguments and on the state of the entities of the world, which
+     * does not change until the world advances.
+     */
+    READS_ENTITIES,
+
+    /**
+     * The result of the function may depend on global variables, or calling it may have other effects than
+     * returning a value.
+     */
+    IMPURE;
+
+    /**
+     * Returns whether the results of calls of a function of this purity can be cached.
+     */
+    public boolean isCacheable() {
+        return this != IMPURE;
+    }
+}
@@ -0,0 +1,140 @@
+package asteroids.model.programs.function;
+
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.expressions.ReadVariableExpression;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
+import asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions.EntityCharacteristicExpression;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.composedStatements.If;
+import asteroids.model.programs.statements.composedStatements.Sequence;
+import asteroids.model.programs.statements.composedStatements.While;
+import asteroids.model.programs.statements.simpleStatements.Assignment;
+import asteroids.model.programs.statements.simpleStatements.Break;
+import asteroids.model.programs.statements.simpleStatements.Return;
+
+import java.util.*;
+
+/**
+ * A class of analyses that determine the purity of the functions of a program. The variables of the program must
+ * have been resolved by a VariableResolver.
+ * A function is impure if it may read a global variable, which happens when it reads a variable that it has not
+ * certainly assigned yet and that the main statement assigns, if it executes a break statement outside of a while
+ * loop, which ends the loop of its caller, or if it calls an impure or unknown function. Functions cannot execute
+ * actions or print statements, and all variables they assign are local.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class PurityAnalyzer {
+
+    /**
+     * Determines the purity of each of the given functions and sets it.
+     *
+     * @param functions The function definitions of a program.
+     */
+    public static void analyze(List<Function> functions) {
+        Map<String, Purity> purities = new HashMap<>();
+        Map<String, Set<String>> callees = new HashMap<>();
+
+        for (Function function : functions) {
+            PurityAnalyzer analyzer = new PurityAnalyzer();
+            analyzer.visit(function.getBody(), new HashSet<>(), 0);
+
+            purities.put(function.getFunctionName(), analyzer.impure ? Purity.IMPURE
+                    : analyzer.readsEntities ? Purity.READS_ENTITIES : Purity.PURE);
+            callees.put(function.getFunctionName(), analyzer.callees);
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<String, Purity> entry : purities.entrySet()) {
+                Purity purity = entry.getValue();
+                for (String callee : callees.get(entry.getKey())) {
+                    Purity calleePurity = purities.getOrDefault(callee, Purity.IMPURE);
+                    if (calleePurity.compareTo(purity) > 0)
+                        purity = calleePurity;
+                }
+
+                if (purity != entry.getValue()) {
+                    entry.setValue(purity);
+                    changed = true;
+                }
+            }
+        }
+
+        for (Function function : functions)
+            function.setPurity(purities.get(function.getFunctionName()));
+    }
+
+    private PurityAnalyzer() {
+    }
+
+    private boolean impure = false;
+
+    private boolean readsEntities = false;
+
+    private final Set<String> callees = new HashSet<>();
+
+    /**
+     * Visits the given statement, of which the variables with the given names have certainly been assigned before
+     * it is executed, inside the given number of while loops.
+     *
+     * @return  The names of the variables that have certainly been assigned after the given statement.
+     */
+    private Set<String> visit(Statement<?> statement, Set<String> assigned, int nbLoops) {
+        if (statement instanceof Sequence) {
+            for (Statement<?> subStatement : ((Sequence<?>) statement).getStatements())
+                assigned = visit(subStatement, assigned, nbLoops);
+            return assigned;
+        }
+        if (statement instanceof Assignment) {
+            visit(((Assignment<?>) statement).getValue(), assigned);
+            Set<String> result = new HashSet<>(assigned);
+            result.add(((Assignment<?>) statement).getName());
+            return result;
+        }
+        if (statement instanceof While) {
+            While<?> loop = (While<?>) statement;
+            if (! loop.isUnconditional())
+                visit(loop.getCondition(), assigned);
+            visit(loop.getBody(), assigned, nbLoops + 1);
+            return assigned;
+        }
+        if (statement instanceof If) {
+            If<?> ifStatement = (If<?>) statement;
+            visit(ifStatement.getCondition(), assigned);
+            Set<String> result = new HashSet<>(visit(ifStatement.getIfBody(), assigned, nbLoops));
+            result.retainAll(ifStatement.getElseBody() == null ? assigned
+                    : visit(ifStatement.getElseBody(), assigned, nbLoops));
+            return result;
+        }
+        if (statement instanceof Return) {
+            visit(((Return) statement).getValue(), assigned);
+            return assigned;
+        }
+        if (statement instanceof Break) {
+            if (nbLoops == 0)
+                impure = true;
+            return assigned;
+        }
+
+        impure = true;
+        return assigned;
+    }
+
+    private void visit(Expression<?> expression, Set<String> assigned) {
+        if (expression instanceof ReadVariableExpression) {
+            ReadVariableExpression variable = (ReadVariableExpression) expression;
+            if (variable.getGlobalSlot() >= 0 && ! assigned.contains(variable.getName()))
+                impure = true;
+        }
+        else if (expression instanceof FunctionCall)
+            callees.add(((FunctionCall) expression).getFunctionName());
+        else if (expression instanceof EntityExpression || expression instanceof EntityCharacteristicExpression)
+            readsEntities = true;
+
+        for (Expression<?> subExpression : expression.getSubExpressions())
+            visit(subExpression, assigned);
+    }
+}
@@ -0,0 +1,48 @@
+package asteroids.model.programs.function;
+
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.composedStatements.If;
+import asteroids.model.programs.statements.composedStatements.Sequence;
+import asteroids.model.programs.statements.simpleStatements.Return;
+
+import java.util.List;
+
+/**
+ * A class of analyses that find the tail calls of the functions of a program, the return statements that return
+ * the result of a function call. The call of a tail call replaces the call of the function that makes it, so
+ * functions that recurse through tail calls do not nest calls.
+ * A return statement in a while loop is no tail call, since a break statement outside of a while loop in the called
+ * function must end that loop, which belongs to the call that would be replaced.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class TailCallAnalyzer {
+
+    /**
+     * Marks the tail calls of each of the given functions.
+     *
+     * @param functions The function definitions of a program.
+     */
+    public static void analyze(List<Function> functions) {
+        for (Function function : functions)
+            visit(function.getBody());
+    }
+
+    private TailCallAnalyzer() {
+    }
+
+    private static void visit(Statement<?> statement) {
+        if (statement instanceof Sequence) {
+            for (Statement<?> subStatement : ((Sequence<?>) statement).getStatements())
+                visit(subStatement);
+        }
+        else if (statement instanceof If) {
+            visit(((If<?>) statement).getIfBody());
+            if (((If<?>) statement).getElseBody() != null)
+                visit(((If<?>) statement).getElseBody());
+        }
+        else if (statement instanceof Return)
+            ((Return) statement).setTailCall(((Return) statement).getValue() instanceof FunctionCall);
+    }
+}
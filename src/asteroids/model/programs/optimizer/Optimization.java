@@ -0,0 +1,72 @@
+package asteroids.model.programs.optimizer;
+
+import asteroids.part3.programs.SourceLocation;
+import be.kuleuven.cs.som.annotate.*;
+
+import java.util.Objects;
+
+/**
+ * A class of immutable reports of a single change a ProgramOptimizer made to a program.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@Value
+public class Optimization {
+
+    /**
+     * Creates a new report of a change at the given location.
+     *
+     * @Post    | @see implementation
+     */
+    public Optimization(SourceLocation location, String description) {
+        this.location = location;
+        this.description = description;
+    }
+
+    private final SourceLocation location;
+
+    /**
+     * Returns the location of the statement or expression that was changed, null if it is unknown.
+     */
+    @Basic @Immutable
+    public SourceLocation getLocation() {
+        return location;
+    }
+
+    private final String description;
+
+    /**
+     * Returns a description of the change.
+     */
+    @Basic @Immutable
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Compares this report with the given object, two reports are equal if and only if they report the same change
+     * at the same location.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof Optimization && Objects.equals(location, ((Optimization) obj).location)
+                && description.equals(((Optimization) obj).description));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(location) + description.hashCode();
+    }
+
+    /**
+     * Returns a string representation of this report.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public String toString() {
+        return (location == null ? "@?" : location.toString()) + ": " + description;
+    }
+}
@@ -0,0 +1,307 @@
+package asteroids.model.programs.optimizer;
+
+import asteroids.model.programs.Parent;
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.expressions.binaryExpressions.BinaryExpression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Addition;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.BinaryArithmeticExpression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Multiplication;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Subtraction;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.CompareExpression;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.Equal;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.LessThan;
+import asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions.EntityCharacteristicExpression;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Negate;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Sqrt;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.UnaryArithmeticExpression;
+import asteroids.model.programs.expressions.unaryExpressions.logicalExpressions.Not;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.actionStatements.Turn;
+import asteroids.model.programs.statements.composedStatements.If;
+import asteroids.model.programs.statements.composedStatements.Sequence;
+import asteroids.model.programs.statements.composedStatements.While;
+import asteroids.model.programs.statements.simpleStatements.Assignment;
+import asteroids.model.programs.statements.simpleStatements.Print;
+import asteroids.model.programs.statements.simpleStatements.Return;
+import asteroids.part3.programs.SourceLocation;
+
+import java.util.*;
+
+/**
+ * A class of optimizers that simplify the statement and expression trees built by a ProgramFactory before a program
+ * is created from them. An optimizer folds constant subexpressions, simplifies double negations and additions of a
+ * negated operand, drops the branches of if statements with a constant condition and turns while loops with a
+ * constant true condition into unconditional loops. Every change is reported at the source location of the statement
+ * or expression that was changed.
+ * Trees are rebuilt where they change, the statements and expressions that do not change are shared.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@SuppressWarnings("unchecked")
+public class ProgramOptimizer {
+
+    /**
+     * Creates a new optimizer.
+     *
+     * @param locations The source locations of the statements and expressions that will be optimized, by identity.
+     */
+    public ProgramOptimizer(Map<Object, SourceLocation> locations) {
+        this.locations = locations;
+    }
+
+    private final Map<Object, SourceLocation> locations;
+
+    private final List<Optimization> optimizations = new ArrayList<>();
+
+    /**
+     * Returns the changes this optimizer made so far, in the order in which it made them.
+     */
+    public List<Optimization> getOptimizations() {
+        return Collections.unmodifiableList(optimizations);
+    }
+
+    private void report(Object original, String description) {
+        optimizations.add(new Optimization(locations.get(original), description));
+    }
+
+    /**
+     * Returns the given node after registering it at the location of the given original node.
+     */
+    private <N> N relocate(N node, Object original) {
+        SourceLocation location = locations.get(original);
+        if (location != null)
+            locations.put(node, location);
+        return node;
+    }
+
+    /**
+     * Returns an optimized version of the given function, the given function itself if its body does not change.
+     */
+    public Function optimize(Function function) {
+        Statement<Function> body = optimize(function.getBody());
+        return body == function.getBody() ? function : relocate(new Function(function.getFunctionName(), body), function);
+    }
+
+    /**
+     * Returns an optimized version of the given statement, the given statement itself if it does not change.
+     */
+    public <T extends Parent<T>> Statement<T> optimize(Statement<T> statement) {
+        if (statement instanceof Sequence)
+            return optimizeSequence((Sequence<T>) statement);
+        if (statement instanceof While)
+            return optimizeWhile((While<T>) statement);
+        if (statement instanceof If)
+            return optimizeIf((If<T>) statement);
+
+        if (statement instanceof Assignment) {
+            Assignment<T> assignment = (Assignment<T>) statement;
+            Expression<?> value = optimize(assignment.getValue());
+            return value == assignment.getValue() ? statement
+                    : relocate(new Assignment<T>(assignment.getName(), value), statement);
+        }
+        if (statement instanceof Print) {
+            Expression<?> value = optimize(((Print<T>) statement).getExpression());
+            return value == ((Print<T>) statement).getExpression() ? statement
+                    : relocate(new Print<T>(value), statement);
+        }
+        if (statement instanceof Return) {
+            Expression<?> value = optimize(((Return) statement).getValue());
+            return value == ((Return) statement).getValue() ? statement
+                    : (Statement<T>) relocate((Statement<?>) new Return(value), statement);
+        }
+        if (statement instanceof Turn) {
+            Expression<Double> angle = optimize(((Turn) statement).getAngleExpression());
+            return angle == ((Turn) statement).getAngleExpression() ? statement
+                    : (Statement<T>) relocate((Statement<?>) new Turn(angle), statement);
+        }
+
+        return statement;
+    }
+
+    private <T extends Parent<T>> Statement<T> optimizeSequence(Sequence<T> sequence) {
+        List<Statement<T>> statements = new ArrayList<>();
+        boolean changed = false;
+
+        for (Statement<T> statement : sequence.getStatements()) {
+            Statement<T> optimized = optimize(statement);
+            statements.add(optimized);
+            changed |= optimized != statement;
+        }
+
+        return changed ? relocate(new Sequence<>(statements), sequence) : sequence;
+    }
+
+    private <T extends Parent<T>> Statement<T> optimizeWhile(While<T> loop) {
+        Expression<Boolean> condition = loop.isUnconditional() ? null : optimize(loop.getCondition());
+        Statement<T> body = optimize(loop.getBody());
+        if (loop.isUnconditional())
+            return body == loop.getBody() ? loop : relocate(new While<>(body), loop);
+
+        if (isConstant(condition, Boolean.class)) {
+            if (Boolean.TRUE.equals(condition.getValue())) {
+                report(loop, "while loop with a condition that is always true made unconditional");
+                return relocate(new While<>(body), loop);
+            }
+            if (Boolean.FALSE.equals(condition.getValue())) {
+                report(loop, "while loop with a condition that is always false removed");
+                return relocate(new Sequence<T>(new ArrayList<>()), loop);
+            }
+        }
+
+        return condition == loop.getCondition() && body == loop.getBody() ? loop
+                : relocate(new While<>(condition, body), loop);
+    }
+
+    private <T extends Parent<T>> Statement<T> optimizeIf(If<T> statement) {
+        Expression<Boolean> condition = optimize(statement.getCondition());
+        Statement<T> ifBody = optimize(statement.getIfBody());
+        Statement<T> elseBody = statement.getElseBody() == null ? null : optimize(statement.getElseBody());
+
+        if (isConstant(condition, Boolean.class)) {
+            boolean value = condition.getValue();
+            report(statement, "if statement with a condition that is always " + value + " replaced by its "
+                    + (value ? "if" : "else") + " body");
+            if (value)
+                return ifBody;
+            return elseBody != null ? elseBody : relocate(new Sequence<T>(new ArrayList<>()), statement);
+        }
+
+        return condition == statement.getCondition() && ifBody == statement.getIfBody()
+                && elseBody == statement.getElseBody() ? statement
+                : relocate(new If<>(condition, ifBody, elseBody), statement);
+    }
+
+    /**
+     * Returns an optimized version of the given expression, the given expression itself if it does not change.
+     */
+    public <E> Expression<E> optimize(Expression<E> expression) {
+        if (expression instanceof BinaryExpression)
+            return optimizeBinary((BinaryExpression<E, ?>) expression);
+
+        if (expression instanceof Negate) {
+            Expression<Double> operand = optimize(((Negate) expression).getOperand());
+            if (isConstant(operand, Double.class))
+                return fold(expression, - operand.getValue());
+            if (operand instanceof Negate && isDouble(((Negate) operand).getOperand())) {
+                report(expression, "double negation removed");
+                return ((Negate) operand).getOperand();
+            }
+            return operand == ((Negate) expression).getOperand() ? expression
+                    : (Expression<E>) relocate(new Negate(operand), expression);
+        }
+        if (expression instanceof Sqrt) {
+            Expression<Double> operand = optimize(((Sqrt) expression).getOperand());
+            if (isConstant(operand, Double.class))
+                return fold(expression, Math.sqrt(operand.getValue()));
+            return operand == ((Sqrt) expression).getOperand() ? expression
+                    : (Expression<E>) relocate(new Sqrt(operand), expression);
+        }
+        if (expression instanceof Not) {
+            Expression<Boolean> operand = optimize(((Not) expression).getOperand());
+            if (isConstant(operand, Boolean.class))
+                return fold(expression, ! operand.getValue());
+            if (operand instanceof Not && isBoolean(((Not) operand).getOperand())) {
+                report(expression, "double negation removed");
+                return ((Not) operand).getOperand();
+            }
+            return operand == ((Not) expression).getOperand() ? expression
+                    : (Expression<E>) relocate(new Not(operand), expression);
+        }
+
+        if (expression instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) expression;
+            List<Expression<?>> arguments = new ArrayList<>();
+            boolean changed = false;
+            for (Expression<?> argument : call.getActualArgs()) {
+                Expression<?> optimized = optimize(argument);
+                arguments.add(optimized);
+                changed |= optimized != argument;
+            }
+            return changed ? (Expression<E>) relocate(new FunctionCall(call.getFunctionName(), (List) arguments),
+                    expression) : expression;
+        }
+
+        return expression;
+    }
+
+    private <E, O> Expression<E> optimizeBinary(BinaryExpression<E, O> expression) {
+        Expression<O> left = optimize(expression.getLeftOperand());
+        Expression<O> right = optimize(expression.getRightOperand());
+
+        if (expression instanceof Equal && isConstant(left, Object.class) && isConstant(right, Object.class))
+            // Like the interpreter, values are compared by reference.
+            return fold(expression, left.getValue() == right.getValue());
+
+        if (isConstant(left, Double.class) && isConstant(right, Double.class)) {
+            double leftValue = (Double) left.getValue();
+            double rightValue = (Double) right.getValue();
+            if (expression instanceof Addition)
+                return fold(expression, leftValue + rightValue);
+            if (expression instanceof Subtraction)
+                return fold(expression, leftValue - rightValue);
+            if (expression instanceof Multiplication)
+                return fold(expression, leftValue * rightValue);
+            if (expression instanceof LessThan)
+                return fold(expression, leftValue < rightValue);
+        }
+
+        if (expression instanceof Addition && right instanceof Negate) {
+            report(expression, "addition of a negated operand replaced by a subtraction");
+            return (Expression<E>) relocate(new Subtraction((Expression<Double>) left, ((Negate) right).getOperand()),
+                    expression);
+        }
+
+        if (left == expression.getLeftOperand() && right == expression.getRightOperand())
+            return expression;
+        if (expression instanceof Addition)
+            return (Expression<E>) relocate(new Addition((Expression<Double>) left, (Expression<Double>) right),
+                    expression);
+        if (expression instanceof Subtraction)
+            return (Expression<E>) relocate(new Subtraction((Expression<Double>) left, (Expression<Double>) right),
+                    expression);
+        if (expression instanceof Multiplication)
+            return (Expression<E>) relocate(new Multiplication((Expression<Double>) left, (Expression<Double>) right),
+                    expression);
+        if (expression instanceof LessThan)
+            return (Expression<E>) relocate(new LessThan((Expression<Double>) left, (Expression<Double>) right),
+                    expression);
+        if (expression instanceof Equal)
+            return (Expression<E>) relocate(new Equal((Expression<Object>) left, (Expression<Object>) right),
+                    expression);
+        return expression;
+    }
+
+    private <E> Expression<E> fold(Expression<E> expression, Object value) {
+        report(expression, "constant expression folded to " + value);
+        return relocate(new ValueExpression<>((E) value), expression);
+    }
+
+    /**
+     * Returns whether the given expression is a literal whose value is of the given class. Null literals are only
+     * constants of class Object.
+     */
+    private static boolean isConstant(Expression<?> expression, Class<?> valueClass) {
+        return expression instanceof ValueExpression
+                && (valueClass == Object.class || valueClass.isInstance(expression.getValue()));
+    }
+
+    /**
+     * Returns whether the given expression always evaluates to a double, regardless of the values of variables.
+     */
+    private static boolean isDouble(Expression<?> expression) {
+        return (expression instanceof ValueExpression && expression.getValue() instanceof Double)
+                || expression instanceof BinaryArithmeticExpression || expression instanceof UnaryArithmeticExpression
+                || expression instanceof EntityCharacteristicExpression;
+    }
+
+    /**
+     * Returns whether the given expression always evaluates to a boolean, regardless of the values of variables.
+     */
+    private static boolean isBoolean(Expression<?> expression) {
+        return (expression instanceof ValueExpression && expression.getValue() instanceof Boolean)
+                || expression instanceof CompareExpression || expression instanceof Not;
+    }
+}
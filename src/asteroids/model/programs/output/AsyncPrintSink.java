@@ -0,0 +1,208 @@
+package asteroids.model.programs.output;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A class of sinks that write the lines of printed values to a writer on a thread of their own, so the programs that
+ * print do not wait for the writer. The lines that are waiting to be written are held in a bounded queue, a value
+ * that is printed while the queue is full is handled according to the drop policy of the sink. The writer thread
+ * writes all lines that are waiting at once and flushes the writer after every batch.
+ * A sink must be closed to write the lines that are still waiting and to stop its thread.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class AsyncPrintSink implements PrintSink, AutoCloseable {
+
+    /**
+     * The number of lines a sink holds by default.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * Creates a new sink that writes to the given writer, holds the default number of lines and drops the newest
+     * line when it is full.
+     *
+     * @see #AsyncPrintSink(Writer, int, DropPolicy)
+     */
+    public AsyncPrintSink(Writer writer) {
+        this(writer, DEFAULT_CAPACITY, DropPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Creates a new sink that writes to the given writer.
+     *
+     * @param writer    The writer to write the lines of the printed values to.
+     * @param capacity  The number of lines the sink holds at most while they are waiting to be written.
+     * @param policy    The way in which the sink handles a value that is printed while it is full.
+     *
+     * @throws  IllegalArgumentException
+     *          | capacity <= 0
+     */
+    public AsyncPrintSink(Writer writer, int capacity, DropPolicy policy) throws IllegalArgumentException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity of a sink must be positive.");
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.thread = new Thread(this::write, "program-output");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private final Writer writer;
+
+    private final BlockingQueue<String> queue;
+
+    private final DropPolicy policy;
+
+    private final Thread thread;
+
+    /**
+     * The line close adds to the queue to stop the writer thread, compared by identity.
+     */
+    private static final String END = new String("end");
+
+    private volatile boolean isClosed = false;
+
+    /**
+     * The number of values that are being printed. A value whose printing started before this sink was closed is
+     * added to the queue before the line that stops the writer thread, a value whose printing started after that
+     * is dropped.
+     */
+    private final AtomicInteger nbPrinting = new AtomicInteger();
+
+    private volatile IOException failure;
+
+    private long nbDropped = 0;
+
+    /**
+     * Returns the way in which this sink handles a value that is printed while it is full.
+     */
+    public DropPolicy getDropPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of lines this sink dropped because it was full.
+     */
+    public synchronized long getNbDropped() {
+        return nbDropped;
+    }
+
+    private synchronized void dropped() {
+        nbDropped++;
+    }
+
+    /**
+     * Returns the exception the writer of this sink threw, null if it did not. The writer thread stops writing when
+     * the writer fails, the lines printed after that are dropped.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Adds the line of the given value to the lines that are waiting to be written, the string null for a null
+     * value. The value is dropped if this sink is closed.
+     */
+    @Override
+    public void print(Object value) {
+        String line = String.valueOf(value);
+        nbPrinting.incrementAndGet();
+        try {
+            if (isClosed || failure != null)
+                dropped();
+            else
+                enqueue(line);
+        } finally {
+            nbPrinting.decrementAndGet();
+        }
+    }
+
+    private void enqueue(String line) {
+        switch (policy) {
+            case DROP_NEWEST:
+                if (! queue.offer(line))
+                    dropped();
+                break;
+            case DROP_OLDEST:
+                while (! queue.offer(line)) {
+                    if (queue.poll() != null)
+                        dropped();
+                }
+                break;
+            case BLOCK:
+                try {
+                    queue.put(line);
+                } catch (InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                    dropped();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Writes the lines that are waiting in batches until this sink is closed and the lines printed before it was
+     * closed are written. Lines that are still waiting behind the line that stops the thread are written too.
+     */
+    private void write() {
+        List<String> batch = new ArrayList<>();
+        try {
+            boolean isEnd = false;
+            while (! isEnd || ! queue.isEmpty()) {
+                if (! isEnd)
+                    batch.add(queue.take());
+                queue.drainTo(batch);
+
+                StringBuilder text = new StringBuilder();
+                for (String line : batch) {
+                    if (line == END)
+                        isEnd = true;
+                    else
+                        text.append(line).append(System.lineSeparator());
+                }
+                batch.clear();
+                writer.write(text.toString());
+                writer.flush();
+            }
+        } catch (IOException exc) {
+            failure = exc;
+            queue.clear();
+        } catch (InterruptedException exc) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Waits until this sink wrote the lines that are waiting and stops its writer thread. The writer is not closed.
+     * Values that are printed after this sink was closed are dropped.
+     *
+     * @throws  IllegalStateException
+     *          The calling thread was interrupted while it waited.
+     */
+    @Override
+    public void close() throws IllegalStateException {
+        isClosed = true;
+        // values whose printing started before this sink was closed are queued before the end
+        while (nbPrinting.get() > 0)
+            LockSupport.parkNanos(100_000);
+        try {
+            // the writer thread may stop on a failure while the queue is full
+            while (thread.isAlive() && ! queue.offer(END, 10, TimeUnit.MILLISECONDS))
+                continue;
+            thread.join();
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while closing the sink.", exc);
+        }
+    }
+}
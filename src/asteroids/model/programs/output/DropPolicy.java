@@ -0,0 +1,24 @@
+package asteroids.model.programs.output;
+
+/**
+ * An enumeration of the ways in which a bounded print sink handles a value that is printed while it is full.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public enum DropPolicy {
+
+    /**
+     * The printed value is dropped, the values the sink holds are kept.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest value the sink holds is dropped to make room for the printed value.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The program that prints waits until the sink has room for the printed value, nothing is dropped.
+     */
+    BLOCK
+}
@@ -0,0 +1,29 @@
+package asteroids.model.programs.output;
+
+/**
+ * An interface of destinations of the values printed by the print statements of programs. The programs of different
+ * ships can be executed at the same time by World.executePrograms, so a sink that is shared by several programs must
+ * be thread-safe.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public interface PrintSink {
+
+    /**
+     * A sink that prints every value on a line of its own on the standard output, before the print statement
+     * completes.
+     */
+    PrintSink STANDARD_OUTPUT = System.out::println;
+
+    /**
+     * A sink that ignores all values.
+     */
+    PrintSink NONE = value -> { };
+
+    /**
+     * Prints the given value, which a print statement evaluated.
+     *
+     * @param value The printed value, possibly null.
+     */
+    void print(Object value);
+}
@@ -0,0 +1,93 @@
+package asteroids.model.programs.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A class of sinks that keep the lines of the values printed last in memory. When a ring buffer is full, the oldest
+ * line is dropped for every new one.
+ *
+ * @Invar   | getNbLines() <= getCapacity()
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class RingBufferSink implements PrintSink {
+
+    /**
+     * Creates a new empty ring buffer that holds at most the given number of lines.
+     *
+     * @throws  IllegalArgumentException
+     *          | capacity <= 0
+     */
+    public RingBufferSink(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("The capacity of a ring buffer must be positive.");
+        this.lines = new String[capacity];
+    }
+
+    private final String[] lines;
+
+    /**
+     * The position of the oldest line in lines.
+     */
+    private int start = 0;
+
+    private int nbLines = 0;
+
+    private long nbDropped = 0;
+
+    /**
+     * Returns the number of lines this ring buffer holds at most.
+     */
+    public int getCapacity() {
+        return lines.length;
+    }
+
+    /**
+     * Returns the number of lines this ring buffer holds.
+     */
+    public synchronized int getNbLines() {
+        return nbLines;
+    }
+
+    /**
+     * Returns the number of lines this ring buffer dropped to make room for newer ones.
+     */
+    public synchronized long getNbDropped() {
+        return nbDropped;
+    }
+
+    /**
+     * Adds the line of the given value to this ring buffer, the string null for a null value.
+     */
+    @Override
+    public synchronized void print(Object value) {
+        String line = String.valueOf(value);
+        if (nbLines < lines.length)
+            lines[(start + nbLines++) % lines.length] = line;
+        else {
+            lines[start] = line;
+            start = (start + 1) % lines.length;
+            nbDropped++;
+        }
+    }
+
+    /**
+     * Returns the lines this ring buffer holds, from the oldest to the newest.
+     */
+    public synchronized List<String> getLines() {
+        List<String> result = new ArrayList<>(nbLines);
+        for (int i = 0; i < nbLines; i++)
+            result.add(lines[(start + i) % lines.length]);
+        return result;
+    }
+
+    /**
+     * Removes all lines from this ring buffer.
+     */
+    public synchronized void clear() {
+        Arrays.fill(lines, null);
+        start = nbLines = 0;
+    }
+}
@@ -0,0 +1,73 @@
+package asteroids.model.programs.parser;
+
+import asteroids.part3.programs.SourceLocation;
+import be.kuleuven.cs.som.annotate.*;
+
+import java.util.Objects;
+
+/**
+ * A class of immutable reports of a single error that prevented a program from being parsed or created.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@Value
+public class ParseError {
+
+    /**
+     * Creates a new report of an error at the given location.
+     *
+     * @Post    | @see implementation
+     */
+    public ParseError(SourceLocation location, String message) {
+        this.location = location;
+        this.message = message;
+    }
+
+    private final SourceLocation location;
+
+    /**
+     * Returns the location in the source of the program where the error was detected, null if the error is not
+     * related to a location, for instance because the source could not be read.
+     */
+    @Basic @Immutable
+    public SourceLocation getLocation() {
+        return location;
+    }
+
+    private final String message;
+
+    /**
+     * Returns a description of the error.
+     */
+    @Basic @Immutable
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Compares this report with the given object, two reports are equal if and only if they report the same message
+     * at the same location.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof ParseError && Objects.equals(location, ((ParseError) obj).location)
+                && Objects.equals(message, ((ParseError) obj).message));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(location) + Objects.hashCode(message);
+    }
+
+    /**
+     * Returns a string representation of this report.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public String toString() {
+        return (location == null ? "@?" : location.toString()) + ": " + message;
+    }
+}
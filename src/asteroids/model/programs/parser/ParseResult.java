@@ -0,0 +1,99 @@
+package asteroids.model.programs.parser;
+
+import be.kuleuven.cs.som.annotate.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A class of immutable results of parsing a single program: the program if it was parsed and created, the errors
+ * that prevented that otherwise.
+ *
+ * @param <P>   The type of the program.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@Value
+public class ParseResult<P> {
+
+    /**
+     * Creates a new result.
+     *
+     * @param program           The program that was created, null if it could not be.
+     * @param errors            The errors that prevented the program from being created.
+     * @param fullContextParsed Whether the program had to be parsed with full context prediction.
+     */
+    ParseResult(P program, List<ParseError> errors, boolean fullContextParsed) {
+        this.program = program;
+        this.errors = Collections.unmodifiableList(errors);
+        this.fullContextParsed = fullContextParsed;
+    }
+
+    private final P program;
+
+    /**
+     * Returns the program that was parsed, null if it could not be parsed or created.
+     */
+    @Basic @Immutable
+    public P getProgram() {
+        return program;
+    }
+
+    /**
+     * Returns whether the program was parsed and created.
+     *
+     * @return  | result == (getProgram() != null)
+     */
+    public boolean isSuccess() {
+        return program != null;
+    }
+
+    private final List<ParseError> errors;
+
+    /**
+     * Returns the errors that prevented the program from being parsed or created, in the order they were detected.
+     */
+    @Basic @Immutable
+    public List<ParseError> getErrors() {
+        return errors;
+    }
+
+    private final boolean fullContextParsed;
+
+    /**
+     * Returns whether the fast SLL prediction of the parser failed on the program, so that it was parsed again
+     * with full LL prediction.
+     */
+    @Basic @Immutable
+    public boolean isFullContextParsed() {
+        return fullContextParsed;
+    }
+
+    /**
+     * Compares this result with the given object, two results are equal if and only if they hold the same program,
+     * equal errors and were parsed with the same prediction.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (! (obj instanceof ParseResult))
+            return false;
+
+        ParseResult<?> other = (ParseResult<?>) obj;
+        return program == other.program && errors.equals(other.errors) && fullContextParsed == other.fullContextParsed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(program), errors, fullContextParsed);
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "parsed " + program : "failed " + errors;
+    }
+}
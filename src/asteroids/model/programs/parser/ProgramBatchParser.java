@@ -0,0 +1,202 @@
+package asteroids.model.programs.parser;
+
+import asteroids.model.util.exceptions.IllTypedProgramException;
+import asteroids.part3.programs.IProgramFactory;
+import asteroids.part3.programs.SourceLocation;
+import asteroids.part3.programs.internal.ParserVisitor;
+import asteroids.part3.programs.internal.generated.AsteroidsProgramLexer;
+import asteroids.part3.programs.internal.generated.AsteroidsProgramParser;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A class of parsers that parse many programs at once on a pool of threads. Every thread keeps its own lexer,
+ * parser and program factory, which it reuses for all programs it parses.
+ * A program is parsed with the fast SLL prediction mode of the parser first. Only if that fails, which happens for
+ * programs with syntax errors and for the rare programs that need full context, it is parsed again with full LL
+ * prediction, which reports the syntax errors.
+ *
+ * @param <E>   The type of the expressions created by the factories.
+ * @param <S>   The type of the statements created by the factories.
+ * @param <F>   The type of the functions created by the factories.
+ * @param <P>   The type of the programs created by the factories.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramBatchParser<E, S, F, P> implements AutoCloseable {
+
+    /**
+     * Creates a new parser with a thread for every available processor.
+     *
+     * @see #ProgramBatchParser(Supplier, int)
+     */
+    public ProgramBatchParser(Supplier<? extends IProgramFactory<E, S, F, P>> factories) {
+        this(factories, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new parser with the given number of threads.
+     *
+     * @param factories The supplier of the factories the programs are created with, one for every thread, since
+     *                  factories need not be thread-safe.
+     * @param nbThreads The number of threads to parse on.
+     *
+     * @throws  IllegalArgumentException
+     *          | nbThreads <= 0
+     */
+    public ProgramBatchParser(Supplier<? extends IProgramFactory<E, S, F, P>> factories, int nbThreads)
+            throws IllegalArgumentException {
+        if (nbThreads <= 0)
+            throw new IllegalArgumentException("Invalid number of threads " + nbThreads + ".");
+
+        this.factories = factories;
+        this.executor = Executors.newFixedThreadPool(nbThreads, runnable -> {
+            Thread thread = new Thread(runnable, "program-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final Supplier<? extends IProgramFactory<E, S, F, P>> factories;
+
+    private final ExecutorService executor;
+
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * Parses the programs with the sources at the given URLs.
+     *
+     * @param urls  The URLs of the sources of the programs.
+     *
+     * @return  The result of parsing every program, by URL, in the order of the given URLs.
+     * @throws  IllegalStateException
+     *          The parser was closed, or the calling thread was interrupted while it waited for the results.
+     */
+    public Map<URL, ParseResult<P>> parseAll(Collection<URL> urls) throws IllegalStateException {
+        Map<URL, Future<ParseResult<P>>> futures = new LinkedHashMap<>();
+        try {
+            for (URL url : urls)
+                futures.computeIfAbsent(url, key -> executor.submit(() -> workers.get().parse(key)));
+        } catch (RejectedExecutionException exc) {
+            throw new IllegalStateException("The parser is closed.", exc);
+        }
+
+        Map<URL, ParseResult<P>> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<URL, Future<ParseResult<P>>> entry : futures.entrySet())
+                results.put(entry.getKey(), entry.getValue().get());
+        } catch (InterruptedException exc) {
+            futures.values().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing.", exc);
+        } catch (ExecutionException exc) {
+            throw new IllegalStateException(exc.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Parses the program with the given source on the calling thread.
+     *
+     * @param source    The source of the program.
+     */
+    public ParseResult<P> parse(String source) {
+        return workers.get().parse(CharStreams.fromString(source));
+    }
+
+    /**
+     * Stops the threads of this parser. Programs that are being parsed are still parsed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * A lexer, parser and factory of a single thread, and the errors of the program it is parsing.
+     */
+    private class Worker extends BaseErrorListener {
+
+        Worker() {
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(this);
+        }
+
+        private final IProgramFactory<E, S, F, P> factory = factories.get();
+
+        private final AsteroidsProgramLexer lexer = new AsteroidsProgramLexer(CharStreams.fromString(""));
+
+        private final AsteroidsProgramParser parser = new AsteroidsProgramParser(new CommonTokenStream(lexer));
+
+        private final List<ParseError> errors = new ArrayList<>();
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            errors.add(new ParseError(new SourceLocation(line, charPositionInLine), msg));
+        }
+
+        ParseResult<P> parse(URL url) {
+            try (InputStream in = url.openStream()) {
+                return parse(CharStreams.fromStream(in, StandardCharsets.UTF_8));
+            } catch (IOException exc) {
+                return new ParseResult<>(null, Collections.singletonList(new ParseError(null, exc.toString())),
+                        false);
+            }
+        }
+
+        ParseResult<P> parse(CharStream input) {
+            errors.clear();
+            lexer.setInputStream(input);
+            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            parser.setTokenStream(tokens);
+
+            parser.removeErrorListeners();
+            parser.setErrorHandler(new BailErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            boolean fullContextParsed = false;
+            AsteroidsProgramParser.ProgramContext tree;
+            try {
+                tree = parser.program();
+            } catch (ParseCancellationException exc) {
+                // the tokens are buffered, so errors of the lexer have been reported already
+                fullContextParsed = true;
+                tokens.seek(0);
+                parser.reset();
+                parser.addErrorListener(this);
+                parser.setErrorHandler(new DefaultErrorStrategy());
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                tree = parser.program();
+            }
+
+            if (errors.isEmpty()) {
+                try {
+                    ParserVisitor<E, S, F, P> visitor = new ParserVisitor<>(factory);
+                    visitor.visitProgram(tree);
+                    P program = factory.createProgram(visitor.getFunctions(), visitor.getMain());
+                    if (program != null)
+                        return new ParseResult<>(program, Collections.emptyList(), fullContextParsed);
+                    errors.add(new ParseError(null, "Factory did not return a Program object"));
+                } catch (IllTypedProgramException exc) {
+                    errors.addAll(exc.getErrors());
+                } catch (RuntimeException exc) {
+                    errors.add(new ParseError(null, exc.toString()));
+                }
+            }
+            return new ParseResult<>(null, new ArrayList<>(errors), fullContextParsed);
+        }
+    }
+}
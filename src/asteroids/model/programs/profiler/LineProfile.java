@@ -0,0 +1,119 @@
+package asteroids.model.programs.profiler;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of immutable summaries of the executions of the statements on a single source line of a program, as
+ * recorded by a ProgramProfiler.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+@Value
+public class LineProfile {
+
+    /**
+     * Creates a new summary of the executions of the statements on the given line.
+     *
+     * @Post    | @see implementation
+     */
+    public LineProfile(int line, long nbExecutions, long selfNanos, long totalNanos, long allocatedBytes) {
+        this.line = line;
+        this.nbExecutions = nbExecutions;
+        this.selfNanos = selfNanos;
+        this.totalNanos = totalNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    private final int line;
+
+    /**
+     * Returns the source line of the statements, -1 for statements without a source location.
+     */
+    @Basic @Immutable
+    public int getLine() {
+        return line;
+    }
+
+    private final long nbExecutions;
+
+    /**
+     * Returns the number of completed executions of the statements. An execution that is suspended and resumed
+     * later counts once.
+     */
+    @Basic @Immutable
+    public long getNbExecutions() {
+        return nbExecutions;
+    }
+
+    private final long selfNanos;
+
+    /**
+     * Returns the number of nanoseconds spent in the statements themselves, not in the statements they are composed
+     * of or in the statements of the functions they call.
+     */
+    @Basic @Immutable
+    public long getSelfNanos() {
+        return selfNanos;
+    }
+
+    private final long totalNanos;
+
+    /**
+     * Returns the number of nanoseconds spent in the statements, including the statements they are composed of and
+     * the statements of the functions they call. The time of a recursive call is counted for every execution of
+     * the line that is in progress.
+     */
+    @Basic @Immutable
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    private final long allocatedBytes;
+
+    /**
+     * Returns an estimate of the number of bytes allocated by the statements themselves, -1 if the profiler did not
+     * measure allocations.
+     */
+    @Basic @Immutable
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Compares this summary with the given object, two summaries are equal if and only if all their properties are
+     * equal.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (! (obj instanceof LineProfile))
+            return false;
+
+        LineProfile other = (LineProfile) obj;
+        return line == other.line && nbExecutions == other.nbExecutions && selfNanos == other.selfNanos
+                && totalNanos == other.totalNanos && allocatedBytes == other.allocatedBytes;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = line;
+        result = 31 * result + Long.hashCode(nbExecutions);
+        result = 31 * result + Long.hashCode(selfNanos);
+        result = 31 * result + Long.hashCode(totalNanos);
+        return 31 * result + Long.hashCode(allocatedBytes);
+    }
+
+    /**
+     * Returns a string representation of this summary.
+     *
+     * @return  | @see implementation
+     */
+    @Override
+    public String toString() {
+        return "line " + line + ": " + nbExecutions + " executions, " + selfNanos + " ns self, " + totalNanos
+                + " ns total" + (allocatedBytes < 0 ? "" : ", " + allocatedBytes + " bytes");
+    }
+}
@@ -0,0 +1,198 @@
+package asteroids.model.programs.profiler;
+
+import asteroids.part3.programs.SourceLocation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * A class of profilers that record where programs spend their time, statement by statement. For every source line
+ * a profiler records how often its statements were executed, the time spent in them with and without the statements
+ * they are composed of and the functions they call, and optionally an estimate of the bytes they allocated.
+ * It also records the time spent in every stack of statements, which it exports in the collapsed stack format read
+ * by flame graph tools. A frame of a stack is the name of the function the statement belongs to, main for the main
+ * statement, followed by a colon and the line of the statement.
+ * Sequences are not reported separately, their statements are. A profiler can be shared by the programs of several
+ * ships, also when they are executed at the same time, to profile a script over all ships that run it.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramProfiler {
+
+    /**
+     * Creates a new profiler that does not measure allocations.
+     */
+    public ProgramProfiler() {
+        this(false);
+    }
+
+    /**
+     * Creates a new profiler.
+     *
+     * @param measuringAllocations  Whether the profiler estimates the bytes allocated by statements. This is only
+     *                              possible on virtual machines that measure the allocations of threads, and it makes
+     *                              profiling considerably slower.
+     */
+    public ProgramProfiler(boolean measuringAllocations) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (measuringAllocations && threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            this.allocations = (com.sun.management.ThreadMXBean) threads;
+            this.allocations.setThreadAllocatedMemoryEnabled(true);
+        } else
+            this.allocations = null;
+    }
+
+    /**
+     * The bean the allocations of threads are read from, null if this profiler does not measure allocations.
+     */
+    private final com.sun.management.ThreadMXBean allocations;
+
+    /**
+     * Returns whether this profiler estimates the bytes allocated by statements.
+     */
+    public boolean isMeasuringAllocations() {
+        return allocations != null;
+    }
+
+    /**
+     * A record of a statement whose execution is in progress.
+     */
+    private static class Entry {
+
+        private Entry(String stack, int line, long start, long startAllocated) {
+            this.stack = stack;
+            this.line = line;
+            this.start = start;
+            this.startAllocated = startAllocated;
+        }
+
+        private final String stack;
+
+        private final int line;
+
+        private final long start;
+
+        private final long startAllocated;
+
+        private long childNanos = 0;
+
+        private long childAllocated = 0;
+    }
+
+    /**
+     * The statements whose execution is in progress on every thread, the innermost last.
+     */
+    private final ThreadLocal<Deque<Entry>> entries = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * The totals of every line, the number of executions, self nanoseconds, total nanoseconds and allocated bytes.
+     */
+    private final Map<Integer, long[]> lines = new TreeMap<>();
+
+    private final Map<String, long[]> stacks = new LinkedHashMap<>();
+
+    /**
+     * Registers the start of the execution of a statement at the given location in the function with the given name.
+     *
+     * @param functionName  The name of the function the statement belongs to, main for the main statement.
+     * @param location      The location of the statement, possibly null.
+     */
+    public void enter(String functionName, SourceLocation location) {
+        Deque<Entry> entries = this.entries.get();
+        int line = location == null ? -1 : location.getLine();
+        String frame = functionName + ":" + (line < 0 ? "?" : Integer.toString(line));
+        String stack = entries.isEmpty() ? frame : entries.peekLast().stack + ";" + frame;
+        entries.addLast(new Entry(stack, line, System.nanoTime(), allocated()));
+    }
+
+    /**
+     * Registers the end of the execution of the statement whose execution started last.
+     *
+     * @param completed Whether the statement completed, false if it was suspended and will be resumed later.
+     *
+     * @throws  IllegalStateException
+     *          No execution of a statement is in progress on the calling thread.
+     */
+    public void exit(boolean completed) throws IllegalStateException {
+        long end = System.nanoTime();
+        long endAllocated = allocated();
+        Deque<Entry> entries = this.entries.get();
+        Entry entry = entries.pollLast();
+        if (entry == null)
+            throw new IllegalStateException("No statement is being executed.");
+
+        long totalNanos = end - entry.start;
+        long selfNanos = totalNanos - entry.childNanos;
+        long allocated = isMeasuringAllocations() ? endAllocated - entry.startAllocated : 0;
+        long selfAllocated = allocated - entry.childAllocated;
+        Entry parent = entries.peekLast();
+        if (parent != null) {
+            parent.childNanos += totalNanos;
+            parent.childAllocated += allocated;
+        }
+
+        synchronized (this) {
+            long[] line = lines.computeIfAbsent(entry.line, key -> new long[4]);
+            if (completed)
+                line[0]++;
+            line[1] += selfNanos;
+            line[2] += totalNanos;
+            line[3] += selfAllocated;
+            stacks.computeIfAbsent(entry.stack, key -> new long[1])[0] += selfNanos;
+        }
+    }
+
+    private long allocated() {
+        return allocations == null ? 0 : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns the summaries of the lines of which statements were executed, by line.
+     */
+    public synchronized List<LineProfile> getLineProfiles() {
+        List<LineProfile> result = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> entry : lines.entrySet()) {
+            long[] totals = entry.getValue();
+            result.add(new LineProfile(entry.getKey(), totals[0], totals[1], totals[2],
+                    isMeasuringAllocations() ? totals[3] : -1));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the summary of the given line, null if no statement on that line was executed.
+     */
+    public LineProfile getLineProfile(int line) {
+        for (LineProfile profile : getLineProfiles()) {
+            if (profile.getLine() == line)
+                return profile;
+        }
+        return null;
+    }
+
+    /**
+     * Writes the stacks of statements this profiler recorded to the given writer in the collapsed stack format,
+     * a line per stack with its frames separated by semicolons, followed by a space and the number of nanoseconds
+     * spent in the innermost statement of the stack.
+     *
+     * @throws  IOException
+     *          The writer failed.
+     */
+    public synchronized void writeCollapsedStacks(Writer writer) throws IOException {
+        for (Map.Entry<String, long[]> entry : stacks.entrySet())
+            writer.write(entry.getKey() + " " + entry.getValue()[0] + "\n");
+        writer.flush();
+    }
+
+    /**
+     * Forgets everything this profiler recorded. Executions that are in progress are not affected.
+     */
+    public synchronized void reset() {
+        lines.clear();
+        stacks.clear();
+    }
+}
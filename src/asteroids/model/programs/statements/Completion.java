@@ -0,0 +1,31 @@
+package asteroids.model.programs.statements;
+
+/**
+ * An enumeration of the ways in which the execution of a statement can complete. Statements report their completion
+ * instead of throwing exceptions, composite statements propagate every completion other than NORMAL to their own
+ * caller.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public enum Completion {
+
+    /**
+     * The statement completed normally, execution continues with the next statement.
+     */
+    NORMAL,
+
+    /**
+     * The statement executed a break statement that was not handled by an enclosing while loop.
+     */
+    BREAK,
+
+    /**
+     * The statement executed a return statement, the returned value is stored in the activation frame of the call.
+     */
+    RETURN,
+
+    /**
+     * The statement ran out of time, it will be resumed from where it was suspended on its next execution.
+     */
+    SUSPEND
+}
@@ -1,23 +1,84 @@
 package asteroids.model.programs.statements;
 
 import asteroids.model.programs.Child;
+import asteroids.model.programs.Interpreter;
 import asteroids.model.programs.Parent;
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.profiler.ProgramProfiler;
+import asteroids.part3.programs.SourceLocation;
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Raw;
 
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
 public abstract class Statement<T extends Parent<T>> implements Cloneable, Child<T> {
 
-    public abstract void execute();
+    /**
+     * Executes this statement.
+     *
+     * @return  How the execution of this statement completed. Only statements of the main statement of a program
+     *          can be suspended, a suspended statement resumes where it ran out of time on its next execution.
+     */
+    public abstract Completion execute();
+
+    /**
+     * Executes this statement like execute, and reports the execution to the profiler of the program if it has one.
+     * Composed statements, functions and programs execute the statements they are composed of with this method.
+     */
+    public Completion run() {
+        ProgramProfiler profiler = getParent() == null ? null : getParent().getProfiler();
+        if (profiler == null || ! isProfiled())
+            return execute();
+
+        Completion completion = null;
+        profiler.enter(getParent() instanceof Function ? ((Function) getParent()).getFunctionName() : "main",
+                getSourceLocation());
+        try {
+            completion = execute();
+            return completion;
+        } finally {
+            profiler.exit(completion != Completion.SUSPEND);
+        }
+    }
+
+    /**
+     * Returns whether the executions of this statement are reported to a profiler.
+     */
+    protected boolean isProfiled() {
+        return true;
+    }
+
+    private SourceLocation sourceLocation;
+
+    /**
+     * Returns the location of this statement in the source of its program, null if it is unknown.
+     */
+    @Basic
+    public SourceLocation getSourceLocation() {
+        return sourceLocation;
+    }
+
+    @Raw
+    public void setSourceLocation(SourceLocation sourceLocation) {
+        this.sourceLocation = sourceLocation;
+    }
 
     private T parent;
 
+    /**
+     * Returns the parent of this statement. The statements of the main statement of an image have no parent of
+     * their own, since all programs of the image share them: their parent is the program that interprets them on
+     * the calling thread.
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public T getParent() {
-        return parent;
+        return parent != null ? parent : (T) Interpreter.getInterpretedProgram();
     }
 
     @Override
@@ -25,29 +86,46 @@ public abstract class Statement<T extends Parent<T>> implements Cloneable, Child
         this.parent = parent;
     }
 
+    private int index = -1;
 
-    public Iterator<Statement<T>> iterator() {
-        return new Iterator<Statement<T>>() {
-            boolean returned = false;
-
-            @Override
-            public boolean hasNext() {
-                return !returned;
-            }
+    /**
+     * Returns the index of this statement among the statements of its image, under which the programs of the image
+     * keep the state of this statement. The index is -1 if this statement does not belong to an image.
+     */
+    @Basic
+    public int getIndex() {
+        return index;
+    }
 
-            @Override
-            public Statement<T> next() {
-                if (! hasNext())
-                    throw new NoSuchElementException();
+    @Raw
+    public void setIndex(int index) {
+        this.index = index;
+    }
 
-                returned = true;
-                return Statement.this;
-            }
-        };
+    /**
+     * Returns whether this statement is executed as a statement of a function, rather than of the main statement of
+     * a program.
+     */
+    public boolean isInFunction() {
+        return getParent() instanceof Function;
     }
 
     public abstract boolean isValidFunctionStatement();
 
+    /**
+     * Returns the statements this statement is directly composed of.
+     */
+    public List<Statement<T>> getSubStatements() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the expressions this statement evaluates itself, not those of its sub statements.
+     */
+    public List<Expression<?>> getExpressions() {
+        return Collections.emptyList();
+    }
+
     @Override
     public abstract Statement<T> clone() throws CloneNotSupportedException;
 }
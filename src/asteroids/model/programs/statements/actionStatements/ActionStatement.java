@@ -1,6 +1,7 @@
 package asteroids.model.programs.statements.actionStatements;
 
 import asteroids.model.Program;
+import asteroids.model.programs.statements.Completion;
 import be.kuleuven.cs.som.annotate.Basic;
 import jdk.nashorn.internal.ir.annotations.Immutable;
 
@@ -16,6 +17,25 @@ public abstract class ActionStatement extends asteroids.model.programs.statement
         return executionTime;
     }
 
+    /**
+     * Performs the action of this statement if enough time remains to do so.
+     *
+     * @return  SUSPEND if less than the execution time of an action remains, NORMAL otherwise.
+     */
+    @Override
+    public final Completion execute() {
+        if (! getParent().decrementTimeRemaining(getExecutionTime()))
+            return Completion.SUSPEND;
+
+        perform();
+        return Completion.NORMAL;
+    }
+
+    /**
+     * Performs the action of this statement with the ship of the program.
+     */
+    protected abstract void perform();
+
     @Override
     public boolean isValidFunctionStatement() {
         return false;
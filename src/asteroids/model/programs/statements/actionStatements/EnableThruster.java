@@ -1,8 +1,8 @@
 package asteroids.model.programs.statements.actionStatements;
 
 import asteroids.model.Program;
+import asteroids.model.Ship;
 import asteroids.model.programs.statements.Statement;
-import asteroids.model.util.exceptions.NotEnoughTimeRemainingException;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
@@ -10,9 +10,8 @@ import asteroids.model.util.exceptions.NotEnoughTimeRemainingException;
 public class EnableThruster extends ActionStatement {
 
     @Override
-    public void execute() {
-        getParent().decrementTimeRemaining(getExecutionTime());
-        getParent().getShip().thrustOn();
+    protected void perform() {
+        getParent().performAction(Ship::thrustOn);
     }
 
     @Override
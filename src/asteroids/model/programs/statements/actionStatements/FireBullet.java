@@ -1,6 +1,7 @@
 package asteroids.model.programs.statements.actionStatements;
 
 import asteroids.model.Program;
+import asteroids.model.Ship;
 import asteroids.model.programs.statements.Statement;
 
 /**
@@ -9,9 +10,8 @@ import asteroids.model.programs.statements.Statement;
 public class FireBullet extends ActionStatement {
 
     @Override
-    public void execute() {
-        getParent().decrementTimeRemaining(getExecutionTime());
-        getParent().getShip().fireBullet();
+    protected void perform() {
+        getParent().performAction(Ship::fireBullet);
     }
 
     @Override
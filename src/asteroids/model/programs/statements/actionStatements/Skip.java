@@ -2,7 +2,6 @@ package asteroids.model.programs.statements.actionStatements;
 
 import asteroids.model.Program;
 import asteroids.model.programs.statements.Statement;
-import asteroids.model.util.exceptions.NotEnoughTimeRemainingException;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
@@ -10,8 +9,7 @@ import asteroids.model.util.exceptions.NotEnoughTimeRemainingException;
 public class Skip extends ActionStatement {
 
     @Override
-    public void execute() {
-        getParent().decrementTimeRemaining(getExecutionTime());
+    protected void perform() {
     }
 
     @Override
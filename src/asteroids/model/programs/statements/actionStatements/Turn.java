@@ -4,6 +4,9 @@ import asteroids.model.Program;
 import asteroids.model.programs.expressions.Expression;
 import asteroids.model.programs.statements.Statement;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author  Bo Kleynen & Yrjo Koyen
  */
@@ -14,14 +17,23 @@ public class Turn extends ActionStatement {
     }
     private Expression<Double> angle;
 
+    public Expression<Double> getAngleExpression() {
+        return angle;
+    }
+
+    @Override
+    public List<Expression<?>> getExpressions() {
+        return Collections.singletonList(angle);
+    }
+
     public double getAngle() {
-        return angle.getValue();
+        return angle.evalDouble();
     }
 
     @Override
-    public void execute() {
-        getParent().decrementTimeRemaining(getExecutionTime());
-        getParent().getShip().turn(getAngle());
+    protected void perform() {
+        double angle = getAngle();
+        getParent().performAction(ship -> ship.turn(angle));
     }
 
     @Override
@@ -1,11 +1,14 @@
 package asteroids.model.programs.statements.composedStatements;
 
+import asteroids.model.programs.Interpreter;
 import asteroids.model.programs.Parent;
 import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.statements.Completion;
 import asteroids.model.programs.statements.Statement;
 
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
@@ -24,6 +27,10 @@ public class If<T extends Parent<T>> extends Statement<T> {
     private Statement<T> ifBody;
     private Statement<T> elseBody;
 
+    public Expression<Boolean> getCondition() {
+        return condition;
+    }
+
     public Statement<T> getIfBody() {
         return ifBody;
     }
@@ -32,21 +39,39 @@ public class If<T extends Parent<T>> extends Statement<T> {
         return elseBody;
     }
 
-    private Iterator<Statement<T>> bodyIterator;
+    @Override
+    public List<Statement<T>> getSubStatements() {
+        return elseBody == null ? Collections.singletonList(ifBody) : Arrays.asList(ifBody, elseBody);
+    }
+
+    @Override
+    public List<Expression<?>> getExpressions() {
+        return Collections.singletonList(condition);
+    }
 
+    /**
+     * Executes this statement. A suspended statement resumes its branch without evaluating its condition again. Its
+     * resume point in the interpreter of the program is the branch it was suspended in, 1 for the if body and 2 for
+     * the else body.
+     */
     @Override
-    public void execute() {
-        if (condition.getValue()) {
-            bodyIterator = ifBody.iterator();
-        }
-
-        else if (elseBody != null) {
-            bodyIterator = elseBody.iterator();
-        }
-
-        while (bodyIterator != null && bodyIterator.hasNext()) {
-            bodyIterator.next().execute();
-        }
+    public Completion execute() {
+        Interpreter interpreter = getParent() == null ? null : getParent().getInterpreter();
+        int branch = 0;
+        if (interpreter != null && (branch = interpreter.getResumePoint(this)) != 0)
+            interpreter.setResumePoint(this, 0);
+
+        if (branch == 0)
+            branch = condition.evalBoolean() ? 1 : 2;
+
+        Statement<T> body = branch == 1 ? ifBody : elseBody;
+        if (body == null)
+            return Completion.NORMAL;
+
+        Completion completion = body.run();
+        if (completion == Completion.SUSPEND && interpreter != null)
+            interpreter.setResumePoint(this, branch);
+        return completion;
     }
 
     @Override
@@ -63,42 +88,6 @@ public class If<T extends Parent<T>> extends Statement<T> {
         return ifBody.isValidFunctionStatement() && (elseBody == null || elseBody.isValidFunctionStatement());
     }
 
-    @Override
-    public Iterator<Statement<T>> iterator() {
-        condition.setStatement(If.this);
-        return new Iterator<Statement<T>>() {
-
-            Iterator<Statement<T>> bodyIterator;
-
-            @Override
-            public boolean hasNext() {
-                if (bodyIterator != null)
-                    return bodyIterator.hasNext();
-
-                else if (condition.getValue()) {
-                    bodyIterator = ifBody.iterator();
-                    return bodyIterator.hasNext();
-                }
-
-                else if (elseBody != null) {
-                    bodyIterator = elseBody.iterator();
-                    return bodyIterator.hasNext();
-                }
-
-                else
-                    return false;
-            }
-
-            @Override
-            public Statement<T> next() {
-                if (! hasNext())
-                    throw new NoSuchElementException();
-
-                return bodyIterator.next();
-            }
-        };
-    }
-
     @Override
     public Statement<T> clone() throws CloneNotSupportedException {
         return new If<>(condition.clone(), ifBody.clone(), elseBody == null ? null : elseBody.clone());
@@ -1,11 +1,11 @@
 package asteroids.model.programs.statements.composedStatements;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.NoSuchElementException;
 
+import asteroids.model.programs.Interpreter;
 import asteroids.model.programs.Parent;
+import asteroids.model.programs.statements.Completion;
 import asteroids.model.programs.statements.Statement;
 
 /**
@@ -19,15 +19,45 @@ public class Sequence<T extends Parent<T>> extends Statement<T> {
 
     private List<Statement<T>> statements;
 
+    /**
+     * Executes the statements of this sequence. A suspended sequence resumes at the statement it was suspended at,
+     * which is its resume point in the interpreter of the program.
+     */
     @Override
-    public void execute() {
-        throw new RuntimeException("something went terribly wrong");
+    public Completion execute() {
+        Interpreter interpreter = getParent() == null ? null : getParent().getInterpreter();
+        int start = 0;
+        if (interpreter != null && (start = interpreter.getResumePoint(this)) != 0)
+            interpreter.setResumePoint(this, 0);
+
+        for (int i = start; i < statements.size(); i++) {
+            Completion completion = statements.get(i).run();
+            if (completion != Completion.NORMAL) {
+                if (completion == Completion.SUSPEND && interpreter != null)
+                    interpreter.setResumePoint(this, i);
+                return completion;
+            }
+        }
+        return Completion.NORMAL;
+    }
+
+    /**
+     * A sequence is not reported to a profiler, its statements are.
+     */
+    @Override
+    protected boolean isProfiled() {
+        return false;
     }
 
     public List<Statement<T>> getStatements() {
         return statements;
     }
 
+    @Override
+    public List<Statement<T>> getSubStatements() {
+        return statements;
+    }
+
     @Override
     public void setParent(T parent) {
         super.setParent(parent);
@@ -37,41 +67,6 @@ public class Sequence<T extends Parent<T>> extends Statement<T> {
         }
     }
 
-    @Override
-    public Iterator<Statement<T>> iterator() {
-        return new Iterator<Statement<T>>() {
-
-            int index = 0;
-            Iterator<Statement<T>> subIterator = statements.get(index++).iterator();
-
-            @Override
-            public boolean hasNext() {
-                if (subIterator.hasNext())
-                    return true;
-
-                else {
-                    for (int i=index; i<statements.size(); i++) {
-                        index++;
-                        subIterator = statements.get(i).iterator();
-                        if (subIterator.hasNext()) {
-                            return true;
-                        }
-                    }
-                    index = statements.size();
-                    return false;
-                }
-            }
-
-            @Override
-            public Statement<T> next() throws NoSuchElementException {
-                if (! hasNext())
-                    throw new NoSuchElementException();
-
-                return subIterator.next();
-            }
-        };
-    }
-
     @Override
     public boolean isValidFunctionStatement() {
         for (Statement statement : statements) {
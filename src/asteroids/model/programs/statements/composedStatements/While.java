@@ -1,12 +1,18 @@
 package asteroids.model.programs.statements.composedStatements;
 
+import asteroids.model.programs.Interpreter;
 import asteroids.model.programs.Parent;
+import asteroids.model.programs.compiler.CompiledLoop;
+import asteroids.model.programs.compiler.Frame;
+import asteroids.model.programs.compiler.TieredCompiler;
 import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Completion;
 import asteroids.model.programs.statements.Statement;
 import asteroids.model.util.exceptions.BreakException;
 
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author  Bo Kleynen & Yrjo Koyen
@@ -20,49 +26,120 @@ public class While<T extends Parent<T>> extends Statement<T> {
         this.body = body;
     }
 
+    /**
+     * Creates a new loop that executes the given body until it executes a break statement.
+     */
+    public While(Statement<T> body) {
+        this(null, body);
+    }
+
     private Expression<Boolean> condition;
 
+    /**
+     * Returns the condition of this loop, null if this loop is unconditional.
+     */
+    public Expression<Boolean> getCondition() {
+        return condition;
+    }
+
+    /**
+     * Returns whether this loop only ends by executing a break statement.
+     */
+    public boolean isUnconditional() {
+        return condition == null;
+    }
+
     private Statement<T> body;
 
-    private Iterator<Statement<T>> bodyIterator = new Iterator<Statement<T>>() {
+    public Statement<T> getBody() {
+        return body;
+    }
 
-		Iterator<Statement<T>> bodyIterator;
+    @Override
+    public List<Statement<T>> getSubStatements() {
+        return Collections.singletonList(body);
+    }
 
-		@Override
-		public boolean hasNext() {
-			try {
-				if (bodyIterator != null && bodyIterator.hasNext()) {
-					return true;
-				} else if (condition.getValue()) {
-					bodyIterator = body.iterator();
-					return true;
-				} else {
-					return false;
-				}
-			} catch (BreakException br) {
-				return false;
-			}
-		}
+    @Override
+    public List<Expression<?>> getExpressions() {
+        return isUnconditional() ? Collections.emptyList() : Collections.singletonList(condition);
+    }
 
-		@Override
-		public Statement<T> next() {
-			if (!hasNext())
-				throw new NoSuchElementException();
+    /**
+     * The resume point of a loop that was suspended while executing its body. A suspended loop resumes its body
+     * without evaluating its condition again.
+     */
+    private static final int SUSPENDED = 1;
 
-			return bodyIterator.next();
-		}
-	};
+    /**
+     * The resume point of a loop that was suspended while executing the compiled form of its body, which it resumes
+     * in that form.
+     */
+    private static final int SUSPENDED_COMPILED = 2;
 
+	/**
+	 * Executes this loop. A break statement in the body ends the loop, as does a break statement in the body of a
+	 * function that is called in the loop. The latter still reaches this loop as a BreakException, since function
+	 * calls are expressions and cannot report a completion.
+	 * If the program compiles its hot loops, the iterations of this loop are counted, and once this loop is compiled
+	 * the iterations execute its compiled form instead. Whether an iteration is compiled or interpreted is decided
+	 * at its start, so a profiled program interprets the iterations it starts.
+	 */
 	@Override
-	public void execute() {
-		condition.setStatement(this);
-		while (bodyIterator.hasNext()) {
-			try {
-				bodyIterator.next().execute();
-			} catch (BreakException br) {
-				break;
+	public Completion execute() {
+		Interpreter interpreter = getParent() == null ? null : getParent().getInterpreter();
+		int resumePoint = 0;
+		if (interpreter != null && (resumePoint = interpreter.getResumePoint(this)) != 0)
+			interpreter.setResumePoint(this, 0);
+		boolean resuming = resumePoint != 0;
+		boolean compiled = resumePoint == SUSPENDED_COMPILED;
+		CompiledLoop compiledLoop = compiled ? interpreter.getTieredCompiler().getCompiledLoop(this) : null;
+		Frame frame = compiled ? compiledLoop.getFrame() : null;
+
+		try {
+			while (true) {
+				if (! resuming) {
+					if (getParent() != null && getParent().countInstruction())
+						// suspended before the condition is evaluated, which happens again when the loop resumes
+						return Completion.SUSPEND;
+					if (compiledLoop == null)
+						compiledLoop = countIteration(interpreter);
+					compiled = compiledLoop != null && getParent().getProfiler() == null;
+					if (compiled && frame == null)
+						frame = compiledLoop.getFrame();
+					if (compiled ? ! compiledLoop.evaluateCondition(frame)
+							: condition != null && ! condition.evalBoolean())
+						break;
+				}
+				resuming = false;
+				Completion completion = compiled ? compiledLoop.executeBody(frame) : body.run();
+				if (completion == Completion.BREAK)
+					break;
+				if (completion != Completion.NORMAL) {
+					if (completion == Completion.SUSPEND && interpreter != null)
+						interpreter.setResumePoint(this, compiled ? SUSPENDED_COMPILED : SUSPENDED);
+					if (compiled && completion == Completion.RETURN && isInFunction())
+						((Function) getParent()).setReturnValue(compiledLoop.getReturnValue(frame));
+					return completion;
+				}
 			}
+		} catch (BreakException br) {
+			// the loop ends
 		}
+		return Completion.NORMAL;
+	}
+
+	/**
+	 * Counts an iteration of this loop with the compiler of the given interpreter, which compiles this loop if the
+	 * count reaches its threshold.
+	 *
+	 * @return	The compiled form of this loop, null if it has not been compiled.
+	 */
+	private CompiledLoop countIteration(Interpreter interpreter) {
+		TieredCompiler tieredCompiler = interpreter == null ? null : interpreter.getTieredCompiler();
+		if (tieredCompiler == null || getParent().getProfiler() != null)
+			return null;
+		return tieredCompiler.countIteration(this, getParent() instanceof Function ? (Function) getParent() : null);
 	}
 
 	@Override
@@ -78,6 +155,6 @@ public class While<T extends Parent<T>> extends Statement<T> {
 
 	@Override
 	public Statement<T> clone() throws CloneNotSupportedException {
-		return new While<>(condition.clone(), body.clone());
+		return new While<>(condition == null ? null : condition.clone(), body.clone());
 	}
 }
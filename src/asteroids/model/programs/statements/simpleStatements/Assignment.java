@@ -2,8 +2,12 @@ package asteroids.model.programs.statements.simpleStatements;
 
 import asteroids.model.programs.Parent;
 import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.statements.Completion;
 import asteroids.model.programs.statements.Statement;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by Bo on 28/04/2017.
  */
@@ -16,6 +20,38 @@ public class Assignment<T extends Parent<T>> extends Statement<T> {
 
     private String name;
 
+    public String getName() {
+        return name;
+    }
+
+    private int slot = -1;
+
+    /**
+     * Returns the slot of the assigned variable, as resolved by a VariableResolver. The slot is -1 if the assigned
+     * variable has the name of a function.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    private boolean verified = false;
+
+    /**
+     * Returns whether a TypeChecker verified that the assigned variable is only ever assigned doubles, or only ever
+     * assigned booleans, so the class of the assigned value need not be checked.
+     */
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public void setVerified(boolean verified) {
+        this.verified = verified;
+    }
+
     private Expression value;
 
     public Expression getValue() {
@@ -23,10 +59,17 @@ public class Assignment<T extends Parent<T>> extends Statement<T> {
     }
 
     @Override
-    public void execute() {
-        value.setStatement(this);
-    	getParent().addVariable(name, value.getValue());
-//        getParent().addVariable(name, value);
+    public List<Expression<?>> getExpressions() {
+        return Collections.singletonList(value);
+    }
+
+    @Override
+    public Completion execute() {
+        if (verified)
+            getParent().storeVariable(slot, value.getValue());
+        else
+            getParent().addVariable(name, slot, value.getValue());
+        return Completion.NORMAL;
     }
 
     @Override
@@ -36,6 +79,9 @@ public class Assignment<T extends Parent<T>> extends Statement<T> {
 
     @Override
     public Statement<T> clone() throws CloneNotSupportedException {
-        return new Assignment<>(name, value.clone());
+        Assignment<T> clone = new Assignment<>(name, value.clone());
+        clone.setSlot(slot);
+        clone.setVerified(verified);
+        return clone;
     }
 }
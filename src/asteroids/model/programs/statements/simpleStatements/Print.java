@@ -2,8 +2,12 @@ package asteroids.model.programs.statements.simpleStatements;
 
 import asteroids.model.programs.Parent;
 import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.statements.Completion;
 import asteroids.model.programs.statements.Statement;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by Bo on 28/04/2017.
  */
@@ -15,11 +19,19 @@ public class Print<T extends Parent<T>> extends Statement<T> {
 
     private Expression expression;
 
+    public Expression<?> getExpression() {
+        return expression;
+    }
+
+    @Override
+    public List<Expression<?>> getExpressions() {
+        return Collections.singletonList(expression);
+    }
+
     @Override
-    public void execute() {
-        expression.setStatement(this);
+    public Completion execute() {
         getParent().addPrintedObject(expression.getValue());
-        System.out.println(expression.toString());
+        return Completion.NORMAL;
     }
 
     @Override
@@ -1,24 +1,63 @@
 package asteroids.model.programs.statements.simpleStatements;
 
 import asteroids.model.programs.expressions.Expression;
-import asteroids.model.programs.function.CalledFunction;
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Completion;
 import asteroids.model.programs.statements.Statement;
-import asteroids.model.util.exceptions.ReturnException;
+
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Created by Bo on 28/04/2017.
  */
-public class Return extends Statement<CalledFunction> {
+public class Return extends Statement<Function> {
 
     public Return(Expression value) {
         this.value = value;
     }
     private Expression value;
 
+    public Expression<?> getValue() {
+        return value;
+    }
+
+    @Override
+    public List<Expression<?>> getExpressions() {
+        return Collections.singletonList(value);
+    }
+
+    private boolean tailCall = false;
+
+    /**
+     * Returns whether this statement is a tail call, as determined by a TailCallAnalyzer. A tail call does not call
+     * its function itself, the function that executes it calls that function in its place.
+     */
+    public boolean isTailCall() {
+        return tailCall;
+    }
+
+    public void setTailCall(boolean tailCall) {
+        this.tailCall = tailCall;
+    }
+
+    /**
+     * Executes this statement. A return statement of the main statement still evaluates its value, but has no
+     * function to return it from: the main statement completes with it, which its program reports.
+     */
     @Override
-    public void execute() {
-        value.setStatement(this);
-		throw new ReturnException(value);
+    public Completion execute() {
+        if (tailCall) {
+            FunctionCall call = (FunctionCall) value;
+            Function function = call.getFunction();
+            getParent().setTailCall(function, call.evaluateArguments());
+        }
+        else if (isInFunction())
+            getParent().setReturnValue(value.getValue());
+        else
+            value.getValue();
+        return Completion.RETURN;
     }
 
     @Override
@@ -27,12 +66,12 @@ public class Return extends Statement<CalledFunction> {
     }
 
     @Override
-    public void setParent(CalledFunction parent) {
+    public void setParent(Function parent) {
         super.setParent(parent);
     }
 
     @Override
-    public Statement<CalledFunction> clone() throws CloneNotSupportedException {
+    public Statement<Function> clone() throws CloneNotSupportedException {
         return new Return(value.clone());
     }
 }
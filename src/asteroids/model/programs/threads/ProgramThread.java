@@ -0,0 +1,192 @@
+package asteroids.model.programs.threads;
+
+import asteroids.model.programs.statements.Completion;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A class of threads on which the main statement of a program is executed as straight-line code. Instead of being
+ * suspended, the main statement parks its thread when it has to wait for time or for a new instruction budget, and
+ * continues where it parked when the program is executed again.
+ * The thread of a program and the threads that execute the program take turns, only one of them runs at a time. A
+ * thread that executes the program resumes the thread of the program and then awaits it, until the thread of the
+ * program suspends itself or completes the main statement.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramThread {
+
+    /**
+     * A factory of daemon threads, which do not keep the virtual machine alive while their programs wait. A factory
+     * of virtual threads can be used instead on virtual machines that support them.
+     */
+    public static final ThreadFactory DAEMON_THREADS = runnable -> {
+        Thread thread = new Thread(runnable, "program");
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    /**
+     * Creates a new program thread that executes the given main statement on a thread created by the given factory.
+     * The thread is started the first time it is resumed.
+     *
+     * @param factory   The factory to create the thread with.
+     * @param main      Executes the main statement, and returns how it completed.
+     */
+    public ProgramThread(ThreadFactory factory, Supplier<Completion> main) {
+        this.thread = factory.newThread(() -> {
+            try {
+                if (! stopped)
+                    completion = main.get();
+            } catch (Stop stop) {
+                // the program was stopped while its thread was suspended
+            } catch (Throwable exc) {
+                failure = exc;
+            } finally {
+                finished = true;
+                running = false;
+                LockSupport.unpark(awaiting);
+            }
+        });
+    }
+
+    private final Thread thread;
+
+    /**
+     * Whether it is the turn of the thread of the program. The other fields are written before this field is written
+     * by the thread that hands over the turn, and read after this field is read by the thread that takes it.
+     */
+    private volatile boolean running = false;
+
+    private volatile Thread awaiting;
+
+    private volatile boolean stopped = false;
+
+    private boolean started = false;
+
+    private boolean finished = false;
+
+    private Completion completion = Completion.NORMAL;
+
+    private Throwable failure;
+
+    /**
+     * Returns whether the main statement completed, or the program was stopped.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Returns whether the calling thread is the thread of the program.
+     */
+    public boolean isCurrent() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Lets the thread of the program continue executing the main statement, without waiting for it. The calling
+     * thread must await the thread of the program before it resumes it again.
+     *
+     * @throws  IllegalStateException
+     *          | isFinished()
+     */
+    public void resume() throws IllegalStateException {
+        if (finished)
+            throw new IllegalStateException("The main statement of the program has completed.");
+
+        awaiting = Thread.currentThread();
+        running = true;
+        if (! started) {
+            started = true;
+            thread.start();
+        }
+        else
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * Waits until the thread of the program suspends itself or completes the main statement.
+     *
+     * @return  SUSPEND if the thread of the program suspended itself, how the main statement completed otherwise.
+     * @throws  RuntimeException
+     *          The main statement threw this exception.
+     * @throws  Error
+     *          The main statement threw this error.
+     */
+    public Completion await() throws RuntimeException, Error {
+        parkUntil(() -> ! running);
+        if (! finished)
+            return Completion.SUSPEND;
+
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        return completion;
+    }
+
+    /**
+     * Hands the turn back to the thread that awaits the thread of the program, and waits until the thread of the
+     * program is resumed or stopped. Must be invoked on the thread of the program.
+     */
+    public void suspend() {
+        if (stopped)
+            throw new Stop();
+        running = false;
+        LockSupport.unpark(awaiting);
+        parkUntil(() -> running || stopped);
+        if (stopped)
+            throw new Stop();
+    }
+
+    /**
+     * Stops the thread of the program, and waits until it has ended. The main statement does not continue. A
+     * suspended thread of the program ends right away, a running one when it suspends itself next, which also hands
+     * the turn back to the thread that awaits it. If the thread of the program stops itself, for instance by an
+     * action that terminates its ship, it ends when it suspends itself next.
+     */
+    public void stop() {
+        stopped = true;
+        if (isCurrent())
+            return;
+        if (started && ! finished) {
+            LockSupport.unpark(thread);
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException exc) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+        finished = true;
+    }
+
+    /**
+     * Parks the calling thread until the given condition holds.
+     */
+    private void parkUntil(BooleanSupplier condition) {
+        boolean interrupted = false;
+        while (! condition.getAsBoolean()) {
+            LockSupport.park(this);
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Unwinds the main statement of a stopped program. It is an error, so the statements it passes do not catch it.
+     */
+    private static class Stop extends Error {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,67 @@
+package asteroids.model.programs.types;
+
+/**
+ * An enumeration of the types a TypeChecker infers for the expressions and variables of a program.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public enum Type {
+
+    DOUBLE("a double"),
+
+    BOOLEAN("a boolean"),
+
+    /**
+     * The type of entities. An expression of this type may also evaluate to null, since an entity query evaluates to
+     * null if no entity matches it.
+     */
+    ENTITY("an entity"),
+
+    /**
+     * The type of the null literal.
+     */
+    NULL("null"),
+
+    /**
+     * The type of expressions whose values may be of several of the other types, such as the parameters of functions.
+     */
+    UNKNOWN("a value of unknown type");
+
+    Type(String description) {
+        this.description = description;
+    }
+
+    private final String description;
+
+    /**
+     * Returns the most precise type of the values that are of this type or of the given type. A type of null stands
+     * for the type of no values at all.
+     *
+     * @param   other
+     *          The type to join this type with.
+     * @return  | if (other == null || other == this) then result == this
+     *          | else if (this == NULL && other == ENTITY || this == ENTITY && other == NULL) then result == ENTITY
+     *          | else result == UNKNOWN
+     */
+    public Type join(Type other) {
+        if (other == null || other == this)
+            return this;
+        if ((this == NULL && other == ENTITY) || (this == ENTITY && other == NULL))
+            return ENTITY;
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns whether the values of this type are certainly not of the given type.
+     *
+     * @return  | result == (this != UNKNOWN && other != UNKNOWN && join(other) != other)
+     */
+    public boolean excludes(Type other) {
+        return this != UNKNOWN && other != UNKNOWN && join(other) != other;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
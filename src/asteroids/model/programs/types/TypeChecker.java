@@ -0,0 +1,240 @@
+package asteroids.model.programs.types;
+
+import asteroids.model.Program;
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.expressions.ReadVariableExpression;
+import asteroids.model.programs.expressions.binaryExpressions.BinaryExpression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.BinaryArithmeticExpression;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.CompareExpression;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.LessThan;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
+import asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions.EntityCharacteristicExpression;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.UnaryArithmeticExpression;
+import asteroids.model.programs.expressions.unaryExpressions.logicalExpressions.Not;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.parser.ParseError;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.actionStatements.Turn;
+import asteroids.model.programs.statements.composedStatements.If;
+import asteroids.model.programs.statements.composedStatements.While;
+import asteroids.model.programs.statements.simpleStatements.Assignment;
+import asteroids.model.programs.statements.simpleStatements.Return;
+import asteroids.model.util.exceptions.IllTypedProgramException;
+
+import java.util.*;
+
+/**
+ * A class of analyses that infer the types of the expressions and variables of a program, and reject programs in
+ * which an operation is certainly applied to a value of the wrong type. The variables of the program must have been
+ * resolved by a VariableResolver.
+ * The type of a variable is the join of the types of all values assigned to it, wherever they are assigned, and the
+ * type of a function is the join of the types of all values it returns. The parameters of functions are of unknown
+ * type. A program is ill-typed if an operand, a condition or an angle is certainly of the wrong type, or if a
+ * variable is assigned values of two different types among doubles, booleans and entities.
+ * Every assignment to a variable of which all values are doubles, or of which all values are booleans, is marked as
+ * verified, so its value need not be checked when the program is executed.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class TypeChecker {
+
+    /**
+     * Infers the types of the given program and marks its verified assignments.
+     *
+     * @param functions The function definitions of a program.
+     * @param main      The main statement of the program.
+     * @param nbGlobals The number of global variables of the program.
+     *
+     * @throws  IllTypedProgramException
+     *          The program is ill-typed.
+     */
+    public static void check(List<Function> functions, Statement<Program> main, int nbGlobals)
+            throws IllTypedProgramException {
+        TypeChecker checker = new TypeChecker(functions, nbGlobals);
+
+        do {
+            checker.changed = false;
+            for (Function function : functions)
+                checker.infer(function, function.getBody());
+            checker.infer(null, main);
+        } while (checker.changed);
+
+        for (Function function : functions)
+            checker.verify(function, function.getBody());
+        checker.verify(null, main);
+
+        if (! checker.errors.isEmpty())
+            throw new IllTypedProgramException(checker.errors);
+    }
+
+    private TypeChecker(List<Function> functions, int nbGlobals) {
+        globalTypes = new Type[nbGlobals];
+        firstGlobalTypes = new Type[nbGlobals];
+        for (Function function : functions) {
+            localTypes.put(function, new Type[function.getNbLocalVariables()]);
+            firstLocalTypes.put(function, new Type[function.getNbLocalVariables()]);
+            functionsByName.put(function.getFunctionName(), function);
+        }
+    }
+
+    /**
+     * The types of the variables and of the results of the functions, null for variables that are never assigned and
+     * functions that never return.
+     */
+    private final Type[] globalTypes;
+
+    private final Map<Function, Type[]> localTypes = new HashMap<>();
+
+    private final Map<Function, Type> resultTypes = new HashMap<>();
+
+    private final Map<String, Function> functionsByName = new HashMap<>();
+
+    private boolean changed;
+
+    /**
+     * The type of the first assignment to each variable that assigns a double, a boolean or an entity, in the order
+     * in which the assignments are verified.
+     */
+    private final Type[] firstGlobalTypes;
+
+    private final Map<Function, Type[]> firstLocalTypes = new HashMap<>();
+
+    private final List<ParseError> errors = new ArrayList<>();
+
+    private Type[] getVariableTypes(Function function) {
+        return function == null ? globalTypes : localTypes.get(function);
+    }
+
+    /**
+     * Joins the types of the variables and the result of the given function, null for the main statement, with the
+     * types of the values the given statement assigns and returns.
+     */
+    private void infer(Function function, Statement<?> statement) {
+        if (statement instanceof Assignment) {
+            Assignment<?> assignment = (Assignment<?>) statement;
+            if (assignment.getSlot() >= 0) {
+                Type[] types = getVariableTypes(function);
+                Type type = join(types[assignment.getSlot()], typeOf(function, assignment.getValue()));
+                changed |= type != types[assignment.getSlot()];
+                types[assignment.getSlot()] = type;
+            }
+        }
+        else if (statement instanceof Return && function != null) {
+            Type type = join(resultTypes.get(function), typeOf(function, ((Return) statement).getValue()));
+            changed |= type != resultTypes.get(function);
+            resultTypes.put(function, type);
+        }
+
+        for (Statement<?> subStatement : statement.getSubStatements())
+            infer(function, subStatement);
+    }
+
+    private static Type join(Type type, Type other) {
+        return type == null ? other : type.join(other);
+    }
+
+    /**
+     * Returns the type of the given expression in the given function, null for the main statement. The type is null
+     * if the expression never evaluates to a value.
+     */
+    private Type typeOf(Function function, Expression<?> expression) {
+        if (expression instanceof ValueExpression) {
+            Object value = expression.getValue();
+            return value == null ? Type.NULL : value instanceof Double ? Type.DOUBLE
+                    : value instanceof Boolean ? Type.BOOLEAN : Type.ENTITY;
+        }
+        if (expression instanceof BinaryArithmeticExpression || expression instanceof UnaryArithmeticExpression
+                || expression instanceof EntityCharacteristicExpression)
+            return Type.DOUBLE;
+        if (expression instanceof CompareExpression || expression instanceof Not)
+            return Type.BOOLEAN;
+        if (expression instanceof EntityExpression)
+            return Type.ENTITY;
+        if (expression instanceof ReadVariableExpression) {
+            ReadVariableExpression variable = (ReadVariableExpression) expression;
+            Type type = null;
+            if (function != null && variable.getSlot() >= 0)
+                type = localTypes.get(function)[variable.getSlot()];
+            if (variable.getGlobalSlot() >= 0)
+                type = join(type, globalTypes[variable.getGlobalSlot()]);
+            return type;
+        }
+        if (expression instanceof FunctionCall) {
+            Function callee = functionsByName.get(((FunctionCall) expression).getFunctionName());
+            return callee == null ? Type.UNKNOWN : resultTypes.get(callee);
+        }
+        return Type.UNKNOWN;
+    }
+
+    /**
+     * Reports the type errors of the given statement of the given function, null for the main statement, and marks
+     * the assignments of the statement that are verified.
+     */
+    private void verify(Function function, Statement<?> statement) {
+        if (statement instanceof Assignment) {
+            Assignment<?> assignment = (Assignment<?>) statement;
+            int slot = assignment.getSlot();
+            if (slot >= 0) {
+                Type type = typeOf(function, assignment.getValue());
+                Type[] firstTypes = function == null ? firstGlobalTypes : firstLocalTypes.get(function);
+                if (type == Type.DOUBLE || type == Type.BOOLEAN || type == Type.ENTITY) {
+                    if (firstTypes[slot] == null)
+                        firstTypes[slot] = type;
+                    else if (firstTypes[slot] != type)
+                        report(statement, "Variable " + assignment.getName() + " is assigned " + type
+                                + " but was assigned " + firstTypes[slot] + " before.");
+                }
+
+                Type variableType = getVariableTypes(function)[slot];
+                assignment.setVerified(variableType == Type.DOUBLE || variableType == Type.BOOLEAN);
+            }
+        }
+        else if (statement instanceof If)
+            expect(function, ((If<?>) statement).getCondition(), Type.BOOLEAN, "The condition");
+        else if (statement instanceof While && ! ((While<?>) statement).isUnconditional())
+            expect(function, ((While<?>) statement).getCondition(), Type.BOOLEAN, "The condition");
+        else if (statement instanceof Turn)
+            expect(function, ((Turn) statement).getAngleExpression(), Type.DOUBLE, "The angle");
+
+        for (Expression<?> expression : statement.getExpressions())
+            verify(function, expression);
+        for (Statement<?> subStatement : statement.getSubStatements())
+            verify(function, subStatement);
+    }
+
+    private void verify(Function function, Expression<?> expression) {
+        if (expression instanceof BinaryArithmeticExpression || expression instanceof LessThan) {
+            expect(function, ((BinaryExpression<?, ?>) expression).getLeftOperand(), Type.DOUBLE, "The left operand");
+            expect(function, ((BinaryExpression<?, ?>) expression).getRightOperand(), Type.DOUBLE, "The right operand");
+        }
+        else if (expression instanceof UnaryArithmeticExpression)
+            expect(function, ((UnaryArithmeticExpression) expression).getOperand(), Type.DOUBLE, "The operand");
+        else if (expression instanceof Not)
+            expect(function, ((Not) expression).getOperand(), Type.BOOLEAN, "The operand");
+        else if (expression instanceof EntityCharacteristicExpression)
+            expect(function, ((EntityCharacteristicExpression) expression).getEntity(), Type.ENTITY, "The operand");
+
+        for (Expression<?> subExpression : expression.getSubExpressions())
+            verify(function, subExpression);
+    }
+
+    /**
+     * Reports an error if the given expression is certainly not of the given type.
+     */
+    private void expect(Function function, Expression<?> expression, Type expected, String role) {
+        Type type = typeOf(function, expression);
+        if (type != null && type.excludes(expected))
+            report(expression, role + " is " + type + " but must be " + expected + ".");
+    }
+
+    private void report(Statement<?> statement, String message) {
+        errors.add(new ParseError(statement.getSourceLocation(), message));
+    }
+
+    private void report(Expression<?> expression, String message) {
+        errors.add(new ParseError(expression.getSourceLocation() != null ? expression.getSourceLocation()
+                : expression.getStatement() == null ? null : expression.getStatement().getSourceLocation(), message));
+    }
+}
@@ -0,0 +1,95 @@
+package asteroids.model.programs.vm;
+
+/**
+ * The opcodes of the instructions of a VmProgram. An instruction is stored as its opcode followed by its operands,
+ * the operands of every instruction are listed next to its opcode.
+ * Names and other objects an instruction refers to are stored in the constants of the program, an operand then holds
+ * the index of the constant.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+final class Opcodes {
+
+    private Opcodes() {
+    }
+
+    /** Pushes a constant. Operands: constant. */
+    static final int CONSTANT = 0;
+
+    /** Pushes a global variable. Operands: slot (-1 if never assigned), name. */
+    static final int LOAD_GLOBAL = 1;
+
+    /** Pushes a local variable, or the global variable if it has not been assigned. Operands: slot, global slot, name. */
+    static final int LOAD_LOCAL = 2;
+
+    /** Pops a value into a global variable. Operands: slot (-1 for the name of a function), name. */
+    static final int STORE_GLOBAL = 3;
+
+    /** Pops a value into a local variable. Operands: slot, name. */
+    static final int STORE_LOCAL = 4;
+
+    /** Pushes an argument of the current call. Operands: index, name. */
+    static final int LOAD_PARAMETER = 5;
+
+    static final int ADD = 6;
+    static final int MULTIPLY = 7;
+    static final int NEGATE = 8;
+    static final int SQRT = 9;
+    static final int LESS_THAN = 10;
+    static final int EQUAL = 11;
+    static final int NOT = 12;
+
+    /** Pushes the entity an entity expression refers to. Operands: expression. */
+    static final int ENTITY = 13;
+
+    /** Replaces an entity by a characteristic of it. Operands: characteristic expression. */
+    static final int CHARACTERISTIC = 14;
+
+    /** Operands: target. */
+    static final int JUMP = 15;
+
+    /** Pops a boolean and jumps if it is false. Operands: target. */
+    static final int JUMP_IF_FALSE = 16;
+
+    static final int PRINT = 17;
+
+    /** Calls a function with the arguments on top of the stack. Operands: function, number of arguments, target of
+     *  a break statement that ends the call (-1 if the call is not in a while loop). */
+    static final int CALL = 18;
+
+    /** Fails a call of a function that does not exist. Operands: name. */
+    static final int UNDEFINED_FUNCTION = 19;
+
+    static final int RETURN = 20;
+
+    /** A break statement outside of a while loop. */
+    static final int BREAK = 21;
+
+    /** Fails a call that completed without a return statement. Operands: name of the function. */
+    static final int NO_RETURN = 22;
+
+    /** Consumes the execution time of an action, or suspends the program at this instruction. */
+    static final int CONSUME_TIME = 23;
+
+    static final int TURN = 24;
+    static final int THRUST_ON = 25;
+    static final int THRUST_OFF = 26;
+    static final int FIRE = 27;
+
+    static final int HALT = 28;
+
+    static final int SUBTRACT = 29;
+
+    /** Counts an iteration of a while loop, or suspends the program at this instruction if it is out of budget. */
+    static final int METER = 30;
+
+    /** Replaces the current call by a call of a function with the arguments on top of the stack, followed by a
+     *  RETURN that returns a cached result. Operands: function, number of arguments. */
+    static final int TAIL_CALL = 31;
+
+    /** Pops a value into a global variable without checking it, for a verified assignment. Operands: slot. */
+    static final int STORE_GLOBAL_VERIFIED = 32;
+
+    /** Pops a value into a local variable without checking it, for a verified assignment. Operands: slot. */
+    static final int STORE_LOCAL_VERIFIED = 33;
+}
@@ -0,0 +1,328 @@
+package asteroids.model.programs.vm;
+
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.FunctionCall;
+import asteroids.model.programs.expressions.ReadParameter;
+import asteroids.model.programs.expressions.ReadVariableExpression;
+import asteroids.model.programs.expressions.binaryExpressions.BinaryExpression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Addition;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Multiplication;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Subtraction;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.Equal;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.LessThan;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
+import asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions.EntityCharacteristicExpression;
+import asteroids.model.programs.expressions.unaryExpressions.UnaryExpression;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Negate;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Sqrt;
+import asteroids.model.programs.expressions.unaryExpressions.logicalExpressions.Not;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.function.Purity;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.actionStatements.*;
+import asteroids.model.programs.statements.composedStatements.If;
+import asteroids.model.programs.statements.composedStatements.Sequence;
+import asteroids.model.programs.statements.composedStatements.While;
+import asteroids.model.programs.statements.simpleStatements.*;
+
+import java.util.*;
+
+import static asteroids.model.programs.vm.Opcodes.*;
+
+/**
+ * A class of assemblers that flatten the statement and expression trees built by a ProgramFactory into the linear
+ * instructions of a VmProgram. Composed statements become jumps, expressions are evaluated on an operand stack.
+ * The code of the main statement comes first and ends with a HALT instruction, the code of every function follows.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class ProgramAssembler {
+
+    /**
+     * Assembles the program with the given functions and main statement. The variables of the program must have
+     * been resolved by a VariableResolver.
+     *
+     * @param functions The function definitions of the program.
+     * @param main      The main statement of the program.
+     *
+     * @throws  UnsupportedOperationException
+     *          The program contains a statement or expression this assembler does not know.
+     */
+    public static VmProgram assemble(List<Function> functions, Statement<?> main) throws UnsupportedOperationException {
+        ProgramAssembler assembler = new ProgramAssembler(functions);
+
+        assembler.assemblingMain = true;
+        assembler.assembleStatement(main);
+        assembler.emit(HALT, 0);
+        int mainMaxDepth = assembler.maxDepth;
+
+        String[] names = new String[functions.size()];
+        Purity[] purities = new Purity[functions.size()];
+        int[] entries = new int[functions.size()];
+        int[] nbLocals = new int[functions.size()];
+        int[] maxDepths = new int[functions.size()];
+        for (int i = 0; i < functions.size(); i++) {
+            Function function = functions.get(i);
+            assembler.assemblingMain = false;
+            assembler.depth = assembler.maxDepth = 0;
+
+            names[i] = function.getFunctionName();
+            purities[i] = function.getPurity();
+            entries[i] = assembler.size;
+            nbLocals[i] = function.getNbLocalVariables();
+            assembler.assembleStatement(function.getBody());
+            assembler.emit(NO_RETURN, 0, assembler.constant(function.getFunctionName()));
+            maxDepths[i] = assembler.maxDepth;
+        }
+
+        return new VmProgram(Arrays.copyOf(assembler.code, assembler.size), assembler.constants.toArray(),
+                mainMaxDepth, names, purities, entries, nbLocals, maxDepths);
+    }
+
+    private ProgramAssembler(List<Function> functions) {
+        for (int i = 0; i < functions.size(); i++)
+            functionIndices.put(functions.get(i).getFunctionName(), i);
+    }
+
+    private final Map<String, Integer> functionIndices = new HashMap<>();
+
+    private final List<Object> constants = new ArrayList<>();
+
+    private int[] code = new int[64];
+
+    private int size = 0;
+
+    private boolean assemblingMain;
+
+    /**
+     * The depth of the operand stack after the instructions emitted so far, and the largest depth it reached in the
+     * code of the main statement or the function that is being assembled.
+     */
+    private int depth, maxDepth;
+
+    /**
+     * For every while loop that is being assembled, the innermost last, the positions of the operands that must be
+     * set to the end of the loop. These are the targets of break statements and of calls in the loop.
+     */
+    private final Deque<List<Integer>> loops = new ArrayDeque<>();
+
+    private int constant(Object value) {
+        constants.add(value);
+        return constants.size() - 1;
+    }
+
+    /**
+     * Appends an instruction with the given opcode and operands, which changes the depth of the operand stack by the
+     * given amount.
+     */
+    private void emit(int opcode, int stackEffect, int... operands) {
+        if (size + 1 + operands.length > code.length)
+            code = Arrays.copyOf(code, Math.max(2 * code.length, size + 1 + operands.length));
+
+        code[size++] = opcode;
+        for (int operand : operands)
+            code[size++] = operand;
+
+        depth += stackEffect;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * Appends a jump with the given opcode whose target is set later, and returns the position of its target.
+     */
+    private int emitJump(int opcode, int stackEffect) {
+        emit(opcode, stackEffect, -1);
+        return size - 1;
+    }
+
+    private void assembleStatement(Statement<?> statement) throws UnsupportedOperationException {
+        if (statement instanceof Sequence) {
+            for (Statement<?> subStatement : ((Sequence<?>) statement).getStatements())
+                assembleStatement(subStatement);
+        }
+        else if (statement instanceof Assignment)
+            assembleAssignment((Assignment<?>) statement);
+        else if (statement instanceof While)
+            assembleWhile((While<?>) statement);
+        else if (statement instanceof If)
+            assembleIf((If<?>) statement);
+        else if (statement instanceof Print) {
+            assembleExpression(((Print<?>) statement).getExpression());
+            emit(PRINT, -1);
+        }
+        else if (statement instanceof Return) {
+            Return returnStatement = (Return) statement;
+            if (returnStatement.isTailCall() && functionIndices.containsKey(
+                    ((FunctionCall) returnStatement.getValue()).getFunctionName()))
+                assembleTailCall((FunctionCall) returnStatement.getValue());
+            else
+                assembleExpression(returnStatement.getValue());
+            emit(RETURN, -1);
+        }
+        else if (statement instanceof Break) {
+            if (loops.isEmpty())
+                emit(BREAK, 0);
+            else
+                loops.peek().add(emitJump(JUMP, 0));
+        }
+        else if (statement instanceof Turn) {
+            emit(CONSUME_TIME, 0);
+            assembleExpression(((Turn) statement).getAngleExpression());
+            emit(TURN, -1);
+        }
+        else if (statement instanceof EnableThruster) {
+            emit(CONSUME_TIME, 0);
+            emit(THRUST_ON, 0);
+        }
+        else if (statement instanceof DisableThruster) {
+            emit(CONSUME_TIME, 0);
+            emit(THRUST_OFF, 0);
+        }
+        else if (statement instanceof FireBullet) {
+            emit(CONSUME_TIME, 0);
+            emit(FIRE, 0);
+        }
+        else if (statement instanceof Skip)
+            emit(CONSUME_TIME, 0);
+        else
+            throw new UnsupportedOperationException("Cannot assemble " + statement.getClass().getSimpleName());
+    }
+
+    private void assembleAssignment(Assignment<?> assignment) {
+        assembleExpression(assignment.getValue());
+        if (assignment.isVerified()) {
+            emit(assemblingMain ? STORE_GLOBAL_VERIFIED : STORE_LOCAL_VERIFIED, -1, assignment.getSlot());
+            return;
+        }
+        int name = constant(assignment.getName());
+
+        if (assemblingMain)
+            emit(STORE_GLOBAL, -1, assignment.getSlot(), name);
+        else
+            emit(STORE_LOCAL, -1, assignment.getSlot(), name);
+    }
+
+    /**
+     * Assembles the given loop. A break statement in the loop, or in a function called in the loop, jumps to the
+     * end of the loop.
+     */
+    private void assembleWhile(While<?> loop) {
+        List<Integer> breaks = new ArrayList<>();
+        loops.push(breaks);
+
+        int start = size;
+        emit(METER, 0);
+        if (! loop.isUnconditional()) {
+            assembleExpression(loop.getCondition());
+            breaks.add(emitJump(JUMP_IF_FALSE, -1));
+        }
+        assembleStatement(loop.getBody());
+        emit(JUMP, 0, start);
+
+        loops.pop();
+        for (int target : breaks)
+            code[target] = size;
+    }
+
+    private void assembleIf(If<?> statement) {
+        assembleExpression(statement.getCondition());
+        int elseTarget = emitJump(JUMP_IF_FALSE, -1);
+        assembleStatement(statement.getIfBody());
+
+        if (statement.getElseBody() == null) {
+            code[elseTarget] = size;
+        } else {
+            int endTarget = emitJump(JUMP, 0);
+            code[elseTarget] = size;
+            assembleStatement(statement.getElseBody());
+            code[endTarget] = size;
+        }
+    }
+
+    private void assembleExpression(Expression<?> expression) throws UnsupportedOperationException {
+        if (expression instanceof ValueExpression)
+            // every literal is a constant of its own, so it evaluates to the same object as its ValueExpression
+            emit(CONSTANT, 1, constant(expression.getValue()));
+        else if (expression instanceof ReadVariableExpression)
+            assembleReadVariable((ReadVariableExpression) expression);
+        else if (expression instanceof ReadParameter) {
+            ReadParameter parameter = (ReadParameter) expression;
+            emit(LOAD_PARAMETER, 1, parameter.getIndex(), constant(parameter.getParamName()));
+        }
+        else if (expression instanceof FunctionCall)
+            assembleFunctionCall((FunctionCall) expression);
+        else if (expression instanceof Addition)
+            assembleBinary((BinaryExpression) expression, ADD);
+        else if (expression instanceof Subtraction)
+            assembleBinary((BinaryExpression) expression, SUBTRACT);
+        else if (expression instanceof Multiplication)
+            assembleBinary((BinaryExpression) expression, MULTIPLY);
+        else if (expression instanceof LessThan)
+            assembleBinary((BinaryExpression) expression, LESS_THAN);
+        else if (expression instanceof Equal)
+            assembleBinary((BinaryExpression) expression, EQUAL);
+        else if (expression instanceof Negate)
+            assembleUnary((UnaryExpression) expression, NEGATE);
+        else if (expression instanceof Sqrt)
+            assembleUnary((UnaryExpression) expression, SQRT);
+        else if (expression instanceof Not)
+            assembleUnary((UnaryExpression) expression, NOT);
+        else if (expression instanceof EntityCharacteristicExpression) {
+            EntityCharacteristicExpression characteristic = (EntityCharacteristicExpression) expression;
+            assembleExpression(characteristic.getEntity());
+            emit(CHARACTERISTIC, 0, constant(characteristic));
+        }
+        else if (expression instanceof EntityExpression)
+            emit(ENTITY, 1, constant(expression));
+        else
+            throw new UnsupportedOperationException("Cannot assemble " + expression.getClass().getSimpleName());
+    }
+
+    private void assembleBinary(BinaryExpression<?, ?> expression, int opcode) {
+        assembleExpression(expression.getLeftOperand());
+        assembleExpression(expression.getRightOperand());
+        emit(opcode, -1);
+    }
+
+    private void assembleUnary(UnaryExpression<?> expression, int opcode) {
+        assembleExpression(expression.getOperand());
+        emit(opcode, 0);
+    }
+
+    private void assembleReadVariable(ReadVariableExpression variable) {
+        int name = constant(variable.getName());
+
+        if (assemblingMain || variable.getSlot() < 0)
+            emit(LOAD_GLOBAL, 1, variable.getGlobalSlot(), name);
+        else
+            emit(LOAD_LOCAL, 1, variable.getSlot(), variable.getGlobalSlot(), name);
+    }
+
+    /**
+     * Assembles a tail call of the given call, which replaces the call in progress unless its result is cached.
+     */
+    private void assembleTailCall(FunctionCall call) {
+        List<Expression<?>> arguments = call.getActualArgs();
+        for (Expression<?> argument : arguments)
+            assembleExpression(argument);
+
+        emit(TAIL_CALL, 1 - arguments.size(), functionIndices.get(call.getFunctionName()), arguments.size());
+    }
+
+    private void assembleFunctionCall(FunctionCall call) {
+        Integer function = functionIndices.get(call.getFunctionName());
+        if (function == null) {
+            emit(UNDEFINED_FUNCTION, 1, constant(call.getFunctionName()));
+            return;
+        }
+
+        List<Expression<?>> arguments = call.getActualArgs();
+        for (Expression<?> argument : arguments)
+            assembleExpression(argument);
+
+        emit(CALL, 1 - arguments.size(), function, arguments.size(), -1);
+        if (! loops.isEmpty())
+            loops.peek().add(size - 1);
+    }
+}
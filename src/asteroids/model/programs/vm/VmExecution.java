@@ -0,0 +1,68 @@
+package asteroids.model.programs.vm;
+
+import asteroids.model.Program;
+import asteroids.model.programs.Execution;
+import asteroids.model.programs.statements.Completion;
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import be.kuleuven.cs.som.annotate.Raw;
+
+/**
+ * A class of executions of assembled instructions, in a state of the program that executes them.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class VmExecution implements Execution {
+
+    /**
+     * Creates a new execution of the given instructions by the given program, from the start.
+     */
+    public VmExecution(VmProgram vmProgram, Program program) {
+        this.vmProgram = vmProgram;
+        this.program = program;
+        this.state = vmProgram.createState(program);
+    }
+
+    private final VmProgram vmProgram;
+
+    /**
+     * Returns the instructions this execution executes.
+     */
+    @Basic @Immutable
+    public VmProgram getVmProgram() {
+        return vmProgram;
+    }
+
+    private final Program program;
+
+    private VmState state;
+
+    /**
+     * Returns the state in which this execution executes its instructions.
+     */
+    @Basic
+    public VmState getState() {
+        return state;
+    }
+
+    /**
+     * Lets this execution continue from the given state.
+     */
+    @Raw
+    public void setState(VmState state) {
+        this.state = state;
+    }
+
+    /**
+     * Returns whether this execution was suspended because it exceeded its instruction budget, rather than because
+     * it ran out of time.
+     */
+    public boolean isSuspendedOnBudget() {
+        return vmProgram.isSuspendedOnBudget(state);
+    }
+
+    @Override
+    public Completion resume() {
+        return vmProgram.execute(program, state);
+    }
+}
@@ -0,0 +1,397 @@
+package asteroids.model.programs.vm;
+
+import asteroids.model.Entity;
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.programs.VariableSlots;
+import asteroids.model.programs.expressions.entityExpressions.EntityExpression;
+import asteroids.model.programs.expressions.entityExpressions.entityCharacteristicExpressions.EntityCharacteristicExpression;
+import asteroids.model.programs.function.FunctionCache;
+import asteroids.model.programs.function.Purity;
+import asteroids.model.programs.statements.Completion;
+import asteroids.model.programs.statements.actionStatements.ActionStatement;
+import asteroids.model.util.exceptions.BreakException;
+import asteroids.model.util.exceptions.CallDepthExceededException;
+
+import java.util.Arrays;
+
+import static asteroids.model.programs.vm.Opcodes.*;
+import static asteroids.model.programs.vm.VmState.FRAME_SIZE;
+
+/**
+ * A class of programs that have been flattened into linear instructions by a ProgramAssembler. The instructions are
+ * executed with an explicit program counter and an operand stack, which also holds the arguments and local variables
+ * of the calls in progress. A suspended execution only has to remember its program counter.
+ * Like the other engines, a VmProgram only holds code, the state of an execution is kept in a VmState.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class VmProgram {
+
+    VmProgram(int[] code, Object[] constants, int mainMaxDepth, String[] functionNames, Purity[] functionPurities,
+              int[] functionEntries, int[] functionNbLocals, int[] functionMaxDepths) {
+        this.code = code;
+        this.constants = constants;
+        this.mainMaxDepth = mainMaxDepth;
+        this.functionNames = functionNames;
+        this.functionPurities = functionPurities;
+        this.functionEntries = functionEntries;
+        this.functionNbLocals = functionNbLocals;
+        this.functionMaxDepths = functionMaxDepths;
+    }
+
+    private final int[] code;
+
+    private final Object[] constants;
+
+    private final int mainMaxDepth;
+
+    private final String[] functionNames;
+
+    private final Purity[] functionPurities;
+
+    private final int[] functionEntries;
+
+    private final int[] functionNbLocals;
+
+    private final int[] functionMaxDepths;
+
+    /**
+     * Returns the number of ints the instructions of this program occupy.
+     */
+    public int getCodeSize() {
+        return code.length;
+    }
+
+    /**
+     * Returns a new state in which the given program can execute this program from the start.
+     *
+     * @param program   The program that executes this program.
+     */
+    public VmState createState(Program program) {
+        return new VmState(program.getNbGlobalVariables());
+    }
+
+    /**
+     * Returns whether an execution in the given state was suspended because it exceeded its instruction budget,
+     * rather than because it ran out of time.
+     */
+    public boolean isSuspendedOnBudget(VmState state) {
+        return code[state.pc] == METER;
+    }
+
+    private static Object[] ensureCapacity(VmState state, int capacity) {
+        if (state.stack.length < capacity)
+            state.stack = Arrays.copyOf(state.stack, Math.max(2 * state.stack.length, capacity));
+        return state.stack;
+    }
+
+    /**
+     * Executes this program for the given program in the given state, until it completes or runs out of time. A
+     * suspended execution is resumed at the action statement that ran out of time.
+     *
+     * @param program   The program whose ship, time and printed objects are used.
+     * @param state     The state to execute in, as created by createState.
+     *
+     * @return  How the execution of the main statement completed.
+     * @throws  BreakException
+     *          A function executed a break statement outside of a while loop and was not called in a while loop.
+     */
+    public Completion execute(Program program, VmState state) throws BreakException {
+        final int[] code = this.code;
+        final Object[] constants = this.constants;
+        final Object[] globals = state.globals;
+        Object[] stack = ensureCapacity(state, mainMaxDepth);
+        int[] frames = state.frames;
+
+        int pc = state.pc;
+        int sp = 0;
+        int depth = 0;
+        int argBase = 0;
+        int nbArgs = 0;
+        int localBase = 0;
+        frames[0] = -1;
+        frames[1] = frames[2] = frames[3] = 0;
+        frames[4] = -1;
+
+        try {
+            while (true) {
+                switch (code[pc]) {
+                    case CONSTANT:
+                        stack[sp++] = constants[code[pc + 1]];
+                        pc += 2;
+                        break;
+                    case LOAD_GLOBAL: {
+                        int slot = code[pc + 1];
+                        stack[sp++] = VariableSlots.read((String) constants[code[pc + 2]],
+                                slot < 0 ? VariableSlots.UNASSIGNED : globals[slot]);
+                        pc += 3;
+                        break;
+                    }
+                    case LOAD_LOCAL: {
+                        Object value = stack[localBase + code[pc + 1]];
+                        if (value == VariableSlots.UNASSIGNED) {
+                            int slot = code[pc + 2];
+                            value = VariableSlots.read((String) constants[code[pc + 3]],
+                                    slot < 0 ? VariableSlots.UNASSIGNED : globals[slot]);
+                        }
+                        stack[sp++] = value;
+                        pc += 4;
+                        break;
+                    }
+                    case STORE_GLOBAL: {
+                        int slot = code[pc + 1];
+                        if (slot < 0)
+                            throw new IllegalArgumentException("function and variables can not hold the same name");
+                        VariableSlots.write((String) constants[code[pc + 2]], globals, slot, stack[--sp]);
+                        pc += 3;
+                        break;
+                    }
+                    case STORE_LOCAL:
+                        VariableSlots.write((String) constants[code[pc + 2]], stack, localBase + code[pc + 1],
+                                stack[--sp]);
+                        pc += 3;
+                        break;
+                    case STORE_GLOBAL_VERIFIED:
+                        globals[code[pc + 1]] = stack[--sp];
+                        pc += 2;
+                        break;
+                    case STORE_LOCAL_VERIFIED:
+                        stack[localBase + code[pc + 1]] = stack[--sp];
+                        pc += 2;
+                        break;
+                    case LOAD_PARAMETER: {
+                        String name = (String) constants[code[pc + 2]];
+                        if (depth == 0)
+                            throw new IllegalStateException("Parameter " + name + " can only be read in a function body.");
+                        int index = code[pc + 1];
+                        if (index < 0 || index >= nbArgs)
+                            throw new IllegalArgumentException("No argument given for parameter " + name + ".");
+                        stack[sp++] = stack[argBase + index];
+                        pc += 3;
+                        break;
+                    }
+                    case ADD: {
+                        double right = (Double) stack[--sp];
+                        stack[sp - 1] = (Double) stack[sp - 1] + right;
+                        pc++;
+                        break;
+                    }
+                    case SUBTRACT: {
+                        double right = (Double) stack[--sp];
+                        stack[sp - 1] = (Double) stack[sp - 1] - right;
+                        pc++;
+                        break;
+                    }
+                    case MULTIPLY: {
+                        double right = (Double) stack[--sp];
+                        stack[sp - 1] = (Double) stack[sp - 1] * right;
+                        pc++;
+                        break;
+                    }
+                    case NEGATE:
+                        stack[sp - 1] = - (Double) stack[sp - 1];
+                        pc++;
+                        break;
+                    case SQRT:
+                        stack[sp - 1] = Math.sqrt((Double) stack[sp - 1]);
+                        pc++;
+                        break;
+                    case LESS_THAN: {
+                        double right = (Double) stack[--sp];
+                        stack[sp - 1] = (Double) stack[sp - 1] < right;
+                        pc++;
+                        break;
+                    }
+                    case EQUAL: {
+                        // Like the interpreter, values are compared by reference.
+                        Object right = stack[--sp];
+                        stack[sp - 1] = stack[sp - 1] == right;
+                        pc++;
+                        break;
+                    }
+                    case NOT:
+                        stack[sp - 1] = ! (Boolean) stack[sp - 1];
+                        pc++;
+                        break;
+                    case ENTITY:
+                        stack[sp++] = program.queryEntity((EntityExpression<?>) constants[code[pc + 1]]);
+                        pc += 2;
+                        break;
+                    case CHARACTERISTIC:
+                        stack[sp - 1] = ((EntityCharacteristicExpression) constants[code[pc + 1]])
+                                .getCharacteristic((Entity) stack[sp - 1]);
+                        pc += 2;
+                        break;
+                    case JUMP:
+                        pc = code[pc + 1];
+                        break;
+                    case JUMP_IF_FALSE:
+                        pc = (Boolean) stack[--sp] ? pc + 2 : code[pc + 1];
+                        break;
+                    case PRINT:
+                        program.addPrintedObject(stack[--sp]);
+                        pc++;
+                        break;
+                    case CALL: {
+                        program.countInstruction();
+                        int function = code[pc + 1];
+                        Object[] call = null;
+                        if (functionPurities[function].isCacheable()) {
+                            call = Arrays.copyOfRange(stack, sp - code[pc + 2], sp);
+                            Object result = program.getFunctionCache().get(functionNames[function], call);
+                            if (result != FunctionCache.MISSING) {
+                                sp -= code[pc + 2];
+                                stack[sp++] = result;
+                                pc += 4;
+                                break;
+                            }
+                        }
+
+                        if (depth >= program.getMaxCallDepth())
+                            throw new CallDepthExceededException(program.getMaxCallDepth());
+
+                        int nbLocals = functionNbLocals[function];
+                        stack = ensureCapacity(state, sp + nbLocals + functionMaxDepths[function]);
+                        if (frames.length < (depth + 2) * FRAME_SIZE) {
+                            frames = state.frames = Arrays.copyOf(frames, 2 * frames.length);
+                            state.calls = Arrays.copyOf(state.calls, 2 * state.calls.length);
+                        }
+                        state.calls[depth + 1] = call;
+
+                        nbArgs = code[pc + 2];
+                        argBase = sp - nbArgs;
+                        localBase = sp;
+                        sp += nbLocals;
+                        Arrays.fill(stack, localBase, sp, VariableSlots.UNASSIGNED);
+
+                        int frame = ++depth * FRAME_SIZE;
+                        frames[frame] = pc + 4;
+                        frames[frame + 1] = argBase;
+                        frames[frame + 2] = nbArgs;
+                        frames[frame + 3] = sp;
+                        frames[frame + 4] = code[pc + 3];
+                        pc = functionEntries[function];
+                        break;
+                    }
+                    case TAIL_CALL: {
+                        program.countInstruction();
+                        int function = code[pc + 1];
+                        int n = code[pc + 2];
+                        if (functionPurities[function].isCacheable()) {
+                            Object result = program.getFunctionCache().get(functionNames[function],
+                                    Arrays.copyOfRange(stack, sp - n, sp));
+                            if (result != FunctionCache.MISSING) {
+                                // the RETURN that follows returns the cached result
+                                sp -= n;
+                                stack[sp++] = result;
+                                pc += 3;
+                                break;
+                            }
+                        }
+
+                        // The arguments replace those of the current call, whose frame is reused. Its record of the
+                        // call to cache is kept, the result of the tail call is the result of the current call.
+                        int nbLocals = functionNbLocals[function];
+                        stack = ensureCapacity(state, argBase + n + nbLocals + functionMaxDepths[function]);
+                        System.arraycopy(stack, sp - n, stack, argBase, n);
+                        nbArgs = n;
+                        localBase = argBase + n;
+                        sp = localBase + nbLocals;
+                        Arrays.fill(stack, localBase, sp, VariableSlots.UNASSIGNED);
+
+                        int frame = depth * FRAME_SIZE;
+                        frames[frame + 2] = nbArgs;
+                        frames[frame + 3] = sp;
+                        pc = functionEntries[function];
+                        break;
+                    }
+                    case RETURN: {
+                        if (depth == 0)
+                            return Completion.RETURN;
+
+                        Object value = stack[--sp];
+                        Object[] call = state.calls[depth];
+                        if (call != null) {
+                            int function = code[frames[depth * FRAME_SIZE] - 3];
+                            program.getFunctionCache().put(functionNames[function], functionPurities[function], call,
+                                    value);
+                        }
+                        int frame = depth-- * FRAME_SIZE;
+                        pc = frames[frame];
+                        sp = frames[frame + 1];
+                        stack[sp++] = value;
+
+                        argBase = frames[frame - FRAME_SIZE + 1];
+                        nbArgs = frames[frame - FRAME_SIZE + 2];
+                        localBase = argBase + nbArgs;
+                        break;
+                    }
+                    case BREAK: {
+                        if (depth == 0)
+                            return Completion.BREAK;
+
+                        // The break ends the innermost while loop a call in progress was made in.
+                        int target = -1;
+                        while (target < 0 && depth > 0)
+                            target = frames[depth-- * FRAME_SIZE + 4];
+                        if (target < 0)
+                            throw new BreakException();
+
+                        int frame = depth * FRAME_SIZE;
+                        pc = target;
+                        sp = frames[frame + 3];
+                        argBase = frames[frame + 1];
+                        nbArgs = frames[frame + 2];
+                        localBase = argBase + nbArgs;
+                        break;
+                    }
+                    case NO_RETURN:
+                        throw new IllegalStateException("no return statement found in " + constants[code[pc + 1]]);
+                    case UNDEFINED_FUNCTION:
+                        throw new IllegalArgumentException("Function " + constants[code[pc + 1]] + " is not defined.");
+                    case CONSUME_TIME:
+                        if (! program.decrementTimeRemaining(ActionStatement.getExecutionTime())) {
+                            state.pc = pc;
+                            return Completion.SUSPEND;
+                        }
+                        pc++;
+                        break;
+                    case TURN: {
+                        double angle = (Double) stack[--sp];
+                        program.performAction(ship -> ship.turn(angle));
+                        pc++;
+                        break;
+                    }
+                    case THRUST_ON:
+                        program.performAction(Ship::thrustOn);
+                        pc++;
+                        break;
+                    case THRUST_OFF:
+                        program.performAction(Ship::thrustOff);
+                        pc++;
+                        break;
+                    case FIRE:
+                        program.performAction(Ship::fireBullet);
+                        pc++;
+                        break;
+                    case METER:
+                        // only the main statement can be suspended, inside functions only the limit applies
+                        if (program.countInstruction() && depth == 0) {
+                            state.pc = pc;
+                            return Completion.SUSPEND;
+                        }
+                        pc++;
+                        break;
+                    case HALT:
+                        state.pc = pc;
+                        return Completion.NORMAL;
+                    default:
+                        throw new IllegalStateException("Invalid opcode " + code[pc] + " at " + pc + ".");
+                }
+            }
+        } finally {
+            Arrays.fill(stack, null);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package asteroids.model.programs.vm;
+
+import asteroids.model.programs.VariableSlots;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * A class of states of the execution of a VmProgram. A program can only be suspended in its main statement, between
+ * two statements, so the state of a suspended execution consists of its program counter and its global variables.
+ * The operand stack and the frames of the calls in progress are only working storage of a single execution.
+ * A state can be serialized if the values of all global variables can, entities cannot.
+ *
+ * @author  Bo Kleynen & Yrjo Koyen
+ */
+public class VmState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of ints in the record of a frame: the return address, the position of the first argument, the
+     * number of arguments, the position of the first operand and the target of a break statement that ends the call.
+     */
+    static final int FRAME_SIZE = 5;
+
+    VmState(int nbGlobals) {
+        globals = VariableSlots.create(nbGlobals);
+    }
+
+    int pc = 0;
+
+    Object[] globals;
+
+    transient Object[] stack = new Object[16];
+
+    transient int[] frames = new int[FRAME_SIZE * 8];
+
+    /**
+     * The arguments of the calls in progress whose result must be cached, by depth, null for other calls.
+     */
+    transient Object[][] calls = new Object[8][];
+
+    /**
+     * Returns the program counter of this state, the position of the instruction the execution resumes at.
+     */
+    public int getPc() {
+        return pc;
+    }
+
+    /**
+     * Returns the number of global variables of this state.
+     */
+    public int getNbGlobals() {
+        return globals.length;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.writeInt(pc);
+        out.writeInt(globals.length);
+        for (Object global : globals) {
+            out.writeBoolean(global != VariableSlots.UNASSIGNED);
+            if (global != VariableSlots.UNASSIGNED)
+                out.writeObject(global);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        pc = in.readInt();
+        globals = VariableSlots.create(in.readInt());
+        for (int i = 0; i < globals.length; i++) {
+            if (in.readBoolean())
+                globals[i] = in.readObject();
+        }
+        stack = new Object[16];
+        frames = new int[FRAME_SIZE * 8];
+        calls = new Object[8][];
+    }
+}
@@ -0,0 +1,14 @@
+package asteroids.model.util.exceptions;
+
+/**
+ * An exception thrown when the function calls of a program that are in progress are nested deeper than the maximum
+ * call depth of the program allows. The program is killed.
+ */
+public class CallDepthExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CallDepthExceededException(int maxDepth) {
+        super("More than " + maxDepth + " nested function calls.");
+    }
+}
@@ -0,0 +1,30 @@
+package asteroids.model.util.exceptions;
+
+import asteroids.model.programs.parser.ParseError;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An exception thrown when a program is created from statements that a TypeChecker rejects. The program is not
+ * created.
+ */
+public class IllTypedProgramException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IllTypedProgramException(List<ParseError> errors) {
+        super(errors.size() == 1 ? errors.get(0).toString() : errors.size() + " type errors, the first: " + errors.get(0));
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    private final List<ParseError> errors;
+
+    /**
+     * Returns the type errors of the program, in the order in which they were found.
+     */
+    public List<ParseError> getErrors() {
+        return errors;
+    }
+}
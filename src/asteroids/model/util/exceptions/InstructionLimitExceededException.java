@@ -0,0 +1,14 @@
+package asteroids.model.util.exceptions;
+
+/**
+ * An exception thrown when a program executes more instructions in a single execution than its instruction limit
+ * allows. The program is killed.
+ */
+public class InstructionLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InstructionLimitExceededException(long limit) {
+        super("More than " + limit + " instructions executed.");
+    }
+}
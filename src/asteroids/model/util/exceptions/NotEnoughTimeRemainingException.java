@@ -1,15 +0,0 @@
-package asteroids.model.util.exceptions;
-
-/**
- * Created by Bo on 27/04/2017.
- */
-public class NotEnoughTimeRemainingException extends RuntimeException {
-
-    public NotEnoughTimeRemainingException() {
-        super();
-    }
-
-    public NotEnoughTimeRemainingException(String string) {
-        super(string);
-    }
-}
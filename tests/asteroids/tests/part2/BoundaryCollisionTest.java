@@ -3,6 +3,7 @@ import asteroids.model.Bullet;
 import asteroids.model.Ship;
 import asteroids.model.collisions.*;
 import asteroids.model.World;
+import asteroids.part2.CollisionListener;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -58,4 +59,27 @@ public class BoundaryCollisionTest {
         assertFalse(bullet.hasWorld());
         assertTrue(bullet.isTerminated());
     }
+
+    @Test
+    public void testBulletWallCollision_bulletDeathWithListener() {
+        World world = new World(1000,1000);
+        Bullet bullet = new Bullet(new Vector(995,300), new Vector(250,0),5, (char) 0);
+        world.addEntity(bullet);
+        BoundaryCollision collision = new BoundaryCollision(bullet, 0);
+        final double[] reported = new double[2];
+        collision.resolve(new CollisionListener() {
+            @Override
+            public void boundaryCollision(Object entity, double x, double y) {
+                reported[0] = x;
+                reported[1] = y;
+            }
+
+            @Override
+            public void objectCollision(Object entity1, Object entity2, double x, double y) {
+            }
+        });
+        assertTrue(bullet.isTerminated());
+        assertEquals(1000, reported[0], EPSILON);
+        assertEquals(300, reported[1], EPSILON);
+    }
 }
@@ -0,0 +1,78 @@
+package asteroids.tests.part2;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.collisions.CollisionEventBuffer;
+import asteroids.part2.CollisionListener;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import asteroids.model.util.vector.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CollisionEventBufferTest {
+
+    private static class RecordingListener implements CollisionListener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void boundaryCollision(Object entity, double x, double y) {
+            events.add("boundary " + x + " " + y);
+        }
+
+        @Override
+        public void objectCollision(Object entity1, Object entity2, double x, double y) {
+            events.add("object " + x + " " + y);
+        }
+    }
+
+    @Test
+    public void deliverToTest_order() {
+        CollisionEventBuffer buffer = new CollisionEventBuffer(4);
+        RecordingListener listener = new RecordingListener();
+        buffer.boundaryCollision("a", 1, 2);
+        buffer.objectCollision("a", "b", 3, 4);
+        assertEquals(2, buffer.getNbPendingEvents());
+
+        buffer.deliverTo(listener);
+        assertEquals(0, buffer.getNbPendingEvents());
+        assertEquals("boundary 1.0 2.0", listener.events.get(0));
+        assertEquals("object 3.0 4.0", listener.events.get(1));
+    }
+
+    @Test
+    public void appendTest_overflowFlushesToListener() {
+        CollisionEventBuffer buffer = new CollisionEventBuffer(2);
+        RecordingListener listener = new RecordingListener();
+        buffer.setListener(listener);
+        buffer.boundaryCollision("a", 1, 1);
+        buffer.boundaryCollision("a", 2, 2);
+        buffer.boundaryCollision("a", 3, 3);
+
+        assertEquals(2, listener.events.size());
+        assertEquals(1, buffer.getNbPendingEvents());
+        buffer.flush();
+        assertEquals("boundary 3.0 3.0", listener.events.get(2));
+    }
+
+    @Test
+    public void evolveTest_deferredDelivery() {
+        World world = new World(1000, 1000);
+        world.setCollisionEventBuffer(new CollisionEventBuffer());
+        Ship ship = new Ship(new Vector(980, 500), new Vector(20, 0), 0, 10);
+        world.addEntity(ship);
+        RecordingListener listener = new RecordingListener();
+
+        world.evolve(2, listener);
+
+        assertEquals(1, listener.events.size());
+        assertEquals(0, world.getCollisionEventBuffer().getNbPendingEvents());
+        assertEquals(-20, ship.getVelocity().getX(), 0.0001);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorTest_illegalCapacity() {
+        new CollisionEventBuffer(0);
+    }
+}
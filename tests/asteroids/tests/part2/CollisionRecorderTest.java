@@ -0,0 +1,100 @@
+package asteroids.tests.part2;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.collisions.CollisionLogReader;
+import asteroids.model.collisions.CollisionRecord;
+import asteroids.model.collisions.CollisionRecorder;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import asteroids.model.util.vector.Vector;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class CollisionRecorderTest {
+
+    private static final double EPSILON = 0.0001;
+
+    @Test
+    public void recordTest_roundTrip() throws IOException {
+        Path path = Files.createTempFile("collisions", ".log");
+        try {
+            World world = new World(1000, 1000);
+            Ship ship1 = new Ship(new Vector(100, 500), new Vector(10, 0), 0, 10);
+            Ship ship2 = new Ship(new Vector(980, 100), new Vector(20, 0), 0, 10);
+            world.addEntity(ship1, ship2);
+
+            try (CollisionRecorder recorder = new CollisionRecorder(path)) {
+                world.setCollisionRecorder(recorder);
+                world.evolve(2, null);
+                assertEquals(1, recorder.getNbRecords());
+            }
+
+            try (CollisionLogReader reader = new CollisionLogReader(path)) {
+                assertTrue(reader.hasNext());
+                CollisionRecord record = reader.next();
+                assertEquals(0.5, record.getTime(), EPSILON);
+                assertEquals(CollisionRecord.SHIP, record.getKind1());
+                assertEquals(CollisionRecord.BOUNDARY, record.getKind2());
+                assertEquals(-1, record.getId2());
+                assertEquals(1000, record.getPosition().getX(), EPSILON);
+                assertEquals(20, record.getVelocityBefore1().getX(), EPSILON);
+                assertEquals(-20, record.getVelocityAfter1().getX(), EPSILON);
+                assertFalse(reader.hasNext());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void recordTest_sessionsAppended() throws IOException {
+        Path path = Files.createTempFile("collisions", ".log");
+        try {
+            for (int i = 0; i < 2; i++) {
+                World world = new World(1000, 1000);
+                world.addEntity(new Ship(new Vector(980, 100), new Vector(20, 0), 0, 10));
+                try (CollisionRecorder recorder = new CollisionRecorder(path)) {
+                    world.setCollisionRecorder(recorder);
+                    world.evolve(2, null);
+                }
+            }
+
+            try (CollisionLogReader reader = new CollisionLogReader(path)) {
+                CollisionRecord first = reader.next();
+                CollisionRecord second = reader.next();
+                assertEquals(0, first.getSession());
+                assertEquals(1, second.getSession());
+                assertEquals(first.getId1(), second.getId1());
+                assertFalse(reader.hasNext());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void recordTest_equality() {
+        CollisionRecord record = new CollisionRecord(0, 1.5, CollisionRecord.SHIP, 3, CollisionRecord.BOUNDARY, -1,
+                new Vector(1, 2), new Vector(3, 4), new Vector(-3, 4), null, null);
+        CollisionRecord same = new CollisionRecord(0, 1.5, CollisionRecord.SHIP, 3, CollisionRecord.BOUNDARY, -1,
+                new Vector(1, 2), new Vector(3, 4), new Vector(-3, 4), null, null);
+        assertEquals(record, same);
+        assertEquals(record.hashCode(), same.hashCode());
+        assertFalse(record.equals(new CollisionRecord(1, 1.5, CollisionRecord.SHIP, 3, CollisionRecord.BOUNDARY, -1,
+                new Vector(1, 2), new Vector(3, 4), new Vector(-3, 4), null, null)));
+    }
+
+    @Test (expected = IOException.class)
+    public void readerTest_notALog() throws IOException {
+        Path path = Files.createTempFile("collisions", ".log");
+        try {
+            Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            new CollisionLogReader(path).close();
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
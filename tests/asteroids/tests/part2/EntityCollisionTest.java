@@ -77,4 +77,19 @@ public class EntityCollisionTest {
         assertTrue(bullet2.isTerminated());
     }
 
+    @Test
+    public void collisionPositionTest_lazyAfterAdvance() {
+        Ship shipA = new Ship(new Vector(100,100), new Vector(10,0), 0, 10);
+        Ship shipB = new Ship(new Vector(200,100), new Vector(-10,0), 0, 10);
+        Collision collision = new EntityCollision(shipA, shipB, shipA.getTimeToCollision(shipB));
+
+        shipA.move(4);
+        shipB.move(4);
+        collision.advance(4);
+
+        assertEquals(0, collision.getRemainingTimeToCollision(), EPSILON);
+        assertEquals(150, collision.getCollisionPosition().getX(), EPSILON);
+        assertEquals(100, collision.getCollisionPosition().getY(), EPSILON);
+    }
+
 }
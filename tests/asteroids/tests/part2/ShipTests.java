@@ -198,4 +198,39 @@ public class ShipTests {
 		assertTrue(!mutableTestShip1.hasWorld());
 
 	}
+
+	@Test
+	public void testGetTimeToWallCollision_afterMove() {
+		World world = new World(1000, 1000);
+		Ship ship = new Ship(new Vector(500, 500), new Vector(10, 0), 0, 10);
+		world.addEntity(ship);
+		assertEquals(49, ship.getTimeToWallCollision(), 0.0001);
+
+		ship.move(9);
+		assertEquals(40, ship.getTimeToWallCollision(), 0.0001);
+	}
+
+	@Test
+	public void testGetTimeToWallCollision_afterVelocityChange() {
+		World world = new World(1000, 1000);
+		Ship ship = new Ship(new Vector(500, 500), new Vector(10, 0), 0, 10);
+		world.addEntity(ship);
+		assertEquals(49, ship.getTimeToWallCollision(), 0.0001);
+
+		ship.setVelocity(0, -20);
+		assertEquals(24.5, ship.getTimeToWallCollision(), 0.0001);
+
+		world.setEntityPosition(ship, new Vector(500, 110));
+		assertEquals(5, ship.getTimeToWallCollision(), 0.0001);
+	}
+
+	@Test
+	public void testGetTimeToCollision_passingBy() {
+		Ship ship1 = new Ship(new Vector(100, 100), new Vector(10, 0), 0, 10);
+		Ship ship2 = new Ship(new Vector(300, 121), new Vector(-10, 0), 0, 10);
+		assertEquals(Double.POSITIVE_INFINITY, ship1.getTimeToCollision(ship2), 0.0001);
+
+		Ship ship3 = new Ship(new Vector(300, 119), new Vector(-10, 0), 0, 10);
+		assertEquals(9.6878, ship1.getTimeToCollision(ship3), 0.0001);
+	}
 }
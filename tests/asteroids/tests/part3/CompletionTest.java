@@ -0,0 +1,64 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class CompletionTest {
+
+	private static Program parseInterpreted(String code) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(false));
+	}
+
+	@Test
+	public void testBreak_insideIfInsideWhile() {
+		List<Object> results = parseInterpreted("a := 0.0; while 0.0 < 1.0 { a := a + 1.0; if 3.0 < a { break; } } print a; ")
+				.execute(1.0);
+		assertArrayEquals(new Object[] { 4.0 }, results.toArray());
+	}
+
+	@Test
+	public void testSuspend_resumesAtAction() {
+		Program program = parseInterpreted("skip; print 1.0; skip; print 2.0; ");
+		assertNull(program.execute(0.2));
+		List<Object> results = program.execute(0.2);
+		assertArrayEquals(new Object[] { 1.0, 2.0 }, results.toArray());
+	}
+
+	@Test
+	public void testSuspend_resumesInsideIfInsideWhile() {
+		Program program = parseInterpreted("a := 0.0; while a < 2.0 { if 0.0 < 1.0 { skip; a := a + 1.0; } } print a; ");
+		assertNull(program.execute(0.2));
+		List<Object> results = program.execute(0.2);
+		assertArrayEquals(new Object[] { 2.0 }, results.toArray());
+	}
+
+	@Test
+	public void testBreak_inFunctionEndsCallerLoop() {
+		List<Object> results = parseInterpreted("def f { break; return 1.0; } a := 0.0; "
+				+ "while a < 5.0 { a := a + 1.0; b := f(); } print a; ").execute(1.0);
+		assertArrayEquals(new Object[] { 1.0 }, results.toArray());
+	}
+
+	@Test
+	public void testReturn_inMainStatementOnEveryEngine() {
+		// the loop is compiled by the tiered engine before it returns
+		String code = "a := 0.0; while a < 2000.0 { a := a + 1.0; if 1500.0 < a { return a; } } print a; ";
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+			try {
+				program.execute(1.0);
+				fail();
+			} catch (IllegalStateException exc) {
+				// the return completes the main statement, which is not a function
+			}
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Asteroid;
+import asteroids.model.Bullet;
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class EntityQueryCacheTest {
+
+	World world;
+	Ship ship;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 0, 10, 100);
+		ship.loadBullet(1);
+		world.addEntity(ship);
+	}
+
+	private Program load(String code, ExecutionEngine engine) {
+		Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+		ship.loadProgram(program);
+		return program;
+	}
+
+	@Test
+	public void testQueryEntity_invalidatedByAction() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			List<Object> results = load("print bullet; print bullet; fire; print bullet; ", engine).execute(1.0);
+			assertNull(results.get(0));
+			assertNull(results.get(1));
+			assertTrue(results.get(2) instanceof Bullet);
+		}
+	}
+
+	@Test
+	public void testQueryEntity_invalidatedByExecution() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load("def f { return asteroid; } print f(); print asteroid; "
+					+ "while getx self < 1.0 { a := 1.0; } print f(); print asteroid; ", engine);
+			program.setInstructionBudget(1);
+			assertNull(program.execute(1.0));
+			Asteroid asteroid = new Asteroid(new Vector(100, 100), new Vector(0, 0), 20);
+			world.addEntity(asteroid);
+			List<Object> results = program.execute(1.0);
+			assertNull(results.get(0));
+			assertNull(results.get(1));
+			assertSame(asteroid, results.get(2));
+			assertSame(asteroid, results.get(3));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class ExecuteProgramsTest {
+
+	private static final String CODE = "turn 1.0; print getdir; ";
+
+	World world;
+	Ship s1, s2, s3;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		s1 = new Ship(new Vector(500, 100), new Vector(0, 0), 0, 10, 100);
+		s2 = new Ship(new Vector(100, 100), new Vector(0, 0), 0, 10, 100);
+		s3 = new Ship(new Vector(300, 300), new Vector(0, 0), 0, 10, 100);
+		world.addEntity(s1, s2, s3);
+	}
+
+	private static Program parse(String code, ExecutionEngine engine) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+	}
+
+	@Test
+	public void testExecutePrograms_actionsBufferedUntilAllProgramsExecuted() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			s1.loadProgram(parse(CODE, engine));
+			s2.loadProgram(parse(CODE, engine));
+
+			Map<Ship, List<Object>> results = world.executePrograms(1.0);
+			assertArrayEquals(new Object[] { 0.0 }, results.get(s1).toArray());
+			assertArrayEquals(new Object[] { 0.0 }, results.get(s2).toArray());
+			assertEquals(1.0, s1.getOrientation(), 1e-9);
+			assertEquals(1.0, s2.getOrientation(), 1e-9);
+			assertEquals(0.0, s3.getOrientation(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testExecutePrograms_shipsInPositionOrder() {
+		s1.loadProgram(parse("print 1.0; ", ExecutionEngine.COMPILER));
+		s2.loadProgram(parse("print 2.0; ", ExecutionEngine.COMPILER));
+		s3.loadProgram(parse("print 3.0; ", ExecutionEngine.COMPILER));
+
+		List<Ship> ships = new ArrayList<>(world.executePrograms(1.0).keySet());
+		assertEquals(3, ships.size());
+		assertSame(s2, ships.get(0));
+		assertSame(s3, ships.get(1));
+		assertSame(s1, ships.get(2));
+	}
+
+	@Test
+	public void testExecutePrograms_suspendedProgram() {
+		s1.loadProgram(parse("skip; skip; print 1.0; ", ExecutionEngine.INTERPRETER));
+		assertNull(world.executePrograms(0.2).get(s1));
+		assertArrayEquals(new Object[] { 1.0 }, world.executePrograms(0.2).get(s1).toArray());
+	}
+
+	@Test
+	public void testExecutePrograms_failingProgramOnlyDiscardsItsOwnActions() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = parse(CODE, engine);
+			s1.loadProgram(program);
+			s2.loadProgram(parse("turn 1.0; break; ", engine));
+
+			try {
+				world.executePrograms(1.0);
+				fail();
+			} catch (IllegalStateException exc) {
+				// the program of s2 breaks outside of a while loop
+			}
+			assertEquals(1.0, s1.getOrientation(), 1e-9);
+			assertEquals(0.0, s2.getOrientation(), 1e-9);
+			assertArrayEquals(new Object[] { 0.0 }, program.execute(1.0).toArray());
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Addition;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Multiplication;
+import asteroids.model.programs.expressions.binaryExpressions.compareExpressions.LessThan;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Negate;
+import asteroids.model.programs.expressions.unaryExpressions.arithmeticExpressions.Sqrt;
+import asteroids.model.programs.expressions.unaryExpressions.logicalExpressions.Not;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+
+public class ExpressionTest {
+
+	private static final double EPSILON = 0.0001;
+
+	@Test
+	public void testEvalDouble() {
+		Expression<Double> expression = new Sqrt(new Addition(new Multiplication(new ValueExpression<>(3.0),
+				new ValueExpression<>(3.0)), new Negate(new ValueExpression<>(-16.0))));
+		assertEquals(5.0, expression.evalDouble(), EPSILON);
+		assertEquals(5.0, expression.getValue(), EPSILON);
+	}
+
+	@Test
+	public void testEvalBoolean() {
+		Expression<Boolean> expression = new Not(new LessThan(new ValueExpression<>(2.0), new ValueExpression<>(1.0)));
+		assertTrue(expression.evalBoolean());
+		assertEquals(Boolean.TRUE, expression.getValue());
+	}
+
+	@Test(expected = ClassCastException.class)
+	public void testEvalDouble_notADouble() {
+		new Negate(new ValueExpression<>(true)).evalDouble();
+	}
+}
@@ -0,0 +1,91 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.function.FunctionCache;
+import asteroids.model.programs.function.Purity;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class FunctionCacheTest {
+
+	private static Program parse(String code, ExecutionEngine engine) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+	}
+
+	private static Purity purityOf(String code, String functionName) {
+		return parse(code, ExecutionEngine.INTERPRETER).getFunction(functionName).getPurity();
+	}
+
+	@Test
+	public void testAnalyze_purity() {
+		assertEquals(Purity.PURE, purityOf("def f { a := $1; return a * 2.0; } print f(1.0); ", "f"));
+		assertEquals(Purity.IMPURE, purityOf("def f { return a; } a := 1.0; print f(); ", "f"));
+		assertEquals(Purity.READS_ENTITIES, purityOf("def f { return self; } print f(); ", "f"));
+		assertEquals(Purity.IMPURE, purityOf("def f { break; return 1.0; } print f(); ", "f"));
+		assertEquals(Purity.PURE, purityOf("def f { while 0.0 < 1.0 { break; } return 1.0; } print f(); ", "f"));
+		assertEquals(Purity.IMPURE, purityOf("def f { return g(); } def g { return a; } a := 1.0; print f(); ", "f"));
+	}
+
+	@Test
+	public void testExecute_cachedCallsHit() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = parse("def sq { return $1 * $1; } "
+					+ "a := 0.0; while a < 3.5 { b := sq(2.0); print b; a := a + 1.0; } ", engine);
+			List<Object> results = program.execute(1.0);
+			assertArrayEquals(new Object[] { 4.0, 4.0, 4.0, 4.0 }, results.toArray());
+			assertEquals(3, program.getFunctionCache().getNbHits());
+		}
+	}
+
+	@Test
+	public void testExecute_sameResultsAsUncachedFunction() {
+		String code = "def fib { if $1 < 1.5 { return $1; } return fib($1 + -1.0) + fib($1 + -2.0); } print fib(15.0); ";
+		for (ExecutionEngine engine : ExecutionEngine.values())
+			assertArrayEquals(new Object[] { 610.0 }, parse(code, engine).execute(1.0).toArray());
+	}
+
+	@Test
+	public void testExecute_cachedResultsKeepReferenceSemantics() {
+		String code = "def p { return $1 + 0.0; } def id { return $1; } def one { return 1.0; } "
+				+ "a := 1.0; while a < 3.0 { print p(a) == p(a); print id(a) == a; print one() == one(); a := a + 1.0; } ";
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = parse(code, engine);
+			assertArrayEquals(new Object[] { false, true, true, false, true, true }, program.execute(1.0).toArray());
+			assertTrue(program.getFunctionCache().getNbHits() > 0);
+		}
+	}
+
+	@Test
+	public void testPut_leastRecentlyUsedEvicted() {
+		FunctionCache cache = new FunctionCache(2);
+		cache.put("f", Purity.PURE, new Object[] { 1.0 }, 1.0);
+		cache.put("f", Purity.PURE, new Object[] { 2.0 }, 2.0);
+		cache.get("f", new Object[] { 1.0 });
+		cache.put("f", Purity.PURE, new Object[] { 3.0 }, 3.0);
+		assertEquals(2, cache.getSize());
+		assertEquals(1.0, cache.get("f", new Object[] { 1.0 }));
+		assertSame(FunctionCache.MISSING, cache.get("f", new Object[] { 2.0 }));
+	}
+
+	@Test
+	public void testAdvance_dropsEntityResults() {
+		FunctionCache cache = new FunctionCache(4);
+		cache.put("f", Purity.PURE, new Object[0], 1.0);
+		cache.put("g", Purity.READS_ENTITIES, new Object[0], 2.0);
+		cache.advance();
+		assertEquals(1.0, cache.get("f", new Object[0]));
+		assertSame(FunctionCache.MISSING, cache.get("g", new Object[0]));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPut_impureFunction() {
+		new FunctionCache(4).put("f", Purity.IMPURE, new Object[0], 1.0);
+	}
+}
@@ -0,0 +1,46 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class FunctionTest {
+
+	private static Program parseInterpreted(String code) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(false));
+	}
+
+	@Test
+	public void testCall_recursionInsideLoop() {
+		// sum($1) = sum over i < $1 of (i + sum(i)), every call runs the same while loop
+		Program program = parseInterpreted("def sum { i := 0.0; s := 0.0; while i < $1 { s := s + i + sum(i); "
+				+ "i := i + 1.0; } return s; } print sum(4.0); ");
+		List<Object> results = program.execute(1.0);
+		assertArrayEquals(new Object[] { 11.0 }, results.toArray());
+		assertEquals(0, program.getFrameStack().getDepth());
+	}
+
+	@Test
+	public void testCall_nestedArguments() {
+		List<Object> results = parseInterpreted("def add { return $1 + $2; } print add(add(1.0, 2.0), add(3.0, 4.0)); ")
+				.execute(1.0);
+		assertArrayEquals(new Object[] { 10.0 }, results.toArray());
+	}
+
+	@Test
+	public void testCall_missingReturnPopsFrame() {
+		Program program = parseInterpreted("def f { a := 1.0; } print f(); ");
+		try {
+			program.execute(1.0);
+			fail();
+		} catch (IllegalStateException exc) {
+			assertEquals(0, program.getFrameStack().getDepth());
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class InstructionBudgetTest {
+
+	private static Program parse(String code, ExecutionEngine engine) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+	}
+
+	@Test
+	public void testExecute_unlimitedByDefault() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = parse("a := 0.0; while a < 300000.0 { a := a + 1.0; } print a; ", engine);
+			assertArrayEquals(new Object[] { 300000.0 }, program.execute(1.0).toArray());
+			assertEquals(0, program.getNbBudgetSuspensions());
+			assertFalse(program.isKilled());
+		}
+	}
+
+	@Test
+	public void testExecute_infiniteLoopSuspended() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = parse("a := 0.0; while 0.0 < 1.0 { a := a + 1.0; } ", engine);
+			program.setInstructionBudget(1000);
+			assertNull(program.execute(1.0));
+			assertEquals(1001, program.getNbInstructions());
+			assertNull(program.execute(1.0));
+			assertEquals(2, program.getNbBudgetSuspensions());
+			assertEquals(2002, program.getTotalNbInstructions());
+			assertFalse(program.isKilled());
+		}
+	}
+
+	@Test
+	public void testExecute_suspendedLoopResumes() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = parse("a := 0.0; while a < 2500.0 { if a < 1.0 { skip; } a := a + 1.0; } print a; ",
+					engine);
+			program.setInstructionBudget(1000);
+			assertNull(program.execute(0.2));
+			assertNull(program.execute(0.0));
+			List<Object> results = program.execute(0.0);
+			assertArrayEquals(new Object[] { 2500.0 }, results.toArray());
+		}
+	}
+
+	@Test
+	public void testExecute_functionKilled() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = parse("def f { while 0.0 < 1.0 { a := 1.0; } return 0.0; } print 1.0; b := f(); ",
+					engine);
+			program.setInstructionLimit(1000);
+			assertArrayEquals(new Object[] { 1.0 }, program.execute(1.0).toArray());
+			assertTrue(program.isKilled());
+			assertEquals(1001, program.getTotalNbInstructions());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetInstructionBudget_notPositive() {
+		parse("print 1.0; ", ExecutionEngine.INTERPRETER).setInstructionBudget(0);
+	}
+}
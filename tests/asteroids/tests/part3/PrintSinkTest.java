@@ -0,0 +1,118 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.output.AsyncPrintSink;
+import asteroids.model.programs.output.DropPolicy;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.programs.output.RingBufferSink;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class PrintSinkTest {
+
+	World world;
+	Ship ship;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 0, 10, 100);
+		world.addEntity(ship);
+	}
+
+	private Program load(String code, ExecutionEngine engine) {
+		Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+		ship.loadProgram(program);
+		return program;
+	}
+
+	@Test
+	public void testPrint_RingBuffer() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			RingBufferSink sink = new RingBufferSink(2);
+			Program program = load("print 1.0; print 2.0; print asteroid; ", engine);
+			program.setPrintSink(sink);
+			assertEquals(3, program.execute(1.0).size());
+			assertEquals(Arrays.asList("2.0", "null"), sink.getLines());
+			assertEquals(1, sink.getNbDropped());
+		}
+	}
+
+	@Test
+	public void testPrint_EvaluatedOnce() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load("def f { return 1.0; } print f(); ", engine);
+			program.setPrintSink(PrintSink.NONE);
+			program.execute(1.0);
+			assertEquals(1, program.getNbInstructions());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetPrintSink_Null() {
+		load("print 1.0; ", ExecutionEngine.INTERPRETER).setPrintSink(null);
+	}
+
+	@Test
+	public void testAsyncPrintSink_WritesAllLinesOnClose() {
+		StringWriter writer = new StringWriter();
+		AsyncPrintSink sink = new AsyncPrintSink(writer, 1, DropPolicy.BLOCK);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sink.print((double) i);
+			expected.append((double) i).append(System.lineSeparator());
+		}
+		sink.close();
+		assertEquals(expected.toString(), writer.toString());
+		assertEquals(0, sink.getNbDropped());
+	}
+
+	@Test
+	public void testAsyncPrintSink_DropsAfterClose() {
+		StringWriter writer = new StringWriter();
+		AsyncPrintSink sink = new AsyncPrintSink(writer);
+		sink.print(1.0);
+		sink.close();
+		sink.print(2.0);
+		sink.close();
+		assertEquals("1.0" + System.lineSeparator(), writer.toString());
+		assertEquals(1, sink.getNbDropped());
+	}
+
+	@Test
+	public void testAsyncPrintSink_EveryLineWrittenOrDroppedWhenClosedConcurrently() throws InterruptedException {
+		for (DropPolicy policy : DropPolicy.values()) {
+			StringWriter writer = new StringWriter();
+			AsyncPrintSink sink = new AsyncPrintSink(writer, 16, policy);
+			Thread[] threads = new Thread[4];
+			for (int i = 0; i < threads.length; i++) {
+				threads[i] = new Thread(() -> {
+					for (int j = 0; j < 5000; j++)
+						sink.print(1.0);
+				});
+				threads[i].start();
+			}
+			Thread.sleep(1);
+			sink.close();
+			for (Thread thread : threads)
+				thread.join();
+
+			int nbWritten = writer.toString().split(System.lineSeparator(), -1).length - 1;
+			assertEquals(4 * 5000, nbWritten + sink.getNbDropped());
+		}
+	}
+}
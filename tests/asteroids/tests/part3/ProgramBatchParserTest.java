@@ -0,0 +1,99 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.parser.ParseResult;
+import asteroids.model.programs.parser.ProgramBatchParser;
+import asteroids.model.programs.statements.Statement;
+import asteroids.part3.programs.SourceLocation;
+
+public class ProgramBatchParserTest {
+
+	Path directory;
+
+	@Before
+	public void setupMutableTestFixtures() throws IOException {
+		directory = Files.createTempDirectory("scripts");
+	}
+
+	private URL write(String name, String source) throws IOException {
+		return Files.write(directory.resolve(name), source.getBytes("UTF-8")).toUri().toURL();
+	}
+
+	private static ProgramBatchParser<Expression, Statement, Function, Program> createParser() {
+		return new ProgramBatchParser<>(ProgramFactory::new, 4);
+	}
+
+	@Test
+	public void testParseAll_resultsInOrder() throws IOException {
+		List<URL> urls = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+			urls.add(write("script" + i + ".txt", "def f { return $1 * 2.0; } print f(" + i + ".0); "));
+
+		try (ProgramBatchParser<Expression, Statement, Function, Program> parser = createParser()) {
+			Map<URL, ParseResult<Program>> results = parser.parseAll(urls);
+			assertEquals(new ArrayList<>(urls), new ArrayList<>(results.keySet()));
+			for (int i = 0; i < 50; i++) {
+				ParseResult<Program> result = results.get(urls.get(i));
+				assertTrue(result.isSuccess());
+				assertArrayEquals(new Object[] { 2.0 * i }, result.getProgram().execute(1.0).toArray());
+			}
+		}
+	}
+
+	@Test
+	public void testParseAll_errorsWithLocation() throws IOException {
+		URL valid = write("valid.txt", "print 1.0; ");
+		URL invalid = write("invalid.txt", "print 1.0;\nprint ; ");
+		URL missing = directory.resolve("missing.txt").toUri().toURL();
+
+		try (ProgramBatchParser<Expression, Statement, Function, Program> parser = createParser()) {
+			Map<URL, ParseResult<Program>> results = parser.parseAll(Arrays.asList(valid, invalid, missing));
+			assertTrue(results.get(valid).isSuccess());
+			assertFalse(results.get(valid).isFullContextParsed());
+
+			ParseResult<Program> result = results.get(invalid);
+			assertFalse(result.isSuccess());
+			assertNull(result.getProgram());
+			assertTrue(result.isFullContextParsed());
+			assertEquals(new SourceLocation(2, 6), result.getErrors().get(0).getLocation());
+
+			assertFalse(results.get(missing).isSuccess());
+			assertNull(results.get(missing).getErrors().get(0).getLocation());
+		}
+	}
+
+	@Test
+	public void testParse_parserReused() {
+		try (ProgramBatchParser<Expression, Statement, Function, Program> parser = createParser()) {
+			assertFalse(parser.parse("print ; ").isSuccess());
+			assertEquals(parser.parse("print ; "), parser.parse("print ; "));
+			assertEquals(parser.parse("print ; ").hashCode(), parser.parse("print ; ").hashCode());
+			assertArrayEquals(new Object[] { 3.0 }, parser.parse("print 3.0; ").getProgram().execute(1.0).toArray());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testParseAll_closed() throws IOException {
+		ProgramBatchParser<Expression, Statement, Function, Program> parser = createParser();
+		parser.close();
+		parser.parseAll(Collections.singletonList(write("script.txt", "print 1.0; ")));
+	}
+}
@@ -0,0 +1,100 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.cache.ProgramCache;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.statements.Statement;
+
+public class ProgramCacheTest {
+
+	private static final String CODE = "def f { if $1 < 1.5 { return 1.0; } return $1 * f($1 + -1.0); } "
+			+ "a := 1.0; while a < 4.5 { print f(a); a := a + 1.0; } "
+			+ "if 1.0 < 2.0 { print ! (a == null); } else { turn 0.5; } print 2.0 * -(-3.0); skip; print 3.0; ";
+
+	Path directory;
+
+	@Before
+	public void setupMutableTestFixtures() throws IOException {
+		directory = Files.createTempDirectory("programs");
+	}
+
+	@Test
+	public void testLoad_secondLoadFromCache() throws IOException {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			ProgramCache cache = new ProgramCache(directory.resolve(engine.name()), new ProgramFactory(engine));
+			Program parsed = cache.load("print 1.0; def f { return $1; } print f(2.0); ");
+			Program cached = cache.load("print 1.0; def f { return $1; } print f(2.0); ");
+			assertEquals(1, cache.getNbMisses());
+			assertEquals(1, cache.getNbHits());
+			assertArrayEquals(parsed.execute(1.0).toArray(), cached.execute(1.0).toArray());
+		}
+	}
+
+	@Test
+	public void testLoad_sameProgramAsParsed() throws IOException {
+		ProgramCache cache = new ProgramCache(directory, new ProgramFactory(ExecutionEngine.INTERPRETER));
+		Program parsed = cache.load(CODE);
+		Program cached = cache.load(CODE);
+		assertEquals(1, cache.getNbHits());
+		assertFalse(parsed.getOptimizations().isEmpty());
+		assertEquals(parsed.getOptimizations().toString(), cached.getOptimizations().toString());
+		assertNull(parsed.execute(0.1));
+		assertNull(cached.execute(0.1));
+		assertArrayEquals(parsed.execute(1.0).toArray(), cached.execute(1.0).toArray());
+	}
+
+	@Test
+	public void testLoad_invalidCachedFormReplaced() throws IOException {
+		ProgramCache cache = new ProgramCache(directory, new ProgramFactory());
+		cache.load("print 1.0; ");
+		try (Stream<Path> files = Files.list(directory)) {
+			Path file = files.findFirst().get();
+			Files.write(file, new byte[] { 1, 2, 3 });
+		}
+
+		assertArrayEquals(new Object[] { 1.0 }, cache.load("print 1.0; ").execute(1.0).toArray());
+		assertEquals(2, cache.getNbMisses());
+		assertArrayEquals(new Object[] { 1.0 }, cache.load("print 1.0; ").execute(1.0).toArray());
+		assertEquals(1, cache.getNbHits());
+	}
+
+	@Test
+	public void testLoad_cachedFormRejectedByFactoryReplaced() throws IOException {
+		new ProgramCache(directory, new ProgramFactory()).load("print 1.0; ");
+		ProgramCache cache = new ProgramCache(directory, new ProgramFactory() {
+			@Override
+			public Program createProgram(List<Function> functions, Statement main) {
+				throw new IllegalArgumentException("stale cached form");
+			}
+		});
+
+		assertArrayEquals(new Object[] { 1.0 }, cache.load("print 1.0; ").execute(1.0).toArray());
+		assertEquals(0, cache.getNbHits());
+		assertEquals(1, cache.getNbMisses());
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	public void testLoad_unparsableSourceNotCached() throws IOException {
+		ProgramCache cache = new ProgramCache(directory, new ProgramFactory());
+		assertNull(cache.load("print ; "));
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class ProgramCompilerTest {
+
+	private static Program parse(String code, boolean compiling) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(compiling));
+	}
+
+	private static void assertSameResults(String code) {
+		List<Object> interpreted = parse(code, false).execute(1.0);
+		List<Object> compiled = parse(code, true).execute(1.0);
+		assertArrayEquals(interpreted.toArray(), compiled.toArray());
+	}
+
+	@Test
+	public void testCreateProgram_compiledByDefault() {
+		assertTrue(parse("print 1.0; ", true).isCompiled());
+		assertFalse(parse("print 1.0; ", false).isCompiled());
+	}
+
+	@Test
+	public void testExecute_sameResultsAsInterpreter() {
+		assertSameResults("def fac { if $1 < 1.5 { return 1.0; } return $1 * fac($1 + -1.0); } "
+				+ "a := 1.0; while a < 5.5 { print fac(a); a := a + 1.0; } ");
+		assertSameResults("def f { a := 3.0; return a + $1; } a := 1.0; print f(a); print a; ");
+		assertSameResults("def f { b := a; a := 7.0; return b * a; } a := 2.0; print f(); ");
+		assertSameResults("def f { break; return 0.0; } a := 10.0; "
+				+ "while a < 20.5 { print a; if 14.5 < a { b := f(); } a := a + 2.0; } print 0.0; ");
+	}
+
+	@Test
+	public void testExecute_breakInNestedIf() {
+		List<Object> results = parse("a := 1.0; while a < 10.0 { if 4.5 < a { break; } else { print a; } "
+				+ "a := a + 1.0; } ", true).execute(1.0);
+		assertArrayEquals(new Object[] { 1.0, 2.0, 3.0, 4.0 }, results.toArray());
+	}
+
+	@Test
+	public void testExecute_resumesAtSuspendedAction() {
+		Program program = parse("a := 1.0; while a < 3.5 { print a; skip; a := a + 1.0; } print 0.0; ", true);
+		assertNull(program.execute(0.1));
+		assertNull(program.execute(0.1));
+		assertNull(program.execute(0.2));
+		List<Object> results = program.execute(0.2);
+		assertArrayEquals(new Object[] { 1.0, 2.0, 3.0, 0.0 }, results.toArray());
+	}
+
+	@Test
+	public void testCreateProgram_typeChangeRejected() {
+		assertNull(parse("a := 1.0; a := self == self; ", true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testExecute_unassignedVariable() {
+		parse("def f { return b; } print f(); b := 1.0; ", true).execute(1.0);
+	}
+}
@@ -0,0 +1,125 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.ProgramImage;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.programs.statements.actionStatements.Skip;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class ProgramImageTest {
+
+	static final String CODE = "a := 0.0; while a < 3.0 { a := a + 1.0; skip; } print a + (1.0 + -1.0); ";
+
+	World world;
+	Ship ship1, ship2;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		ship1 = new Ship(new Vector(500, 500), new Vector(0, 0), 0, 10, 100);
+		ship2 = new Ship(new Vector(100, 100), new Vector(0, 0), 0, 10, 100);
+		world.addEntity(ship1);
+		world.addEntity(ship2);
+	}
+
+	private Program load(Ship ship, Program program) {
+		program.setPrintSink(PrintSink.NONE);
+		ship.loadProgram(program);
+		return program;
+	}
+
+	@Test
+	public void testInstantiate_IndependentExecutions() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program first = load(ship1, ProgramParser.parseProgramFromString(CODE, new ProgramFactory(engine)));
+			Program second = load(ship2, first.getImage().instantiate());
+
+			assertNull(first.execute(0.3));
+			assertEquals(Arrays.asList((Object) 3.0), second.execute(1.0));
+			assertEquals(Arrays.asList((Object) 3.0), first.execute(1.0));
+		}
+	}
+
+	@Test
+	public void testInstantiate_SharedCode() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			ProgramImage image = ProgramParser.parseProgramFromString(CODE, new ProgramFactory(engine)).getImage();
+			Program program = image.instantiate();
+			assertSame(image, program.getImage());
+			assertEquals(1, program.getOptimizations().size());
+		}
+	}
+
+	@Test
+	public void testInstantiate_InterleavedSuspensions() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			ProgramImage image = ProgramParser.parseProgramFromString(
+					"a := 0.0; while a < 3.0 { if a < 10.0 { a := a + 1.0; skip; print a; } } ",
+					new ProgramFactory(engine)).getImage();
+			Program first = load(ship1, image.instantiate());
+			Program second = load(ship2, image.instantiate());
+
+			assertNull(first.execute(0.2));
+			assertNull(second.execute(0.4));
+			assertNull(first.execute(0.2));
+			assertEquals(Arrays.asList((Object) 1.0, 2.0, 3.0), second.execute(1.0));
+			assertEquals(Arrays.asList((Object) 1.0, 2.0, 3.0), first.execute(0.2));
+		}
+	}
+
+	@Test
+	public void testInstantiate_ConcurrentExecutions() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			world = new World(10000, 10000);
+			ProgramImage image = ProgramParser.parseProgramFromString(
+					"def f { if $1 < 1.0 { return 0.0; } return $1 + f($1 + -1.0); } "
+							+ "a := 0.0; while a < 20.0 { a := a + 1.0; skip; } print f(a); ",
+					new ProgramFactory(engine)).getImage();
+			for (int i = 0; i < 50; i++) {
+				Ship ship = new Ship(new Vector(50 + 30 * (i % 10), 50 + 30 * (i / 10)), new Vector(0, 0), 0, 10, 100);
+				world.addEntity(ship);
+				load(ship, image.instantiate());
+			}
+			for (int i = 0; i < 19; i++)
+				assertTrue(world.executePrograms(0.2).values().stream().allMatch(printed -> printed == null));
+			for (List<Object> printed : world.executePrograms(0.2).values())
+				assertEquals(Arrays.asList((Object) 210.0), printed);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testInstantiate_ImageOfSingleProgram() {
+		new Program(new ArrayList<>(), new Skip()).getImage().instantiate();
+	}
+
+	@Test
+	public void testInstantiate_ManyShips() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			world = new World(10000, 10000);
+			ProgramImage image = ProgramParser.parseProgramFromString(CODE, new ProgramFactory(engine)).getImage();
+			for (int i = 0; i < 100; i++) {
+				Ship ship = new Ship(new Vector(50 + 30 * (i % 10), 50 + 30 * (i / 10)), new Vector(0, 0), 0, 10, 100);
+				world.addEntity(ship);
+				Program program = load(ship, image.instantiate());
+				assertEquals(Arrays.asList((Object) 3.0), program.execute(1.0));
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.optimizer.Optimization;
+import asteroids.part3.programs.SourceLocation;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class ProgramOptimizerTest {
+
+	private static Program parse(String code, boolean optimizing) {
+		return ProgramParser.parseProgramFromString(code,
+				new ProgramFactory(ExecutionEngine.INTERPRETER, optimizing));
+	}
+
+	private static void assertSameResults(String code) {
+		List<Object> plain = parse(code, false).execute(1.0);
+		List<Object> optimized = parse(code, true).execute(1.0);
+		assertArrayEquals(plain.toArray(), optimized.toArray());
+	}
+
+	@Test
+	public void testOptimize_constantWhileCondition() {
+		Program program = parse("a := 0.0;\nwhile 1.0 < 2.0 { a := a + 1.0; if 2.5 < a { break; } }\nprint a; ", true);
+		List<Optimization> optimizations = program.getOptimizations();
+
+		assertEquals(2, optimizations.size());
+		assertEquals(new SourceLocation(2, 6), optimizations.get(0).getLocation());
+		assertEquals(new SourceLocation(2, 0), optimizations.get(1).getLocation());
+		assertArrayEquals(new Object[] { 3.0 }, program.execute(1.0).toArray());
+	}
+
+	@Test
+	public void testOptimize_constantIfCondition() {
+		Program program = parse("if ! (1.0 < 0.5) { print 1.0; } else { print 2.0; } "
+				+ "if 1.0 < 0.5 { print 3.0; } ", true);
+		assertEquals(5, program.getOptimizations().size());
+		assertArrayEquals(new Object[] { 1.0 }, program.execute(1.0).toArray());
+	}
+
+	@Test
+	public void testOptimize_negations() {
+		Program program = parse("x := 3.0; y := 1.0; print x + (-y); print - (- (x * y)); print ! (! (x < y)); ", true);
+		assertEquals(3, program.getOptimizations().size());
+		assertArrayEquals(new Object[] { 2.0, 3.0, false }, program.execute(1.0).toArray());
+	}
+
+	@Test
+	public void testOptimize_sameChangesForSameSource() {
+		String code = "if ! (1.0 < 0.5) { print 1.0; } ";
+		List<Optimization> optimizations = parse(code, true).getOptimizations();
+		assertEquals(optimizations, parse(code, true).getOptimizations());
+		assertEquals(optimizations.get(0).hashCode(), parse(code, true).getOptimizations().get(0).hashCode());
+	}
+
+	@Test
+	public void testOptimize_variablesAreNotFolded() {
+		assertTrue(parse("x := 1.0; print - (- x); print x + 2.0; ", true).getOptimizations().isEmpty());
+	}
+
+	@Test
+	public void testExecute_sameResultsAsUnoptimized() {
+		assertSameResults("def f { return $1 + (-(2.0 * 3.0)); } a := 0.0; "
+				+ "while 0.0 < 1.0 { a := a + sqrt(4.0); if 9.5 < a { break; } } print f(a); print ! (a < 2.0); ");
+		assertSameResults("a := 1.0; while 2.0 < 1.0 { a := 2.0; } print a; ");
+	}
+}
@@ -0,0 +1,124 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.programs.profiler.LineProfile;
+import asteroids.model.programs.profiler.ProgramProfiler;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class ProgramProfilerTest {
+
+	static final String CODE = "def f {\n"
+			+ "  return 1.0;\n"
+			+ "}\n"
+			+ "a := 0.0;\n"
+			+ "while a < 3.0 {\n"
+			+ "  a := a + f(a);\n"
+			+ "}\n"
+			+ "print a;\n";
+
+	World world;
+	Ship ship;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 0, 10, 100);
+		world.addEntity(ship);
+	}
+
+	private Program load(String code, ExecutionEngine engine) {
+		Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+		program.setPrintSink(PrintSink.NONE);
+		ship.loadProgram(program);
+		return program;
+	}
+
+	@Test
+	public void testProfile_CountsPerLine() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load(CODE, engine);
+			ProgramProfiler profiler = new ProgramProfiler();
+			program.setProfiler(profiler);
+			assertEquals(Arrays.asList((Object) 3.0), program.execute(1.0));
+
+			List<LineProfile> profiles = profiler.getLineProfiles();
+			assertEquals(5, profiles.size());
+			assertEquals(3, profiler.getLineProfile(2).getNbExecutions());
+			assertEquals(1, profiler.getLineProfile(4).getNbExecutions());
+			assertEquals(1, profiler.getLineProfile(5).getNbExecutions());
+			assertEquals(3, profiler.getLineProfile(6).getNbExecutions());
+			assertEquals(1, profiler.getLineProfile(8).getNbExecutions());
+			LineProfile loop = profiler.getLineProfile(5);
+			assertTrue(loop.getTotalNanos() >= loop.getSelfNanos() + profiler.getLineProfile(6).getTotalNanos());
+			assertEquals(-1, loop.getAllocatedBytes());
+		}
+	}
+
+	@Test
+	public void testProfile_CollapsedStacks() throws Exception {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load(CODE, engine);
+			ProgramProfiler profiler = new ProgramProfiler();
+			program.setProfiler(profiler);
+			program.execute(1.0);
+
+			StringWriter writer = new StringWriter();
+			profiler.writeCollapsedStacks(writer);
+			String[] lines = writer.toString().split("\n");
+			assertEquals(5, lines.length);
+			assertTrue(writer.toString().contains("main:5;main:6;f:2 "));
+			for (String line : lines)
+				assertTrue(line.matches("[^ ]+ \\d+"));
+		}
+	}
+
+	@Test
+	public void testProfile_Suspended() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load("while 0.0 < 1.0 {\n  skip;\n}\n", engine);
+			ProgramProfiler profiler = new ProgramProfiler();
+			program.setProfiler(profiler);
+			assertNull(program.execute(0.5));
+			assertEquals(0, profiler.getLineProfile(1).getNbExecutions());
+			assertEquals(2, profiler.getLineProfile(2).getNbExecutions());
+		}
+	}
+
+	@Test
+	public void testLineProfile_equality() {
+		assertEquals(new LineProfile(3, 2, 10, 20, -1), new LineProfile(3, 2, 10, 20, -1));
+		assertEquals(new LineProfile(3, 2, 10, 20, -1).hashCode(), new LineProfile(3, 2, 10, 20, -1).hashCode());
+		assertFalse(new LineProfile(3, 2, 10, 20, -1).equals(new LineProfile(4, 2, 10, 20, -1)));
+	}
+
+	@Test
+	public void testSetProfiler_Null() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load(CODE, engine);
+			ProgramProfiler profiler = new ProgramProfiler();
+			program.setProfiler(profiler);
+			program.setProfiler(null);
+			program.execute(1.0);
+			assertTrue(profiler.getLineProfiles().isEmpty());
+		}
+	}
+}
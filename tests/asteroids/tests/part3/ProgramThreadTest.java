@@ -0,0 +1,241 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.programs.statements.Completion;
+import asteroids.model.programs.threads.ProgramThread;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class ProgramThreadTest {
+
+	private static final String LOOP = "a := 0.0; while a < 5.0 { turn 0.1; a := a + 1.0; print a; } ";
+
+	World world;
+	Ship ship, other;
+
+	List<Thread> threads;
+
+	ThreadFactory factory;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 0, 10, 100);
+		other = new Ship(new Vector(100, 100), new Vector(0, 0), 0, 10, 100);
+		world.addEntity(ship, other);
+		threads = new ArrayList<>();
+		factory = runnable -> {
+			Thread thread = ProgramThread.DAEMON_THREADS.newThread(runnable);
+			threads.add(thread);
+			return thread;
+		};
+	}
+
+	private Program load(Ship ship, String code, ExecutionEngine engine, boolean threaded) {
+		Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+		program.setPrintSink(PrintSink.NONE);
+		if (threaded)
+			program.setThreadFactory(factory);
+		ship.loadProgram(program);
+		return program;
+	}
+
+	@Test
+	public void testExecute_sameResultsAsSuspension() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program suspended = load(other, LOOP, engine, false);
+			Program threaded = load(ship, LOOP, engine, true);
+
+			List<Object> expected = null;
+			List<Object> results = null;
+			while (expected == null) {
+				expected = suspended.execute(0.3);
+				results = threaded.execute(0.3);
+				assertEquals(expected == null, results == null);
+				assertEquals(other.getOrientation(), ship.getOrientation(), 1e-9);
+			}
+			assertEquals(expected, results);
+			assertEquals(1, threads.size());
+		}
+	}
+
+	@Test
+	public void testExecute_parkedWithoutTime() throws InterruptedException {
+		Program program = load(ship, "skip; print 1.0; skip; print 2.0; ", ExecutionEngine.INTERPRETER, true);
+		assertNull(program.execute(0.1));
+		assertTrue(threads.get(0).isAlive());
+		assertNull(program.execute(0.2));
+		assertArrayEquals(new Object[] { 1.0, 2.0 }, program.execute(0.2).toArray());
+		threads.get(0).join(1000);
+		assertFalse(threads.get(0).isAlive());
+	}
+
+	@Test
+	public void testExecute_instructionBudget() {
+		Program program = load(ship, "a := 0.0; while a < 100.0 { a := a + 1.0; } print a; ",
+				ExecutionEngine.INTERPRETER, true);
+		program.setInstructionBudget(30);
+		int nbExecutions = 1;
+		while (program.execute(0.0) == null)
+			nbExecutions++;
+		assertEquals(4, nbExecutions);
+		assertEquals(3, program.getNbBudgetSuspensions());
+		assertEquals(101, program.getTotalNbInstructions());
+	}
+
+	@Test
+	public void testExecute_killed() {
+		Program program = load(ship, "while 0.0 < 1.0 { a := 1.0; } ", ExecutionEngine.COMPILER, true);
+		program.setInstructionLimit(1000);
+		assertNotNull(program.execute(1.0));
+		assertTrue(program.isKilled());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testExecute_errorOnProgramThread() {
+		load(ship, "skip; print a; a := 1.0; ", ExecutionEngine.INTERPRETER, true).execute(1.0);
+	}
+
+	@Test
+	public void testExecutePrograms_threadedAndSuspendedPrograms() {
+		load(ship, LOOP, ExecutionEngine.INTERPRETER, true);
+		load(other, LOOP, ExecutionEngine.INTERPRETER, false);
+
+		Map<Ship, List<Object>> results = world.executePrograms(0.5);
+		assertNull(results.get(ship));
+		assertNull(results.get(other));
+		assertEquals(0.2, ship.getOrientation(), 1e-9);
+		assertEquals(0.2, other.getOrientation(), 1e-9);
+
+		results = world.executePrograms(1.0);
+		assertEquals(results.get(other), results.get(ship));
+		assertEquals(5, results.get(ship).size());
+	}
+
+	@Test
+	public void testStopThread() throws InterruptedException {
+		Program program = load(ship, "while 0.0 < 1.0 { skip; } ", ExecutionEngine.INTERPRETER, true);
+		assertNull(program.execute(1.0));
+		program.stopThread();
+		threads.get(0).join(1000);
+		assertFalse(threads.get(0).isAlive());
+		assertNotNull(program.execute(1.0));
+	}
+
+	@Test
+	public void testExecutePrograms_allThreadsAwaitedWhenOneFails() {
+		load(other, "skip; print a; a := 1.0; ", ExecutionEngine.INTERPRETER, true);
+		Program program = load(ship, LOOP, ExecutionEngine.INTERPRETER, true);
+
+		try {
+			world.executePrograms(0.5);
+			fail();
+		} catch (IllegalArgumentException exc) {
+			// the program of the other ship reads a variable before it is assigned
+		}
+		assertEquals(0.2, ship.getOrientation(), 1e-9);
+		assertEquals(5, program.execute(1.0).size());
+		assertEquals(0.5, ship.getOrientation(), 1e-9);
+	}
+
+	private void assertThreadEnds(Thread thread) throws InterruptedException {
+		thread.join(1000);
+		assertFalse(thread.isAlive());
+	}
+
+	@Test
+	public void testStop_runningThread() throws InterruptedException {
+		ProgramThread[] programThread = new ProgramThread[1];
+		CountDownLatch running = new CountDownLatch(1);
+		AtomicBoolean released = new AtomicBoolean();
+		programThread[0] = new ProgramThread(factory, () -> {
+			running.countDown();
+			while (! released.get())
+				Thread.yield();
+			programThread[0].suspend();
+			return Completion.NORMAL;
+		});
+
+		Thread awaiting = ProgramThread.DAEMON_THREADS.newThread(() -> {
+			programThread[0].resume();
+			programThread[0].await();
+		});
+		awaiting.start();
+		running.await();
+		Thread stopping = ProgramThread.DAEMON_THREADS.newThread(programThread[0]::stop);
+		stopping.start();
+		Thread.sleep(50);
+		released.set(true);
+
+		// the turn is handed back to the thread that awaits it, not to the thread that stops it
+		assertThreadEnds(stopping);
+		assertThreadEnds(awaiting);
+		assertThreadEnds(threads.get(0));
+		assertTrue(programThread[0].isFinished());
+	}
+
+	@Test
+	public void testTerminate_threadStopped() throws InterruptedException {
+		load(ship, "while 0.0 < 1.0 { skip; } ", ExecutionEngine.INTERPRETER, true).execute(1.0);
+		ship.terminate();
+		assertThreadEnds(threads.get(0));
+	}
+
+	@Test
+	public void testRemoveEntity_threadStopped() throws InterruptedException {
+		load(ship, "while 0.0 < 1.0 { skip; } ", ExecutionEngine.INTERPRETER, true).execute(1.0);
+		world.removeEntity(ship);
+		assertThreadEnds(threads.get(0));
+	}
+
+	@Test
+	public void testDestroy_threadsStopped() throws InterruptedException {
+		load(ship, "while 0.0 < 1.0 { skip; } ", ExecutionEngine.INTERPRETER, true);
+		load(other, "while 0.0 < 1.0 { skip; } ", ExecutionEngine.COMPILER, true);
+		world.executePrograms(1.0);
+		world.destroy();
+		assertThreadEnds(threads.get(0));
+		assertThreadEnds(threads.get(1));
+	}
+
+	@Test
+	public void testLoadProgram_previousThreadStopped() throws InterruptedException {
+		load(ship, "while 0.0 < 1.0 { skip; } ", ExecutionEngine.INTERPRETER, true).execute(1.0);
+		Program next = load(ship, "skip; print 1.0; ", ExecutionEngine.INTERPRETER, false);
+		assertThreadEnds(threads.get(0));
+		assertArrayEquals(new Object[] { 1.0 }, next.execute(1.0).toArray());
+	}
+
+	@Test
+	public void testRemoveEntity_programWithoutThreadContinues() {
+		Program program = load(ship, "skip; print 1.0; ", ExecutionEngine.INTERPRETER, false);
+		assertNull(program.execute(0.1));
+		world.removeEntity(ship);
+		assertArrayEquals(new Object[] { 1.0 }, program.execute(0.1).toArray());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSetThreadFactory_afterExecution() {
+		Program program = load(ship, "skip; skip; ", ExecutionEngine.INTERPRETER, false);
+		program.execute(0.2);
+		program.setThreadFactory(factory);
+	}
+}
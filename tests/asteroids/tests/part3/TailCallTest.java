@@ -0,0 +1,106 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class TailCallTest {
+
+	static final String COUNT_DOWN = "def count { if $1 < 1.0 { return $2; } return count($1 + -1.0, $2 + 1.0); } ";
+
+	static final String SUM = "def sum { if $1 < 1.0 { return 0.0; } return $1 + sum($1 + -1.0); } ";
+
+	World world;
+	Ship ship;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 0, 10, 100);
+		world.addEntity(ship);
+	}
+
+	private Program load(String code, ExecutionEngine engine) {
+		Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+		program.setPrintSink(PrintSink.NONE);
+		ship.loadProgram(program);
+		return program;
+	}
+
+	@Test
+	public void testTailCall_DoesNotNest() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load(COUNT_DOWN + "print count(100000.0, 0.0); ", engine);
+			assertEquals(Arrays.asList((Object) 100000.0), program.execute(1.0));
+			assertFalse(program.isKilled());
+		}
+	}
+
+	@Test
+	public void testTailCall_InWhileLoopEndsLoopOnBreak() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load("def stop { break; } "
+					+ "def f { while 0.0 < 1.0 { return stop(); } return 2.0; } print f(); ", engine);
+			assertEquals(Arrays.asList((Object) 2.0), program.execute(1.0));
+		}
+	}
+
+	@Test
+	public void testCallDepth_WithinLimit() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load(SUM + "print sum(500.0); ", engine);
+			assertEquals(Arrays.asList((Object) 125250.0), program.execute(1.0));
+		}
+	}
+
+	@Test
+	public void testCallDepth_Exceeded() {
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			setupMutableTestFixtures();
+			Program program = load(SUM + "print 1.0; print sum(100.0); ", engine);
+			program.setMaxCallDepth(50);
+			assertEquals(Collections.singletonList((Object) 1.0), program.execute(1.0));
+			assertTrue(program.isKilled());
+		}
+	}
+
+	@Test
+	public void testCallDepth_UnlimitedByDefault() {
+		Program program = load(SUM + "print sum(20000.0); ", ExecutionEngine.VIRTUAL_MACHINE);
+		assertEquals(Arrays.asList((Object) 200010000.0), program.execute(1.0));
+		assertFalse(program.isKilled());
+	}
+
+	@Test(expected = StackOverflowError.class)
+	public void testCallDepth_ThreadStackOverflowReported() {
+		load(SUM + "print sum(10000000.0); ", ExecutionEngine.INTERPRETER).execute(1.0);
+	}
+
+	@Test
+	public void testCallDepth_VirtualMachineIsNotLimitedByThreadStack() {
+		Program program = load(SUM + "print sum(100000.0); ", ExecutionEngine.VIRTUAL_MACHINE);
+		program.setMaxCallDepth(200000);
+		assertEquals(Arrays.asList((Object) 5000050000.0), program.execute(1.0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetMaxCallDepth_Invalid() {
+		load("print 1.0; ", ExecutionEngine.INTERPRETER).setMaxCallDepth(0);
+	}
+}
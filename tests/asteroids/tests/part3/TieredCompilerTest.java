@@ -0,0 +1,137 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.Ship;
+import asteroids.model.World;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.compiler.TieredCompiler;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.programs.profiler.ProgramProfiler;
+import asteroids.model.util.vector.Vector;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class TieredCompilerTest {
+
+	World world;
+	Ship ship;
+
+	@Before
+	public void setupMutableTestFixtures() {
+		world = new World(1000, 1000);
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 0, 10, 100);
+		world.addEntity(ship);
+	}
+
+	private Program load(String code, ExecutionEngine engine, int threshold) {
+		Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+		program.setPrintSink(PrintSink.NONE);
+		if (program.getTieredCompiler() != null)
+			program.getTieredCompiler().setThreshold(threshold);
+		ship.loadProgram(program);
+		return program;
+	}
+
+	@Test
+	public void testCreateProgram_onlyTieredProgramsCompileHotCode() {
+		assertNotNull(load("print 1.0; ", ExecutionEngine.TIERED, 10).getTieredCompiler());
+		assertNull(load("print 1.0; ", ExecutionEngine.INTERPRETER, 10).getTieredCompiler());
+		assertFalse(load("print 1.0; ", ExecutionEngine.TIERED, 10).isCompiled());
+	}
+
+	@Test
+	public void testExecute_hotLoopCompiled() {
+		Program program = load("a := 0.0; b := 0.0; while a < 300.0 { a := a + 1.0; b := b + a; } print b; ",
+				ExecutionEngine.TIERED, 10);
+		assertArrayEquals(new Object[] { 45150.0 }, program.execute(1.0).toArray());
+		assertEquals(1, program.getTieredCompiler().getNbCompiledLoops());
+	}
+
+	@Test
+	public void testExecute_coldLoopInterpreted() {
+		Program program = load("a := 0.0; while a < 5.0 { a := a + 1.0; } print a; ", ExecutionEngine.TIERED, 10);
+		assertArrayEquals(new Object[] { 5.0 }, program.execute(1.0).toArray());
+		assertEquals(0, program.getTieredCompiler().getNbCompiledLoops());
+	}
+
+	@Test
+	public void testExecute_compiledLoopSuspendedAndResumed() {
+		String code = "a := 0.0; while a < 40.0 { a := a + 1.0; if a < 20.0 { skip; } print a; } ";
+		Program interpreted = load(code, ExecutionEngine.INTERPRETER, 1);
+		Program tiered = load(code, ExecutionEngine.TIERED, 5);
+
+		List<Object> expected = null;
+		List<Object> results = null;
+		while (expected == null) {
+			expected = interpreted.execute(0.2);
+			results = tiered.execute(0.2);
+			assertEquals(expected == null, results == null);
+		}
+		assertEquals(expected, results);
+		assertEquals(1, tiered.getTieredCompiler().getNbCompiledLoops());
+	}
+
+	@Test
+	public void testExecute_hotFunctionCompiled() {
+		Program program = load("def fib { if $1 < 2.0 { return $1; } return fib($1 + -1.0) + fib($1 + -2.0); } "
+				+ "print fib(15.0); ", ExecutionEngine.TIERED, 10);
+		assertArrayEquals(new Object[] { 610.0 }, program.execute(1.0).toArray());
+		assertEquals(1, program.getTieredCompiler().getNbCompiledFunctions());
+	}
+
+	@Test
+	public void testExecute_returnFromCompiledLoop() {
+		Program program = load("def f { i := 0.0; while 0.0 < 1.0 { i := i + 1.0; if $1 < i { return i; } } } "
+				+ "print f(50.0); ", ExecutionEngine.TIERED, 5);
+		assertArrayEquals(new Object[] { 51.0 }, program.execute(1.0).toArray());
+		assertEquals(1, program.getTieredCompiler().getNbCompiledLoops());
+	}
+
+	@Test
+	public void testExecute_breakInFunctionEndsCompiledLoop() {
+		Program program = load("def stop { if 10.0 < $1 { break; } return $1; } "
+				+ "a := 0.0; while 0.0 < 1.0 { a := stop(a + 1.0); } print a; ", ExecutionEngine.TIERED, 3);
+		assertArrayEquals(new Object[] { 10.0 }, program.execute(1.0).toArray());
+	}
+
+	@Test
+	public void testExecute_profiledProgramInterpreted() {
+		Program program = load("a := 0.0;\nwhile a < 50.0 {\n  a := a + 1.0;\n}\nprint a;\n",
+				ExecutionEngine.TIERED, 5);
+		ProgramProfiler profiler = new ProgramProfiler();
+		program.setProfiler(profiler);
+		assertArrayEquals(new Object[] { 50.0 }, program.execute(1.0).toArray());
+		assertEquals(0, program.getTieredCompiler().getNbCompiledLoops());
+		assertEquals(50, profiler.getLineProfile(3).getNbExecutions());
+	}
+
+	@Test
+	public void testInstantiate_laterProgramsCompileToo() {
+		Program first = load("a := 0.0; while a < 100.0 { a := a + 1.0; } print a; ", ExecutionEngine.TIERED, 5);
+		Program second = first.getImage().instantiate();
+		second.setPrintSink(PrintSink.NONE);
+		second.getTieredCompiler().setThreshold(5);
+		assertArrayEquals(new Object[] { 100.0 }, second.execute(1.0).toArray());
+		assertEquals(1, second.getTieredCompiler().getNbCompiledLoops());
+		assertEquals(0, first.getTieredCompiler().getNbCompiledLoops());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetThreshold_notPositive() {
+		load("print 1.0; ", ExecutionEngine.TIERED, 10).getTieredCompiler().setThreshold(0);
+	}
+
+	@Test
+	public void testDefaultThreshold() {
+		assertEquals(TieredCompiler.DEFAULT_THRESHOLD,
+				load("print 1.0; ", ExecutionEngine.TIERED, TieredCompiler.DEFAULT_THRESHOLD)
+						.getTieredCompiler().getThreshold());
+	}
+}
@@ -0,0 +1,117 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.VariableResolver;
+import asteroids.model.programs.expressions.Expression;
+import asteroids.model.programs.expressions.ReadVariableExpression;
+import asteroids.model.programs.expressions.binaryExpressions.arithmeticExpressions.Addition;
+import asteroids.model.programs.expressions.entityExpressions.SelfExpression;
+import asteroids.model.programs.expressions.valueExpressions.ValueExpression;
+import asteroids.model.programs.function.Function;
+import asteroids.model.programs.output.PrintSink;
+import asteroids.model.programs.parser.ParseError;
+import asteroids.model.programs.parser.ParseResult;
+import asteroids.model.programs.parser.ProgramBatchParser;
+import asteroids.model.programs.statements.Statement;
+import asteroids.model.programs.statements.composedStatements.Sequence;
+import asteroids.model.programs.statements.simpleStatements.Assignment;
+import asteroids.model.programs.types.Type;
+import asteroids.model.programs.types.TypeChecker;
+import asteroids.model.util.exceptions.IllTypedProgramException;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class TypeCheckerTest {
+
+	private static List<ParseError> errorsOf(String code) {
+		try (ProgramBatchParser<Expression, Statement, Function, Program> parser =
+				new ProgramBatchParser<>(ProgramFactory::new, 1)) {
+			ParseResult<Program> result = parser.parse(code);
+			assertFalse(result.isSuccess());
+			return result.getErrors();
+		}
+	}
+
+	@Test
+	public void testJoin() {
+		assertEquals(Type.DOUBLE, Type.DOUBLE.join(null));
+		assertEquals(Type.DOUBLE, Type.DOUBLE.join(Type.DOUBLE));
+		assertEquals(Type.ENTITY, Type.NULL.join(Type.ENTITY));
+		assertEquals(Type.UNKNOWN, Type.DOUBLE.join(Type.BOOLEAN));
+		assertEquals(Type.UNKNOWN, Type.ENTITY.join(Type.UNKNOWN));
+	}
+
+	@Test
+	public void testCheck_arithmeticOnEntity() {
+		List<ParseError> errors = errorsOf("a := 1.0;\nprint a + self;\n");
+		assertEquals(1, errors.size());
+		assertEquals(2, errors.get(0).getLocation().getLine());
+	}
+
+	@Test
+	public void testCheck_conflictingAssignments() {
+		List<ParseError> errors = errorsOf("a := 1.0;\nwhile a < 3.0 {\n  a := 0.0 < a;\n}\n");
+		assertEquals(1, errors.size());
+		assertEquals(3, errors.get(0).getLocation().getLine());
+	}
+
+	@Test
+	public void testCheck_conditionNotBoolean() {
+		assertEquals(1, errorsOf("if 1.0 { print 1.0; }").size());
+		assertEquals(1, errorsOf("def f { return self; } while f() { print 1.0; }").size());
+	}
+
+	@Test
+	public void testCheck_allErrorsReported() {
+		assertEquals(3, errorsOf("print ! 1.0;\nturn 0.0 < 1.0;\nprint getx 1.0;\n").size());
+	}
+
+	@Test
+	public void testCheck_parametersUnknown() {
+		assertNotNull(ProgramParser.parseProgramFromString(
+				"def f { return $1 + 1.0; } def g { return ! $1; } print f(1.0); ", new ProgramFactory()));
+	}
+
+	@Test(expected = IllTypedProgramException.class)
+	public void testCheck_createdProgram() {
+		new Program(Collections.emptyList(), new Assignment<>("a",
+				new Addition(new ValueExpression<>(1.0), (Expression) new SelfExpression())));
+	}
+
+	@Test
+	public void testCheck_verifiedAssignments() {
+		Assignment<Program> first = new Assignment<>("a", new ValueExpression<>(1.0));
+		Assignment<Program> second = new Assignment<>("a",
+				new Addition(new ReadVariableExpression("a"), new ValueExpression<>(1.0)));
+		Assignment<Program> entity = new Assignment<>("b", new SelfExpression());
+		Statement<Program> main = new Sequence<>(new ArrayList<>(Arrays.asList(first, second, entity)));
+		List<Function> functions = new ArrayList<>();
+
+		TypeChecker.check(functions, main, VariableResolver.resolve(functions, main));
+		assertTrue(first.isVerified());
+		assertTrue(second.isVerified());
+		// entity queries may evaluate to null, so the values of entity variables are still checked
+		assertFalse(entity.isVerified());
+	}
+
+	@Test
+	public void testExecute_verifiedProgramsSameResults() {
+		String code = "def fac { if $1 < 1.5 { return 1.0; } n := $1 * fac($1 + -1.0); return n; } "
+				+ "a := 1.0; b := 0.0 < 1.0; while b { print fac(a); a := a + 1.0; b := a < 4.5; } ";
+		for (ExecutionEngine engine : ExecutionEngine.values()) {
+			Program program = ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+			program.setPrintSink(PrintSink.NONE);
+			assertArrayEquals(new Object[] { 1.0, 2.0, 6.0, 24.0 }, program.execute(1.0).toArray());
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class VariableResolverTest {
+
+	private static Program parseInterpreted(String code) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(false));
+	}
+
+	@Test
+	public void testResolve_globalVariables() {
+		Program program = parseInterpreted("def f { c := 1.0; return c; } a := 1.0; b := 2.0; a := f(); ");
+		assertEquals(2, program.getNbGlobalVariables());
+	}
+
+	@Test
+	public void testResolve_localFallsBackToGlobal() {
+		List<Object> results = parseInterpreted("def f { b := a; a := 7.0; return b * a; } a := 2.0; print f(); print a; ")
+				.execute(1.0);
+		assertArrayEquals(new Object[] { 14.0, 2.0 }, results.toArray());
+	}
+
+	@Test
+	public void testResolve_recursiveLocals() {
+		List<Object> results = parseInterpreted("def fac { n := $1; if n < 1.5 { return 1.0; } r := fac(n + -1.0); "
+				+ "return n * r; } print fac(5.0); ").execute(1.0);
+		assertArrayEquals(new Object[] { 120.0 }, results.toArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testResolve_functionNameClash() {
+		parseInterpreted("def f { return 1.0; } f := 2.0; ").execute(1.0);
+	}
+}
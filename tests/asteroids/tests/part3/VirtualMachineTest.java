@@ -0,0 +1,100 @@
+package asteroids.tests.part3;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import asteroids.model.Program;
+import asteroids.model.programs.ExecutionEngine;
+import asteroids.model.programs.ProgramFactory;
+import asteroids.model.programs.vm.VmState;
+import asteroids.part3.programs.internal.ProgramParser;
+
+public class VirtualMachineTest {
+
+	private static Program parse(String code, ExecutionEngine engine) {
+		return ProgramParser.parseProgramFromString(code, new ProgramFactory(engine));
+	}
+
+	private static void assertSameResults(String code) {
+		List<Object> interpreted = parse(code, ExecutionEngine.INTERPRETER).execute(1.0);
+		List<Object> assembled = parse(code, ExecutionEngine.VIRTUAL_MACHINE).execute(1.0);
+		assertArrayEquals(interpreted.toArray(), assembled.toArray());
+	}
+
+	@Test
+	public void testCreateProgram_assembled() {
+		assertNotNull(parse("print 1.0; ", ExecutionEngine.VIRTUAL_MACHINE).getVmState());
+		assertNull(parse("print 1.0; ", ExecutionEngine.INTERPRETER).getVmState());
+	}
+
+	@Test
+	public void testExecute_sameResultsAsInterpreter() {
+		assertSameResults("def fac { if $1 < 1.5 { return 1.0; } return $1 * fac($1 + -1.0); } "
+				+ "a := 1.0; while a < 5.5 { print fac(a); a := a + 1.0; } ");
+		assertSameResults("def sum { i := 0.0; s := 0.0; while i < $1 { s := s + i + sum(i); i := i + 1.0; } "
+				+ "return s; } print sum(4.0); ");
+		assertSameResults("def f { b := a; a := 7.0; return b * a; } a := 2.0; print f(); print a; ");
+		assertSameResults("def f { break; return 0.0; } def g { return f(); } a := 10.0; "
+				+ "while a < 20.5 { print a; if 14.5 < a { b := g(); } a := a + 2.0; } print 0.0; ");
+		assertSameResults("a := 1.0; while a < 10.0 { if 4.5 < a { break; } else { print a; } a := a + 1.0; } ");
+		assertSameResults("a := 4.0; b := a; print a == b; print 4.0 == a; print ! (sqrt(a) < -a); ");
+	}
+
+	@Test
+	public void testExecute_returnInMainStatement() {
+		Program program = parse("print 1.0; return 2.0; ", ExecutionEngine.VIRTUAL_MACHINE);
+		assertNotNull(program.getVmState());
+		try {
+			program.execute(1.0);
+			fail();
+		} catch (IllegalStateException exc) {
+			// like the other engines, the return completes the main statement, which is not a function
+		}
+	}
+
+	@Test
+	public void testExecute_resumesAtSuspendedAction() {
+		Program program = parse("a := 1.0; while a < 3.5 { print a; skip; a := a + 1.0; } print 0.0; ",
+				ExecutionEngine.VIRTUAL_MACHINE);
+		assertNull(program.execute(0.1));
+		assertNull(program.execute(0.1));
+		assertNull(program.execute(0.2));
+		List<Object> results = program.execute(0.2);
+		assertArrayEquals(new Object[] { 1.0, 2.0, 3.0, 0.0 }, results.toArray());
+	}
+
+	@Test
+	public void testVmState_serializable() throws Exception {
+		String code = "a := 1.0; skip; a := a + 1.0; print a; ";
+		Program program = parse(code, ExecutionEngine.VIRTUAL_MACHINE);
+		assertNull(program.execute(0.1));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(program.getVmState());
+		}
+		VmState state;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			state = (VmState) in.readObject();
+		}
+
+		Program copy = parse(code, ExecutionEngine.VIRTUAL_MACHINE);
+		copy.setVmState(state);
+		assertEquals(program.getVmState().getPc(), state.getPc());
+		assertNull(copy.execute(0.1));
+		List<Object> results = copy.execute(0.1);
+		assertArrayEquals(new Object[] { 2.0 }, results.toArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testExecute_unassignedVariable() {
+		parse("def f { return b; } print f(); b := 1.0; ", ExecutionEngine.VIRTUAL_MACHINE).execute(1.0);
+	}
+}